@@ -0,0 +1,82 @@
+package com.tsys.fraud_checker.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of looking cards up in a map of 10000 of them by their number, as
+ * received with separators, keyed by its digits as a String against
+ * keyed by its Pan.  Each lookup normalises the number it is given, as
+ * a freshly parsed check would, and a Pan is fingerprinted as it is
+ * made.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PanBenchmark {
+
+    private static final int CARDS = 10000;
+
+    private String[] numbers;
+    private Map<String, Integer> byDigits;
+    private Map<Pan, Integer> byPan;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        numbers = new String[CARDS];
+        byDigits = new HashMap<>();
+        byPan = new HashMap<>();
+        for (int i = 0; i < CARDS; i++) {
+            final StringBuilder number = new StringBuilder(19);
+            for (int digit = 0; digit < 16; digit++) {
+                if (digit > 0 && digit % 4 == 0)
+                    number.append('-');
+                number.append(random.nextInt(10));
+            }
+            numbers[i] = number.toString();
+            byDigits.put(digitsOf(numbers[i]), i);
+            byPan.put(Pan.of(numbers[i]), i);
+        }
+    }
+
+    private static String digitsOf(String number) {
+        final StringBuilder digits = new StringBuilder(number.length());
+        for (int i = 0; i < number.length(); i++)
+            if (Character.isDigit(number.charAt(i)))
+                digits.append(number.charAt(i));
+        return digits.toString();
+    }
+
+    @Benchmark
+    public void byDigits(Blackhole blackhole) {
+        for (String number : numbers)
+            blackhole.consume(byDigits.get(digitsOf(number)));
+    }
+
+    @Benchmark
+    public void byPan(Blackhole blackhole) {
+        for (String number : numbers)
+            blackhole.consume(byPan.get(Pan.of(number)));
+    }
+}
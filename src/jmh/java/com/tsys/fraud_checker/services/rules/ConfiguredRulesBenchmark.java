@@ -0,0 +1,83 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of holding a check to the configured rules, interpreted as they
+ * are written against compiled into a decision tree of lambdas.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfiguredRulesBenchmark {
+
+    private static final String[] CURRENCIES = {"INR", "USD", "EUR", "GBP", "JPY", "AUD", "CAD", "SGD"};
+
+    @Param({"10", "100"})
+    public int rules;
+
+    private List<RuleDefinition> definitions;
+    private CompiledRules compiled;
+    private CreditCard card;
+    private Money charge;
+
+    @Setup
+    public void setUp() {
+        definitions = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            final String currency = CURRENCIES[i % CURRENCIES.length];
+            switch (i % 3) {
+                case 0:
+                    definitions.add(new RuleDefinition("large " + currency + " charge " + i, "suspicious",
+                            List.of(currency), 100000d + i, null, null));
+                    break;
+                case 1:
+                    definitions.add(new RuleDefinition("blocked " + currency + " issuer " + i, "fail",
+                            List.of(currency), null, List.of("Bank of Fraud " + i, "Bank of Scam " + i), null));
+                    break;
+                default:
+                    definitions.add(new RuleDefinition("expiring " + currency + " card " + i, "suspicious",
+                            List.of(currency), 5000d + i, null, 30));
+            }
+        }
+        compiled = CompiledRules.compile(definitions);
+        card = new CreditCard("4485-2847-2013-4093", "Jumping Jack", "Bank of Test",
+                new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365)), 123);
+        charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    }
+
+    @Benchmark
+    public Outcome interpreted() {
+        return RuleDefinition.interpret(definitions, card, charge);
+    }
+
+    @Benchmark
+    public Outcome compiled() {
+        return compiled.evaluate(card, charge);
+    }
+}
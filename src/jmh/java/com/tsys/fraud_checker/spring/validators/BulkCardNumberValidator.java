@@ -0,0 +1,130 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import java.util.List;
+
+/**
+ * Checks many card numbers at once, as @CardNumber checks each of them
+ * (see {@link CardNumberValidator}).
+ * <p>
+ * The numbers are first packed, their separators left out, a digit to a
+ * byte, eight to a long, from the check digit on.  A number whose length
+ * or check digit is wrong is not packed at all.  Their Luhn checksums are
+ * then worked out eight digits at a time, as the digits to double are in
+ * the same bytes of every long: each long is summed with a handful of
+ * arithmetic operations across its bytes, without a branch.
+ * <p>
+ * (The JDK Vector API would do the same across longs, but needs a later
+ * JDK than the one this runs on.)
+ * <p>
+ * It is not used by the service, only measured against
+ * CardNumberValidator, see {@link BulkCardNumberValidatorBenchmark}.
+ * The number is a tenth of what Bean Validation spends on a check, and
+ * leaving it out of the per-check validation of /check/batch made each
+ * check slower, not faster.
+ */
+public class BulkCardNumberValidator {
+
+    // Longs a number is packed into, enough for 23 digits.
+    private static final int LONGS = 3;
+    // The bytes of the digits that are doubled, every other one from the
+    // check digit in the lowest byte, and 3 and 1 in each of them.
+    private static final long DOUBLED = 0xFF00FF00FF00FF00L;
+    private static final long THREES = 0x0300030003000300L;
+    private static final long ONES = 0x0100010001000100L;
+    // Multiplying by it sums all the bytes into the highest one.
+    private static final long BYTES = 0x0101010101010101L;
+
+    private final int min;
+    private final int max;
+
+    public BulkCardNumberValidator(int min, int max) {
+        if (min < 0)
+            throw new IllegalArgumentException("min cannot be negative");
+        if (max < min)
+            throw new IllegalArgumentException("max cannot be less than min");
+        this.min = min;
+        this.max = max;
+    }
+
+    public static BulkCardNumberValidator of(CardNumber constraint) {
+        return new BulkCardNumberValidator(constraint.min(), constraint.max());
+    }
+
+    /**
+     * @return for each of the numbers, in order, whether @CardNumber
+     * finds it valid
+     */
+    public boolean[] validate(List<? extends CharSequence> numbers) {
+        final int count = numbers.size();
+        final boolean[] valid = new boolean[count];
+        final long[] packed = new long[LONGS * count];
+        for (int i = 0; i < count; i++)
+            valid[i] = pack(numbers.get(i), packed, LONGS * i);
+        for (int i = 0; i < count; i++)
+            valid[i] &= luhnSum(packed, LONGS * i) % 10 == 0;
+        return valid;
+    }
+
+    private boolean pack(CharSequence number, long[] packed, int at) {
+        if (number == null)
+            return false;
+        final int length = number.length();
+        if (length == 0 || length < min || length > max)
+            return false;
+        // A check digit is never blank, so neither is a number with one.
+        final char checkDigit = number.charAt(length - 1);
+        if (checkDigit < '0' || checkDigit > '9')
+            return false;
+
+        if (length >= LONGS * 8)
+            return packSum(number, checkDigit, packed, at);
+
+        long digits = checkDigit - '0';
+        int column = 1;
+        int into = at;
+        for (int i = length - 2; i >= 0; i--) {
+            final char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits |= (long) (c - '0') << ((column & 7) << 3);
+                if ((++column & 7) == 0) {
+                    packed[into++] = digits;
+                    digits = 0;
+                }
+            }
+        }
+        packed[into] = digits;
+        return true;
+    }
+
+    // A number too long to pack (as only with separators in it, or with
+    // no max length) is summed as it is read, and packed as that sum.
+    private static boolean packSum(CharSequence number, char checkDigit, long[] packed, int at) {
+        int sum = checkDigit - '0';
+        boolean doubled = true;
+        for (int i = number.length() - 2; i >= 0; i--) {
+            final char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                final int digit = doubled ? 2 * (c - '0') : c - '0';
+                sum += digit > 9 ? digit - 9 : digit;
+                doubled = !doubled;
+            }
+        }
+        packed[at] = sum % 10;
+        return true;
+    }
+
+    // Each long holds a digit in each byte, and the odd ones are doubled.
+    // A doubled digit over 9 has 9 taken off it, a digit being over 4 as
+    // adding 3 to it sets its fourth bit.
+    private static int luhnSum(long[] packed, int at) {
+        int sum = 0;
+        for (int i = at; i < at + LONGS; i++) {
+            final long digits = packed[i];
+            final long doubling = digits & DOUBLED;
+            final long overNine = ((doubling + THREES) >>> 3) & ONES;
+            final long summed = (digits & ~DOUBLED) | ((doubling << 1) - 9 * overNine);
+            sum += (int) ((summed * BYTES) >>> 56);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating a batch of card numbers in bulk against validating
+ * them one at a time with @CardNumber's validator.  A tenth of the
+ * numbers fail their Luhn check.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkCardNumberValidatorBenchmark {
+
+    @Param({"16", "500", "10000", "1000000"})
+    public int batchSize;
+
+    private List<String> numbers;
+    private CardNumberValidator cardNumberValidator;
+    private BulkCardNumberValidator bulkCardNumberValidator;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        final Random random = new Random(42);
+        numbers = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++)
+            numbers.add(number(random, i % 10 != 0));
+        final CardNumber constraint = CreditCard.class.getField("number").getAnnotation(CardNumber.class);
+        cardNumberValidator = new CardNumberValidator();
+        cardNumberValidator.initialize(constraint);
+        bulkCardNumberValidator = BulkCardNumberValidator.of(constraint);
+        final boolean[] valid = bulkCardNumberValidator.validate(numbers);
+        for (int i = 0; i < batchSize; i++)
+            if (valid[i] != cardNumberValidator.isValid(numbers.get(i), null))
+                throw new IllegalStateException(String.format("%s is %s in bulk, but not one at a time", numbers.get(i), valid[i] ? "valid" : "invalid"));
+    }
+
+    // A 16 digit number, in groups of 4, with or without a valid check digit.
+    private static String number(Random random, boolean valid) {
+        final int[] digits = new int[16];
+        int sum = 0;
+        for (int i = 0; i < 15; i++) {
+            digits[i] = random.nextInt(10);
+            final int digit = i % 2 == 0 ? 2 * digits[i] : digits[i];
+            sum += digit > 9 ? digit - 9 : digit;
+        }
+        digits[15] = ((10 - sum % 10) % 10 + (valid ? 0 : 1)) % 10;
+        final StringBuilder number = new StringBuilder(19);
+        for (int i = 0; i < 16; i++) {
+            if (i > 0 && i % 4 == 0)
+                number.append('-');
+            number.append(digits[i]);
+        }
+        return number.toString();
+    }
+
+    @Benchmark
+    public void eachNumber(Blackhole blackhole) {
+        for (String number : numbers)
+            blackhole.consume(cardNumberValidator.isValid(number, null));
+    }
+
+    @Benchmark
+    public boolean[] bulkNumbers() {
+        return bulkCardNumberValidator.validate(numbers);
+    }
+}
@@ -0,0 +1,88 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import org.hibernate.validator.constraints.CreditCardNumber;
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.LuhnCheck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating a card number with @CardNumber, against the chain
+ * of @NotBlank, @Length, @CreditCardNumber and @LuhnCheck it replaced,
+ * both through the Validator as a check's payload is.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardNumberValidationBenchmark {
+
+    @Param({"4485-2847-2013-4093", "4485-2847-2013-4094"})
+    public String number;
+
+    private Validator validator;
+    private SinglePass singlePass;
+    private AnnotationChain annotationChain;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        singlePass = new SinglePass(number);
+        annotationChain = new AnnotationChain(number);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<SinglePass>> singlePass() {
+        return validator.validate(singlePass);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<AnnotationChain>> annotationChain() {
+        return validator.validate(annotationChain);
+    }
+
+    public static class SinglePass {
+        @CardNumber(min = 16, max = 19,
+                requiredMessage = "Card number is required",
+                message = "Invalid Credit Card Number",
+                luhnMessage = "Failed Luhn check!")
+        public final String number;
+
+        SinglePass(String number) {
+            this.number = number;
+        }
+    }
+
+    public static class AnnotationChain {
+        @NotBlank(message = "Card number is required")
+        @Length(min = 16, max = 19)
+        @CreditCardNumber(ignoreNonDigitCharacters = true, message = "Invalid Credit Card Number")
+        @LuhnCheck(message = "Failed Luhn check!")
+        public final String number;
+
+        AnnotationChain(String number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.constraints.NotNull;
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of calling a @Validated VerificationService with a check, as a
+ * caller who has not validated it, against one who has and vouches for
+ * it.  The difference is the time a check saves by not being validated
+ * a second time.  Method validation takes a while to warm up, hence the
+ * longer warmup.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrustedCallerBenchmark {
+
+    private VerificationService verificationService;
+    private CreditCard card;
+    private Money charge;
+
+    @Setup
+    public void setUp() {
+        final ProxyFactory proxyFactory = new ProxyFactory(new AnsweringVerificationService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TrustingMethodValidationInterceptor(Validation.buildDefaultValidatorFactory().getValidator()));
+        verificationService = (VerificationService) proxyFactory.getProxy();
+        card = new CreditCard("4485-2847-2013-4093", "Jumping Jack", "Bank of Test",
+                new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365)), 123);
+        charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    }
+
+    @Benchmark
+    public FraudStatus validated() throws InterruptedException {
+        return verificationService.verifyTransactionAuthenticity(card, charge);
+    }
+
+    @Benchmark
+    public FraudStatus vouchedFor() throws InterruptedException {
+        return TrustedCaller.call(() -> verificationService.verifyTransactionAuthenticity(card, charge), card, charge);
+    }
+
+    // Answers straight away, so that only the validation is measured.
+    @Validated
+    public static class AnsweringVerificationService implements VerificationService {
+        private static final FraudStatus PASS = FraudStatus.of(0, 0, false);
+
+        @Override
+        public FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                         @NotNull @Valid Money charge) {
+            return PASS;
+        }
+    }
+}
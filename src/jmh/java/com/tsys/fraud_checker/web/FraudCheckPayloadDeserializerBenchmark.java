@@ -0,0 +1,73 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost, in time and in bytes allocated, of reading a /check body bound
+ * reflectively by the application's ObjectMapper against streamed by
+ * {@link FraudCheckPayloadDeserializer}.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudCheckPayloadDeserializerBenchmark {
+
+    private final byte[] body = ("{\n" +
+            "    \"creditCard\" : {\n" +
+            "        \"number\": \"4485-2847-2013-4093\",\n" +
+            "        \"holderName\" : \"Jumping Jack\",\n" +
+            "        \"issuingBank\" : \"Bank of America\",\n" +
+            "        \"validUntil\" : \"2030-10-04T01:00:26.874+00:00\",\n" +
+            "        \"cvv\" : 123\n" +
+            "    },\n" +
+            "    \"charge\" : {\n" +
+            "        \"currency\" : \"INR\",\n" +
+            "        \"amount\" : 1235.45\n" +
+            "    }\n" +
+            "}").getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectReader reflective = Jackson2ObjectMapperBuilder.json()
+            .mixIn(FraudCheckPayload.class, ReflectiveBinding.class)
+            .build()
+            .readerFor(FraudCheckPayload.class);
+    private final ObjectReader streaming = Jackson2ObjectMapperBuilder.json()
+            .<ObjectMapper>build()
+            .readerFor(FraudCheckPayload.class);
+
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class ReflectiveBinding {
+    }
+
+    @Benchmark
+    public FraudCheckPayload reflective() throws IOException {
+        return reflective.readValue(body);
+    }
+
+    @Benchmark
+    public FraudCheckPayload streaming() throws IOException {
+        return streaming.readValue(body);
+    }
+}
@@ -0,0 +1,49 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost, in time and in bytes allocated (gc.alloc.rate.norm), of making
+ * the body of a /check response: a new FraudStatus run through Jackson
+ * against the canonical one's pre-encoded body.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudStatusBodiesBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Not constants, so that the statuses are decided in the benchmark.
+    private int cvvStatusCode = 0;
+    private int avStatusCode = 1;
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new FraudStatus(cvvStatusCode, avStatusCode, Outcome.PASS));
+    }
+
+    @Benchmark
+    public byte[] preEncoded() {
+        return FraudStatusBodies.of(FraudStatus.of(cvvStatusCode, avStatusCode, Outcome.PASS), WireFormat.JSON);
+    }
+}
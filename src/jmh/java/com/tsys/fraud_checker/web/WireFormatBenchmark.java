@@ -0,0 +1,97 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.protobuf.CodedInputStream;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.RiskThresholds;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Currency;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost, in time and in bytes allocated, of reading a /check body and of
+ * writing a FraudStatus (one scored for the caller's thresholds, so not
+ * pre-encoded) in each {@link WireFormat}.  The size of both bodies in
+ * each format is printed before its run.
+ * <pre>
+ * ./gradlew jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    // By name, as WireFormat is not visible to the generated benchmarks.
+    @Param({"JSON", "CBOR", "SMILE", "PROTOBUF"})
+    private String formatName;
+
+    private final FraudCheckPayload check = new FraudCheckPayload(
+            new CreditCard("4485-2847-2013-4093", "Jumping Jack", "Bank of America", new Date(1917219626874L), 123),
+            new Money(Currency.getInstance("INR"), 1235.45d));
+    private final FraudStatus status = FraudStatus.of(FraudStatus.TIMED_OUT, 0, true)
+            .scoredFor(RiskThresholds.DEFAULT);
+
+    private WireFormat format;
+    private byte[] body;
+    private ObjectReader reader;
+
+    @Setup
+    public void encodeCheck() throws IOException {
+        format = WireFormat.valueOf(formatName);
+        final ObjectMapper mapper = mapperFor(format);
+        if (mapper == null) {
+            body = FraudCheckProtobuf.encode(check);
+        } else {
+            body = mapper.writeValueAsBytes(check);
+            reader = mapper.readerFor(FraudCheckPayload.class);
+        }
+        System.out.printf("%n%s: check is %d bytes, status is %d bytes%n", format, body.length, format.encode(status).length);
+    }
+
+    private static ObjectMapper mapperFor(WireFormat format) {
+        switch (format) {
+            case JSON:
+                return Jackson2ObjectMapperBuilder.json().build();
+            case CBOR:
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            case SMILE:
+                return Jackson2ObjectMapperBuilder.smile().build();
+            default:
+                return null;
+        }
+    }
+
+    @Benchmark
+    public FraudCheckPayload readCheck() throws IOException {
+        return reader == null
+                ? FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(body), false)
+                : reader.readValue(body);
+    }
+
+    @Benchmark
+    public byte[] writeStatus() {
+        return format.encode(status);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tsys.fraud_checker.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// NOTE:
+// =====
+// POST /check hands its verification to Spring MVC as a WebAsyncTask,
+// so the Tomcat thread goes back to the pool as soon as the payload is
+// parsed and only comes back to write the FraudStatus.  Tomcat's
+// max-threads then no longer caps the number of checks in flight, the
+// checkExecutor pool (verification.check.pool-size and queue-capacity)
+// does.  It is Spring MVC's default async executor, so it also writes
+// out the results of streamed checks.
+//
+// This is kept apart from FraudConfiguration, as WebMvcConfigurers are
+// also picked up by @WebMvcTest slices, and this one depends on nothing
+// but the Environment.
+@Configuration
+public class AsyncWebConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private Environment env;
+
+    @Bean
+    public AsyncTaskExecutor checkExecutor() {
+        return VerificationExecutors.newExecutor(env, "check-", "verification.check");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(checkExecutor());
+    }
+}
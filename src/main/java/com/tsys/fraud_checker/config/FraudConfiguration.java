@@ -1,14 +1,30 @@
 package com.tsys.fraud_checker.config;
 
 import com.tsys.fraud_checker.services.*;
+import com.tsys.fraud_checker.services.cache.CachingVerificationService;
+import com.tsys.fraud_checker.services.cache.DecisionCache;
+import com.tsys.fraud_checker.services.cache.SingleFlightVerificationService;
+import com.tsys.fraud_checker.services.screening.StolenCardScreeningVerificationService;
+import com.tsys.fraud_checker.services.screening.StolenCards;
+import com.tsys.fraud_checker.services.velocity.Velocity;
+import com.tsys.fraud_checker.services.velocity.VelocityCheckingVerificationService;
+import com.tsys.fraud_checker.spring.validators.TrustingMethodValidationInterceptor;
+import com.tsys.fraud_checker.spring.validators.VouchingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.framework.ProxyFactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.lang.Nullable;
 
+import javax.validation.Validator;
 import java.util.Random;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -26,18 +42,74 @@ public class FraudConfiguration {
         return new Random(4864325435L);
     }
 
+    @Bean
+    public AsyncTaskExecutor cvvVerificationExecutor() {
+        return VerificationExecutors.newExecutor(env, "cvv-verification-", "verification.cvv");
+    }
+
+    @Bean
+    public AsyncTaskExecutor addressVerificationExecutor() {
+        return VerificationExecutors.newExecutor(env, "address-verification-", "verification.address");
+    }
+
+    // Tomcat hands each request to its worker pool (200 threads by
+    // default), which caps the number of in-flight checks.  In the
+    // virtual-threads execution mode every request gets a virtual
+    // thread instead.
+    @Bean
+    @ConditionalOnProperty(name = VerificationExecutors.EXECUTION_MODE, havingValue = VerificationExecutors.VIRTUAL_THREADS)
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestHandling() {
+        LOG.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-virtual-"));
+    }
+
     @Bean("verificationService")
     public VerificationService verificationService(DefaultVerificationService defaultVerificationService,
                                                    @Nullable VerificationServiceRouter router,
-                                                   @Nullable VerificationServiceRoutingInterceptor verificationServiceRoutingInterceptor) throws ClassNotFoundException {
+                                                   @Nullable VerificationServiceRoutingInterceptor verificationServiceRoutingInterceptor,
+                                                   DecisionCache decisionCache,
+                                                   StolenCards stolenCards,
+                                                   Velocity velocity,
+                                                   MeterRegistry meterRegistry,
+                                                   Validator validator) throws ClassNotFoundException {
+        VerificationService verificationService;
         if (isDevelopmentProfile()) {
             LOG.info("Development Profile");
             final ProxyFactoryBean proxyFactoryBean = new ProxyFactoryBean();
             proxyFactoryBean.addAdvice(verificationServiceRoutingInterceptor);
             proxyFactoryBean.setTarget(router);
-            return (VerificationService) proxyFactoryBean.getObject();
+            verificationService = (VerificationService) proxyFactoryBean.getObject();
+        } else {
+            verificationService = defaultVerificationService;
         }
-        return defaultVerificationService;
+        // A check of a stolen card fails straight away, as does one that
+        // takes its card over a velocity window.  Any other is answered
+        // from the decision cache if it can be, else from an identical
+        // check in flight if there is one, and only then verified.
+        if (env.getProperty("verification.single-flight.enabled", Boolean.class, true))
+            verificationService = new SingleFlightVerificationService(verificationService, meterRegistry);
+        if (decisionCache.isEnabled())
+            verificationService = new CachingVerificationService(verificationService, decisionCache);
+        if (velocity.isEnabled())
+            verificationService = new VelocityCheckingVerificationService(verificationService, velocity);
+        if (stolenCards.isEnabled())
+            verificationService = new StolenCardScreeningVerificationService(verificationService, stolenCards);
+        return verificationService == defaultVerificationService
+                ? verificationService
+                : validating(verificationService, validator);
+    }
+
+    // The decorators read the card before passing it on, so a check is
+    // validated on its way into the outermost of them, as it is on its
+    // way into a @Validated bean, and then vouched for on its way to the
+    // DefaultVerificationService, so it is not validated twice.
+    private static VerificationService validating(VerificationService verificationService, Validator validator) {
+        final ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTarget(verificationService);
+        proxyFactory.addInterface(VerificationService.class);
+        proxyFactory.addAdvice(new TrustingMethodValidationInterceptor(validator));
+        proxyFactory.addAdvice(new VouchingInterceptor());
+        return (VerificationService) proxyFactory.getProxy();
     }
 
     private boolean isDevelopmentProfile() {
@@ -0,0 +1,47 @@
+package com.tsys.fraud_checker.config;
+
+import com.tsys.fraud_checker.grpc.FraudCheckerGrpcService;
+import com.tsys.fraud_checker.services.VerificationService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import javax.validation.Validator;
+
+// NOTE:
+// =====
+// The FraudChecker gRPC service (see FraudCheckerGrpcService) runs in
+// the same process as the REST API, on a Netty server of its own at
+// grpc.server.port.  Its checks go to the same VerificationService, on
+// the same checkExecutor, with the same budgets, so both ways of
+// checking share (and are limited by) the same pools.  Without a port,
+// there is no gRPC server.
+@Configuration
+@ConditionalOnProperty(name = "grpc.server.port")
+public class GrpcServerConfiguration {
+
+    @Bean
+    public FraudCheckerGrpcService fraudCheckerGrpcService(VerificationService verificationService,
+                                                           Validator validator,
+                                                           @Qualifier("checkExecutor") AsyncTaskExecutor checkExecutor,
+                                                           @Value("${verification.check.timeout-millis:6000}") long checkTimeoutMillis,
+                                                           @Value("${verification.check.budget-millis:800}") long checkBudgetMillis,
+                                                           @Value("${verification.check.budget-headroom-millis:50}") long budgetHeadroomMillis,
+                                                           @Value("${verification.stream.max-in-flight:64}") int maxInFlight) {
+        return new FraudCheckerGrpcService(verificationService, validator, checkExecutor,
+                checkTimeoutMillis, checkBudgetMillis, budgetHeadroomMillis, maxInFlight);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public Server grpcServer(FraudCheckerGrpcService fraudCheckerGrpcService,
+                             @Value("${grpc.server.port}") int port) {
+        return NettyServerBuilder.forPort(port)
+                .addService(fraudCheckerGrpcService)
+                .build();
+    }
+}
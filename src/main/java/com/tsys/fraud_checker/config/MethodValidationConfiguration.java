@@ -0,0 +1,42 @@
+package com.tsys.fraud_checker.config;
+
+import com.tsys.fraud_checker.spring.validators.TrustingMethodValidationInterceptor;
+import org.aopalliance.aop.Advice;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
+
+import javax.validation.Validator;
+
+// NOTE:
+// =====
+// A check is validated by the controller it comes in through, and
+// again by the @Validated VerificationService it is then passed on to.
+// The controllers vouch for the card and charge they validated (see
+// TrustedCaller), and this stands in for Spring Boot's own method
+// validation to let them through without validating them once more.
+// Anyone else calling the service, such as a test, or a bean of our own,
+// still has what they pass validated, on its way into the outermost of
+// the service's decorators (see FraudConfiguration), which then vouch
+// for it on to the service.
+@Configuration
+public class MethodValidationConfiguration {
+
+    @Bean
+    public static MethodValidationPostProcessor methodValidationPostProcessor(Environment environment,
+                                                                              @Lazy Validator validator) {
+        final MethodValidationPostProcessor processor = new MethodValidationPostProcessor() {
+            @Override
+            protected Advice createMethodValidationAdvice(Validator validator) {
+                return validator == null
+                        ? new TrustingMethodValidationInterceptor()
+                        : new TrustingMethodValidationInterceptor(validator);
+            }
+        };
+        processor.setProxyTargetClass(environment.getProperty("spring.aop.proxy-target-class", Boolean.class, true));
+        processor.setValidator(validator);
+        return processor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.tsys.fraud_checker.config;
+
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.logging.Logger;
+
+/**
+ * Builds the executors that verifications (and the checks waiting on
+ * them) run on, according to verification.execution-mode.
+ */
+final class VerificationExecutors {
+    private static final Logger LOG = Logger.getLogger(VerificationExecutors.class.getName());
+    static final String EXECUTION_MODE = "verification.execution-mode";
+    static final String VIRTUAL_THREADS = "virtual-threads";
+
+    private VerificationExecutors() {
+    }
+
+    // In the (default) platform execution mode, each executor gets its
+    // own bounded pool, so that a slow dependency can only exhaust its
+    // own threads and queue.  Once all threads are busy and the queue
+    // is full, submissions are rejected rather than queued without
+    // bound.
+    //
+    // In the virtual-threads execution mode, a verification parked in
+    // Thread.sleep() (or on a socket) does not hold on to a platform
+    // thread, so each task simply gets a new virtual thread.
+    static AsyncTaskExecutor newExecutor(Environment env, String threadNamePrefix, String propertyPrefix) {
+        if (isVirtualThreadsExecutionMode(env)) {
+            LOG.info(() -> String.format("%s on virtual threads", propertyPrefix));
+            return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor(threadNamePrefix));
+        }
+        final int poolSize = env.getProperty(propertyPrefix + ".pool-size", Integer.class, 16);
+        final int queueCapacity = env.getProperty(propertyPrefix + ".queue-capacity", Integer.class, 100);
+        LOG.info(() -> String.format("%s pool-size = %d, queue-capacity = %d", propertyPrefix, poolSize, queueCapacity));
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+
+    static boolean isVirtualThreadsExecutionMode(Environment env) {
+        return VIRTUAL_THREADS.equalsIgnoreCase(env.getProperty(EXECUTION_MODE, "platform"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.tsys.fraud_checker.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * We compile for Java 11, so virtual threads (Java 21) are reached
+ * reflectively.  They are only needed when the virtual-threads execution
+ * mode is switched on, and in that case running on an older JVM is a
+ * configuration error and not something to silently fall back from.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Equivalent of
+     * Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory())
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            final Object namedBuilder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(namedBuilder);
+            final Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            throw new IllegalStateException(String.format("Virtual threads need Java 21 or later, but running on Java %s", Runtime.version()), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.tsys.fraud_checker.config;
+
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobufConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// NOTE:
+// =====
+// Besides JSON, checks can be made in CBOR and Smile, which Spring MVC
+// reads and writes with Jackson as soon as their dataformats are on the
+// classpath, and in Protobuf, which needs a converter of its own.  It
+// goes after the others, so that a caller accepting anything still gets
+// JSON, and only one asking for application/x-protobuf gets Protobuf.
+@Configuration
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new FraudCheckProtobufConverter());
+    }
+}
@@ -1,11 +1,9 @@
 package com.tsys.fraud_checker.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tsys.fraud_checker.spring.validators.CardNumber;
 import com.tsys.fraud_checker.spring.validators.NumberOfDigits;
 import io.swagger.annotations.ApiModelProperty;
-import org.hibernate.validator.constraints.CreditCardNumber;
-import org.hibernate.validator.constraints.Length;
-import org.hibernate.validator.constraints.LuhnCheck;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -20,10 +18,10 @@ public class CreditCard {
             dataType = "java.lang.String",
             required = true,
             example = "4485-2847-2013-4093")
-    @NotBlank(message = "Card number is required")
-    @Length(min = 16, max = 19)
-    @CreditCardNumber(ignoreNonDigitCharacters = true, message = "Invalid Credit Card Number")
-    @LuhnCheck(message = "Failed Luhn check!")
+    @CardNumber(min = 16, max = 19,
+            requiredMessage = "Card number is required",
+            message = "Invalid Credit Card Number",
+            luhnMessage = "Failed Luhn check!")
     public final String number;
 
     @NotBlank(message = "is required")
@@ -52,6 +50,8 @@ public class CreditCard {
     @NumberOfDigits(value = 3, message = "must have 3 digits")
     public final Integer cvv;
 
+    private Pan pan;
+
     @Deprecated
     public CreditCard() {
         this(null, null, null, null, null);
@@ -83,6 +83,29 @@ public class CreditCard {
         return now.after(validUntil);
     }
 
+    /**
+     * @return the number, normalised, or null if it is absent or has
+     * more than Pan.MAX_DIGITS digits (only a card that fails validation
+     * has no PAN).
+     */
+    @JsonIgnore
+    public Pan pan() {
+        Pan pan = this.pan;
+        if (pan == null && number != null)
+            this.pan = pan = Pan.of(number);
+        return pan;
+    }
+
+    /**
+     * @return the keyed fingerprint of all but the number: the CVV,
+     * expiry date, holder and issuing bank.  That of the number is
+     * {@link Pan#fingerprint()}.
+     */
+    @JsonIgnore
+    public long detailsFingerprint() {
+        return Fingerprint.ofDetails(cvv, validUntil.getTime(), holderName, issuingBank);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -92,7 +115,8 @@ public class CreditCard {
             return false;
 
         CreditCard that = (CreditCard) o;
-        return number.equals(that.number) &&
+        final Pan pan = pan();
+        return (pan != null ? pan.equals(that.pan()) : Objects.equals(number, that.number)) &&
                 holderName.equals(that.holderName) &&
                 issuingBank.equals(that.issuingBank) &&
                 validUntil.equals(that.validUntil) &&
@@ -101,17 +125,18 @@ public class CreditCard {
 
     @Override
     public int hashCode() {
-        return Objects.hash(number, holderName, issuingBank, validUntil, cvv);
+        final Pan pan = pan();
+        return Objects.hash(pan != null ? pan : number, holderName, issuingBank, validUntil, cvv);
     }
 
     @Override
     public String toString() {
         return "CreditCard{" +
-                "number='" + number + '\'' +
+                "number='" + pan() + '\'' +
                 ", holderName='" + holderName + '\'' +
                 ", issuingBank='" + issuingBank + '\'' +
                 ", validUntil=" + validUntil +
-                ", cvv=" + cvv +
+                ", cvv=***" +
                 '}';
     }
 }
@@ -0,0 +1,98 @@
+package com.tsys.fraud_checker.domain;
+
+import java.security.SecureRandom;
+
+/**
+ * SipHash-2-4 of a packed PAN, or of the other fields of a card, under a
+ * key drawn afresh by each process.  SipHash is a keyed pseudorandom
+ * function made for short inputs, so a fingerprint cannot be
+ * brute-forced back into its PAN (or CVV) without the key, which never
+ * leaves the process, and takes a few dozen nanoseconds where an
+ * HMAC-SHA256 takes a microsecond.
+ */
+final class Fingerprint {
+
+    private static final long[] KEY = newKey();
+
+    private long v0;
+    private long v1;
+    private long v2;
+    private long v3;
+    private int words;
+
+    private Fingerprint(long k0, long k1) {
+        v0 = k0 ^ 0x736f6d6570736575L;
+        v1 = k1 ^ 0x646f72616e646f6dL;
+        v2 = k0 ^ 0x6c7967656e657261L;
+        v3 = k1 ^ 0x7465646279746573L;
+    }
+
+    static long ofPan(long high, long low, int length) {
+        return sipHash(KEY[0], KEY[1], high, low, length);
+    }
+
+    static long ofDetails(int cvv, long validUntil, String holderName, String issuingBank) {
+        final Fingerprint state = new Fingerprint(KEY[0], KEY[1]);
+        state.compress(cvv);
+        state.compress(validUntil);
+        state.compress(holderName);
+        state.compress(issuingBank);
+        return state.finish();
+    }
+
+    // Of the 24 bytes of the three words, little-endian.
+    static long sipHash(long k0, long k1, long first, long second, long third) {
+        final Fingerprint state = new Fingerprint(k0, k1);
+        state.compress(first);
+        state.compress(second);
+        state.compress(third);
+        return state.finish();
+    }
+
+    // Its length, then its characters four to a word, so that no two
+    // pairs of strings run together the same.
+    private void compress(String text) {
+        final int length = text.length();
+        compress(length);
+        for (int i = 0; i < length; i += 4) {
+            long word = 0;
+            for (int j = i; j < Math.min(i + 4, length); j++)
+                word |= (long) text.charAt(j) << ((j - i) << 4);
+            compress(word);
+        }
+    }
+
+    private void compress(long word) {
+        v3 ^= word;
+        round();
+        round();
+        v0 ^= word;
+        words++;
+    }
+
+    private long finish() {
+        compress((long) (words << 3) << 56);
+        v2 ^= 0xFF;
+        for (int i = 0; i < 4; i++)
+            round();
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    private void round() {
+        v0 += v1;
+        v1 = Long.rotateLeft(v1, 13) ^ v0;
+        v0 = Long.rotateLeft(v0, 32);
+        v2 += v3;
+        v3 = Long.rotateLeft(v3, 16) ^ v2;
+        v0 += v3;
+        v3 = Long.rotateLeft(v3, 21) ^ v0;
+        v2 += v1;
+        v1 = Long.rotateLeft(v1, 17) ^ v2;
+        v2 = Long.rotateLeft(v2, 32);
+    }
+
+    private static long[] newKey() {
+        final SecureRandom random = new SecureRandom();
+        return new long[]{random.nextLong(), random.nextLong()};
+    }
+}
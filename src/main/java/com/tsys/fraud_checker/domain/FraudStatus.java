@@ -1,5 +1,11 @@
 package com.tsys.fraud_checker.domain;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 // Address Verification Service (AVS)
 // AVS is an effective security measure to detect online fraud.
 // When customers purchase items, they need to provide their billing
@@ -37,33 +43,200 @@ package com.tsys.fraud_checker.domain;
 // to the fingerprints of people, that helps identify fraudulent
 // patterns and assess risk if any.
 
+// Internally a check is decided on the Signals found against the card,
+// packed into a mask and weighed into a risk score of 0 to 1000, which
+// the RiskThresholds of the caller decide on.  The statuses are only
+// picked for the JSON from tables of the constants below, so no String
+// is made, or compared, to decide a check.
 public class FraudStatus {
 
     public static final String PASS = "pass";
     public static final String FAIL = "fail";
     public static final String SUSPICIOUS = "suspicious";
+    public static final String UNKNOWN = "unknown";
+
+    // Status code of a verification that did not complete within the
+    // latency budget of its check.
+    public static final int TIMED_OUT = -1;
+    // Status code of a verification that was not made, as the circuit
+    // breaker or bulkhead of its check turned it away.
+    public static final int UNAVAILABLE = -2;
+    public static final String CVV_CHECK = "cvv";
+    public static final String ADDRESS_CHECK = "address";
 
     public static final String ADDRESS_VERIFICATION_IA = "incorrect address";
+    public static final String STOLEN_CARD = "stolen card";
+    public static final String CARD_EXPIRED = "card expired";
+    public static final String BLOCKED_BIN = "blocked bin";
+    public static final String VELOCITY_EXCEEDED = "velocity exceeded";
+
+    private static final String[] CVV_STATUSES = {PASS, FAIL};
+    private static final String[] AV_STATUSES = {PASS, ADDRESS_VERIFICATION_IA};
+    // The checks that timed out (or were unavailable), indexed by a mask
+    // of 1 for the CVV check and 2 for the address one.
+    private static final List<List<String>> CHECKS = List.of(
+            List.of(), List.of(CVV_CHECK), List.of(ADDRESS_CHECK), List.of(CVV_CHECK, ADDRESS_CHECK));
+    // The one instance of each status a verification can come to, from
+    // UNAVAILABLE to a failed verification (-2 to 1) for each check, for
+    // each outcome of the rules.
+    private static final int LOWEST_STATUS_CODE = UNAVAILABLE;
+    private static final int STATUS_CODES = 4;
+    private static final FraudStatus[] CANONICAL = canonicalStatuses();
+
     public final String cvvStatus;
     public final String avStatus;
     public final String overall;
-    private String[] cvvStatuses = new String[]{PASS, FAIL};
-    private String[] avStatuses = new String[]{PASS, ADDRESS_VERIFICATION_IA};
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public final List<String> timedOut;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public final List<String> unavailable;
+    // Why the check failed without verifying the card at all.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public final String reason;
+    // The velocity windows the card went over, when that is the reason.
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public final List<String> velocityExceeded;
+    // Only given to a caller that asked for the check to be decided on
+    // thresholds of its own (see scoredFor).
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public final Integer riskScore;
+    private final int signals;
+
+    @Deprecated
+    public FraudStatus() {
+        this(null, Collections.emptyList());
+    }
 
     public FraudStatus(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
-        this.cvvStatus = cvvStatuses[cvvStatusCode];
-        this.avStatus = avStatuses[avStatusCode];
-        this.overall = computeOverallStatus(cvvStatus, avStatus, hasCardExpired);
+        this(cvvStatusCode, avStatusCode, hasCardExpired ? Outcome.FAIL : Outcome.PASS);
+    }
+
+    // The outcome of the verifications is combined with that of the rules
+    // evaluated ahead of them.
+    public FraudStatus(int cvvStatusCode, int avStatusCode, Outcome rules) {
+        this.signals = cvvSignalOf(cvvStatusCode) | avSignalOf(avStatusCode) | rulesSignalOf(rules);
+        this.cvvStatus = statusOf(CVV_STATUSES, cvvStatusCode);
+        this.avStatus = statusOf(AV_STATUSES, avStatusCode);
+        this.overall = RiskThresholds.DEFAULT.decide(Signal.scoreOf(signals)).status;
+        this.timedOut = checksWith(TIMED_OUT, cvvStatusCode, avStatusCode);
+        this.unavailable = checksWith(UNAVAILABLE, cvvStatusCode, avStatusCode);
+        this.reason = null;
+        this.velocityExceeded = Collections.emptyList();
+        this.riskScore = null;
     }
 
-    private String computeOverallStatus(String cvvStatus, String avStatus, boolean hasCardExpired) {
-        if (hasCardExpired || cvvStatus.equals(FAIL))
-            return FAIL;
+    private FraudStatus(String reason, List<String> velocityExceeded) {
+        this.signals = Signal.RULES_FAILED.bit;
+        this.cvvStatus = UNKNOWN;
+        this.avStatus = UNKNOWN;
+        this.overall = FAIL;
+        this.timedOut = Collections.emptyList();
+        this.unavailable = Collections.emptyList();
+        this.reason = reason;
+        this.velocityExceeded = velocityExceeded;
+        this.riskScore = null;
+    }
+
+    private FraudStatus(FraudStatus status, RiskThresholds thresholds) {
+        this.signals = status.signals;
+        this.cvvStatus = status.cvvStatus;
+        this.avStatus = status.avStatus;
+        this.riskScore = Signal.scoreOf(signals);
+        this.overall = thresholds.decide(riskScore).status;
+        this.timedOut = status.timedOut;
+        this.unavailable = status.unavailable;
+        this.reason = status.reason;
+        this.velocityExceeded = status.velocityExceeded;
+    }
+
+    /**
+     * The canonical, shared instance of the status, so that deciding a
+     * check allocates nothing.
+     */
+    public static FraudStatus of(int cvvStatusCode, int avStatusCode, Outcome rules) {
+        final int cvv = cvvStatusCode - LOWEST_STATUS_CODE;
+        final int av = avStatusCode - LOWEST_STATUS_CODE;
+        if (cvv < 0 || cvv >= STATUS_CODES || av < 0 || av >= STATUS_CODES)
+            throw new IllegalArgumentException(String.format("No status for CVV status code %d and address status code %d", cvvStatusCode, avStatusCode));
+        return CANONICAL[(cvv * STATUS_CODES + av) * Outcome.values().length + rules.ordinal()];
+    }
+
+    public static FraudStatus of(int cvvStatusCode, int avStatusCode, boolean hasCardExpired) {
+        return of(cvvStatusCode, avStatusCode, hasCardExpired ? Outcome.FAIL : Outcome.PASS);
+    }
+
+    /**
+     * Every canonical status, for those that want to prepare something
+     * for each of them ahead of time.
+     */
+    public static List<FraudStatus> canonical() {
+        return List.of(CANONICAL);
+    }
 
-        if (avStatus.equals(ADDRESS_VERIFICATION_IA) && cvvStatus.equals(PASS))
-            return SUSPICIOUS;
+    private static FraudStatus[] canonicalStatuses() {
+        final Outcome[] outcomes = Outcome.values();
+        final FraudStatus[] statuses = new FraudStatus[STATUS_CODES * STATUS_CODES * outcomes.length];
+        int index = 0;
+        for (int cvv = 0; cvv < STATUS_CODES; cvv++)
+            for (int av = 0; av < STATUS_CODES; av++)
+                for (Outcome rules : outcomes)
+                    statuses[index++] = new FraudStatus(cvv + LOWEST_STATUS_CODE, av + LOWEST_STATUS_CODE, rules);
+        return statuses;
+    }
+
+    public static FraudStatus failedWithoutVerification(String reason) {
+        return new FraudStatus(reason, Collections.emptyList());
+    }
+
+    public static FraudStatus failedOnVelocity(List<String> windows) {
+        return new FraudStatus(VELOCITY_EXCEEDED, Collections.unmodifiableList(new ArrayList<>(windows)));
+    }
+
+    /**
+     * This status with its risk score given, and decided overall on the
+     * thresholds of the caller rather than the default ones.
+     */
+    public FraudStatus scoredFor(RiskThresholds thresholds) {
+        return new FraudStatus(this, thresholds);
+    }
+
+    public boolean has(Signal signal) {
+        return signal.isIn(signals);
+    }
+
+    private static int cvvSignalOf(int cvvStatusCode) {
+        // A verification that timed out (or was not made) can neither
+        // pass nor fail a check on its own, so it makes the check
+        // suspicious at best.
+        if (cvvStatusCode < 0)
+            return Signal.CVV_UNVERIFIED.bit;
+        return cvvStatusCode == 0 ? 0 : Signal.CVV_FAILED.bit;
+    }
+
+    // An incorrect address alone does not fail a check.
+    private static int avSignalOf(int avStatusCode) {
+        if (avStatusCode < 0)
+            return Signal.ADDRESS_UNVERIFIED.bit;
+        return avStatusCode == 0 ? 0 : Signal.ADDRESS_INCORRECT.bit;
+    }
+
+    private static int rulesSignalOf(Outcome rules) {
+        switch (rules) {
+            case FAIL:
+                return Signal.RULES_FAILED.bit;
+            case SUSPICIOUS:
+                return Signal.RULES_SUSPICIOUS.bit;
+            default:
+                return 0;
+        }
+    }
+
+    private static String statusOf(String[] statuses, int statusCode) {
+        return statusCode < 0 ? UNKNOWN : statuses[statusCode];
+    }
 
-        return PASS;
+    private static List<String> checksWith(int statusCode, int cvvStatusCode, int avStatusCode) {
+        return CHECKS.get((cvvStatusCode == statusCode ? 1 : 0) | (avStatusCode == statusCode ? 2 : 0));
     }
 
     @Override
@@ -72,6 +245,11 @@ public class FraudStatus {
                 "cvvStatus='" + cvvStatus + '\'' +
                 ", avStatus='" + avStatus + '\'' +
                 ", overall='" + overall + '\'' +
+                ", timedOut=" + timedOut +
+                ", unavailable=" + unavailable +
+                ", reason='" + reason + '\'' +
+                ", velocityExceeded=" + velocityExceeded +
+                ", riskScore=" + riskScore +
                 '}';
     }
 }
@@ -0,0 +1,30 @@
+package com.tsys.fraud_checker.domain;
+
+/**
+ * The outcome of a check, or of any of the verifications and rules it is
+ * made of.
+ * <p>
+ * Outcomes combine to the worst of them, so a check passes only if all
+ * of it passes.  Once any of it fails, nothing else can change the
+ * outcome of the check, and whatever is left of it need not be made.
+ */
+public enum Outcome {
+
+    PASS(FraudStatus.PASS),
+    SUSPICIOUS(FraudStatus.SUSPICIOUS),
+    FAIL(FraudStatus.FAIL);
+
+    public final String status;
+
+    Outcome(String status) {
+        this.status = status;
+    }
+
+    public Outcome and(Outcome other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    public boolean isFinal() {
+        return this == FAIL;
+    }
+}
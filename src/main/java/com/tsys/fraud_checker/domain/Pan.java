@@ -0,0 +1,135 @@
+package com.tsys.fraud_checker.domain;
+
+/**
+ * A card number (Primary Account Number), normalised once: anything but
+ * the ASCII digits 0 to 9 is left out, and the digits are packed, 4 bits
+ * to a digit, into two longs.  So it takes 40 bytes, where a 19
+ * character String takes 64, and two of them are compared as three
+ * numbers, whatever separators they were written with.
+ * <p>
+ * Its keyed fingerprint (see {@link Fingerprint}) is worked out as it
+ * is made, and is its hash code too.  It is rendered masked, so it can
+ * be logged.
+ */
+public final class Pan {
+
+    public static final int MAX_DIGITS = 32;
+
+    // The last 16 digits in low, any before them in high, the last digit
+    // in the lowest 4 bits.
+    private final long high;
+    private final long low;
+    private final int length;
+    private final long fingerprint;
+
+    private Pan(long high, long low, int length) {
+        this.high = high;
+        this.low = low;
+        this.length = length;
+        this.fingerprint = Fingerprint.ofPan(high, low, length);
+    }
+
+    /**
+     * @return the PAN, or null if the number has more than MAX_DIGITS
+     * digits.
+     */
+    public static Pan of(CharSequence number) {
+        long high = 0;
+        long low = 0;
+        int length = 0;
+        for (int i = 0; i < number.length(); i++) {
+            final char c = number.charAt(i);
+            if (c < '0' || c > '9')
+                continue;
+            if (++length > MAX_DIGITS)
+                return null;
+            high = (high << 4) | (low >>> 60);
+            low = (low << 4) | (c - '0');
+        }
+        return new Pan(high, low, length);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int digitAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(String.format("digit %d of a PAN of %d digits", index, length));
+        final int fromLast = length - 1 - index;
+        return (int) ((fromLast < 16 ? low >>> (fromLast << 2) : high >>> ((fromLast - 16) << 2)) & 0xF);
+    }
+
+    /**
+     * @return the first count digits, or all of them if there are fewer.
+     */
+    public String firstDigits(int count) {
+        final int digits = Math.min(count, length);
+        final char[] first = new char[digits];
+        for (int i = 0; i < digits; i++)
+            first[i] = (char) ('0' + digitAt(i));
+        return new String(first);
+    }
+
+    public String digits() {
+        return firstDigits(length);
+    }
+
+    /**
+     * @return the digits, all but the first 6 and last 4 masked, or all
+     * but the last 4 for a PAN of 12 digits or fewer.
+     */
+    public String masked() {
+        final int first = length > 12 ? 6 : 0;
+        final int last = length > 4 ? length - 4 : length;
+        final char[] masked = new char[length];
+        for (int i = 0; i < length; i++)
+            masked[i] = i < first || i >= last ? (char) ('0' + digitAt(i)) : '*';
+        return new String(masked);
+    }
+
+    /**
+     * @return the keyed 64 bit fingerprint of the digits, to count or
+     * cache cards by without keeping their PAN.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the digits before the last 16, packed as they are kept.
+     */
+    public long packedHigh() {
+        return high;
+    }
+
+    /**
+     * @return the last 16 digits, packed as they are kept, the last digit
+     * in the lowest 4 bits.
+     */
+    public long packedLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Pan that = (Pan) o;
+        return low == that.low && high == that.high && length == that.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return masked();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tsys.fraud_checker.domain;
+
+/**
+ * The risk scores at which a caller takes a check for suspicious and
+ * for failed.
+ */
+public final class RiskThresholds {
+
+    public static final RiskThresholds DEFAULT = new RiskThresholds(300, Signal.MAX_SCORE);
+
+    public final int suspiciousAt;
+    public final int failAt;
+
+    public RiskThresholds(int suspiciousAt, int failAt) {
+        if (suspiciousAt < 0 || failAt > Signal.MAX_SCORE || suspiciousAt > failAt)
+            throw new IllegalArgumentException(String.format("Risk score thresholds must be 0 <= suspicious <= fail <= %d, but were %d and %d", Signal.MAX_SCORE, suspiciousAt, failAt));
+        this.suspiciousAt = suspiciousAt;
+        this.failAt = failAt;
+    }
+
+    /**
+     * @param thresholds "suspiciousAt,failAt", for example "300,700".
+     */
+    public static RiskThresholds parse(String thresholds) {
+        final int comma = thresholds.indexOf(',');
+        if (comma < 0)
+            throw new IllegalArgumentException(String.format("Risk score thresholds must be suspiciousAt,failAt but were %s", thresholds));
+        try {
+            return new RiskThresholds(Integer.parseInt(thresholds.substring(0, comma).trim()),
+                    Integer.parseInt(thresholds.substring(comma + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Risk score thresholds must be suspiciousAt,failAt but were %s", thresholds));
+        }
+    }
+
+    public Outcome decide(int riskScore) {
+        if (riskScore >= failAt)
+            return Outcome.FAIL;
+        if (riskScore >= suspiciousAt)
+            return Outcome.SUSPICIOUS;
+        return Outcome.PASS;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RiskThresholds{suspiciousAt=%d, failAt=%d}", suspiciousAt, failAt);
+    }
+}
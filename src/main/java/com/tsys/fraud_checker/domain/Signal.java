@@ -0,0 +1,54 @@
+package com.tsys.fraud_checker.domain;
+
+/**
+ * What a check found against the card, each signal a bit of a mask and
+ * weighing towards a risk score of 0 (no risk found) to 1000 (certain
+ * fraud).
+ * <p>
+ * Signals that fail a check on their own weigh the whole 1000.  The
+ * others weigh so that all of them together still fall short of it, so
+ * with the default {@link RiskThresholds} a check is decided as it
+ * always was: failed on any failing signal, suspicious on any other.
+ */
+public enum Signal {
+
+    CVV_FAILED(1000),
+    CVV_UNVERIFIED(300),
+    ADDRESS_INCORRECT(300),
+    ADDRESS_UNVERIFIED(300),
+    RULES_FAILED(1000),
+    RULES_SUSPICIOUS(300);
+
+    public static final int MAX_SCORE = 1000;
+    private static final int[] SCORES = scores();
+
+    public final int weight;
+    public final int bit;
+
+    Signal(int weight) {
+        this.weight = weight;
+        this.bit = 1 << ordinal();
+    }
+
+    public boolean isIn(int signals) {
+        return (signals & bit) != 0;
+    }
+
+    public static int scoreOf(int signals) {
+        return SCORES[signals];
+    }
+
+    // Scores of every mask, worked out once.
+    private static int[] scores() {
+        final Signal[] signals = values();
+        final int[] scores = new int[1 << signals.length];
+        for (int mask = 0; mask < scores.length; mask++) {
+            int score = 0;
+            for (Signal signal : signals)
+                if (signal.isIn(mask))
+                    score += signal.weight;
+            scores[mask] = Math.min(score, MAX_SCORE);
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,98 @@
+package com.tsys.fraud_checker.grpc;
+
+import com.google.protobuf.CodedInputStream;
+import com.tsys.fraud_checker.web.CorrelatedFraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobuf;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServiceDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The FraudChecker service of src/main/proto/fraud_checker.proto, as
+ * gRPC method descriptors for Java callers.  Checks are written straight
+ * from the domain objects by {@link FraudCheckProtobuf}, and FraudStatuses
+ * and BatchCheckResults come back as the bytes it encoded them to, so
+ * there is no generated stub to copy them through.
+ * <p>
+ * The service is served with the same methods taking the encoded checks,
+ * as it reads them itself.  A malformed check is then turned away as
+ * INVALID_ARGUMENT (or answered as malformed on a stream), rather than
+ * failing the call as UNKNOWN, as gRPC does with a message it cannot read.
+ */
+public final class FraudCheckerGrpc {
+
+    public static final String SERVICE_NAME = "tsys.fraud_checker.FraudChecker";
+
+    public static final MethodDescriptor<FraudCheckPayload, byte[]> CHECK =
+            MethodDescriptor.<FraudCheckPayload, byte[]>newBuilder()
+                    .setType(MethodDescriptor.MethodType.UNARY)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "Check"))
+                    .setRequestMarshaller(new FraudCheckMarshaller<>(FraudCheckPayload.class))
+                    .setResponseMarshaller(new EncodedMarshaller())
+                    .build();
+
+    public static final MethodDescriptor<CorrelatedFraudCheckPayload, byte[]> CHECK_STREAM =
+            MethodDescriptor.<CorrelatedFraudCheckPayload, byte[]>newBuilder()
+                    .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "CheckStream"))
+                    .setRequestMarshaller(new FraudCheckMarshaller<>(CorrelatedFraudCheckPayload.class))
+                    .setResponseMarshaller(new EncodedMarshaller())
+                    .build();
+
+    static final MethodDescriptor<byte[], byte[]> SERVED_CHECK =
+            CHECK.toBuilder(new EncodedMarshaller(), new EncodedMarshaller()).build();
+
+    static final MethodDescriptor<byte[], byte[]> SERVED_CHECK_STREAM =
+            CHECK_STREAM.toBuilder(new EncodedMarshaller(), new EncodedMarshaller()).build();
+
+    static final ServiceDescriptor SERVICE = ServiceDescriptor.newBuilder(SERVICE_NAME)
+            .addMethod(SERVED_CHECK)
+            .addMethod(SERVED_CHECK_STREAM)
+            .build();
+
+    private FraudCheckerGrpc() {
+    }
+
+    private static final class FraudCheckMarshaller<T extends FraudCheckPayload> implements MethodDescriptor.Marshaller<T> {
+        private final Class<T> type;
+
+        FraudCheckMarshaller(Class<T> type) {
+            this.type = type;
+        }
+
+        @Override
+        public InputStream stream(T check) {
+            return new ByteArrayInputStream(FraudCheckProtobuf.encode(check));
+        }
+
+        @Override
+        public T parse(InputStream in) {
+            try {
+                return type.cast(FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(in), type == CorrelatedFraudCheckPayload.class));
+            } catch (IOException e) {
+                throw Status.INTERNAL.withDescription("Could not read the check").withCause(e).asRuntimeException();
+            }
+        }
+    }
+
+    private static final class EncodedMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+        @Override
+        public InputStream stream(byte[] encoded) {
+            return new ByteArrayInputStream(encoded);
+        }
+
+        @Override
+        public byte[] parse(InputStream in) {
+            try {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw Status.INTERNAL.withDescription("Could not read the response").withCause(e).asRuntimeException();
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.tsys.fraud_checker.grpc;
+
+import com.google.protobuf.CodedInputStream;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.spring.validators.TrustedCaller;
+import com.tsys.fraud_checker.web.BatchCheckResult;
+import com.tsys.fraud_checker.web.CorrelatedFraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.advices.ValidationError;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobuf;
+import io.grpc.BindableService;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// NOTE:
+// =====
+// The gRPC counterpart of POST /check and /check/stream, for callers
+// that keep a connection open and make their checks over it.
+//
+// Each check is verified on the checkExecutor, as a /check is, and one
+// that finds it full is turned away as UNAVAILABLE, as a /check is with
+// a 503.  The caller's deadline stands in for its latency budget: a
+// check is given what is left of the deadline of its call (at most
+// verification.check.timeout-millis) less the headroom, or else
+// verification.check.budget-millis.  On a stream, that is the deadline
+// of the whole stream.  A call the caller cancels, or whose deadline
+// passes, interrupts its verifications.
+//
+// A stream asks the caller for the next check only while fewer than
+// verification.stream.max-in-flight checks are being verified, and only
+// while the caller keeps reading the results.  So, as with /check/stream,
+// a slow reader slows down the checks.  Results go out as their checks
+// complete, each with the correlationId of its check (or else its
+// position in the stream).
+public class FraudCheckerGrpcService implements BindableService {
+
+    private static final Logger LOG = Logger.getLogger(FraudCheckerGrpcService.class.getName());
+
+    private final VerificationService verificationService;
+    private final Validator validator;
+    private final AsyncTaskExecutor checkExecutor;
+    private final long checkTimeoutMillis;
+    private final long checkBudgetMillis;
+    private final long budgetHeadroomMillis;
+    private final int maxInFlight;
+
+    public FraudCheckerGrpcService(VerificationService verificationService,
+                                   Validator validator,
+                                   AsyncTaskExecutor checkExecutor,
+                                   long checkTimeoutMillis,
+                                   long checkBudgetMillis,
+                                   long budgetHeadroomMillis,
+                                   int maxInFlight) {
+        this.verificationService = verificationService;
+        this.validator = validator;
+        this.checkExecutor = checkExecutor;
+        this.checkTimeoutMillis = checkTimeoutMillis;
+        this.checkBudgetMillis = checkBudgetMillis;
+        this.budgetHeadroomMillis = budgetHeadroomMillis;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(FraudCheckerGrpc.SERVICE)
+                .addMethod(FraudCheckerGrpc.SERVED_CHECK, ServerCalls.asyncUnaryCall(this::check))
+                .addMethod(FraudCheckerGrpc.SERVED_CHECK_STREAM, ServerCalls.asyncBidiStreamingCall(this::checkStream))
+                .build();
+    }
+
+    private void check(byte[] check, StreamObserver<byte[]> responseObserver) {
+        final FraudCheckPayload payload;
+        try {
+            payload = FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(check), false);
+        } catch (IOException e) {
+            LOG.warning(() -> String.format("{ 'check' : 'malformed: %s' }", e.getMessage()));
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(String.format("Malformed FraudCheck: %s", e.getMessage()))
+                    .asRuntimeException());
+            return;
+        }
+        LOG.info(() -> String.format("{ 'check' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
+        final List<ValidationError> validationErrors = validate(payload);
+        if (!validationErrors.isEmpty()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(describe(validationErrors))
+                    .asRuntimeException());
+            return;
+        }
+
+        final ServerCallStreamObserver<byte[]> call = (ServerCallStreamObserver<byte[]>) responseObserver;
+        final Duration budget = verificationBudget();
+        final FutureTask<Void> verification = new FutureTask<>(() -> {
+            try {
+                call.onNext(FraudCheckProtobuf.encode(verify(payload, budget)));
+                call.onCompleted();
+            } catch (InterruptedException e) {
+                // Interrupted as the call was cancelled (or the service is
+                // shutting down), so the caller may retry.
+                call.onError(Status.UNAVAILABLE.withDescription("Unable to check in time, please retry").asRuntimeException());
+            } catch (RuntimeException e) {
+                LOG.warning(() -> String.format("{ 'check' : 'failed with %s' }", e));
+                call.onError(Status.INTERNAL.withDescription("Unable to verify this check").asRuntimeException());
+            }
+            return null;
+        });
+        call.setOnCancelHandler(() -> verification.cancel(true));
+        try {
+            checkExecutor.execute(verification);
+        } catch (RejectedExecutionException e) {
+            LOG.warning(() -> "{ 'check' : 'rejected, too many checks in flight' }");
+            call.onError(Status.UNAVAILABLE.withDescription("Too many checks in flight, please retry").asRuntimeException());
+        }
+    }
+
+    private StreamObserver<byte[]> checkStream(StreamObserver<byte[]> responseObserver) {
+        LOG.info(() -> String.format("{ 'checkStream' : 'at most %d checks in flight' }", maxInFlight));
+        return new CheckStream((ServerCallStreamObserver<byte[]>) responseObserver);
+    }
+
+    private FraudStatus verify(FraudCheckPayload payload, Duration budget) throws InterruptedException {
+        // Only checks found valid are verified, so the service need not
+        // validate them again.
+        final FraudStatus fraudStatus = TrustedCaller.call(
+                () -> verificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge, budget),
+                payload.creditCard, payload.charge);
+        LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus));
+        return fraudStatus;
+    }
+
+    private Duration verificationBudget() {
+        final Deadline deadline = Context.current().getDeadline();
+        final long budgetMillis = deadline == null ? checkBudgetMillis : Math.min(deadline.timeRemaining(TimeUnit.MILLISECONDS), checkTimeoutMillis);
+        return Duration.ofMillis(Math.max(0, budgetMillis - budgetHeadroomMillis));
+    }
+
+    private List<ValidationError> validate(FraudCheckPayload payload) {
+        return validator.validate(payload).stream()
+                .map(violation -> new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()))
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(List<ValidationError> validationErrors) {
+        return validationErrors.stream()
+                .map(error -> String.format("%s: %s", error.fieldName, error.message))
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Checks arrive one at a time (gRPC serializes the calls to a
+    // StreamObserver), but complete on the checkExecutor, so everything
+    // they share is guarded by the CheckStream.
+    private final class CheckStream implements StreamObserver<byte[]> {
+        private final ServerCallStreamObserver<byte[]> responses;
+        private final Map<Integer, FutureTask<Void>> verifications = new HashMap<>();
+        private int received;
+        // Checks answered while the caller was not reading, each owing
+        // the caller a request for the next check once it reads again.
+        private int owed;
+        private boolean halfClosed;
+        private boolean done;
+
+        CheckStream(ServerCallStreamObserver<byte[]> responses) {
+            this.responses = responses;
+            responses.disableAutoRequest();
+            responses.setOnReadyHandler(this::requestOwed);
+            responses.setOnCancelHandler(this::cancel);
+            responses.request(maxInFlight);
+        }
+
+        @Override
+        public void onNext(byte[] check) {
+            final int index = ++received;
+            final CorrelatedFraudCheckPayload payload;
+            try {
+                payload = (CorrelatedFraudCheckPayload) FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(check), true);
+            } catch (IOException e) {
+                LOG.warning(() -> String.format("{ 'checkStream' : 'check %d is malformed: %s' }", index, e.getMessage()));
+                answer(index, BatchCheckResult.failed(index, "Malformed check, expected a FraudCheck message")
+                        .correlatedWith(String.valueOf(index)));
+                return;
+            }
+            final String correlationId = payload.correlationId == null ? String.valueOf(index) : payload.correlationId;
+            final List<ValidationError> validationErrors = validate(payload);
+            if (!validationErrors.isEmpty()) {
+                answer(index, BatchCheckResult.invalid(index, validationErrors).correlatedWith(correlationId));
+                return;
+            }
+
+            final Duration budget = verificationBudget();
+            final FutureTask<Void> verification = new FutureTask<>(() -> {
+                answer(index, verify(index, payload, budget).correlatedWith(correlationId));
+                return null;
+            });
+            synchronized (this) {
+                if (done)
+                    return;
+                verifications.put(index, verification);
+            }
+            try {
+                checkExecutor.execute(verification);
+            } catch (RejectedExecutionException e) {
+                LOG.warning(() -> String.format("{ 'checkStream' : 'check %d rejected, too many checks in flight' }", index));
+                answer(index, BatchCheckResult.failed(index, "Too many checks in flight, please retry").correlatedWith(correlationId));
+            }
+        }
+
+        private BatchCheckResult verify(int index, FraudCheckPayload payload, Duration budget) {
+            try {
+                return BatchCheckResult.checked(index, FraudCheckerGrpcService.this.verify(payload, budget));
+            } catch (InterruptedException e) {
+                // Interrupted as the stream was cancelled (when there is
+                // no one left to answer), or the service is shutting down.
+                Thread.currentThread().interrupt();
+                return BatchCheckResult.failed(index, "Unable to check in time, please retry");
+            } catch (RuntimeException e) {
+                LOG.warning(() -> String.format("{ 'checkStream' : 'check %d failed with %s' }", index, e));
+                return BatchCheckResult.failed(index, "Unable to verify this check, please retry");
+            }
+        }
+
+        private synchronized void answer(int index, BatchCheckResult result) {
+            if (done)
+                return;
+            verifications.remove(index);
+            responses.onNext(FraudCheckProtobuf.encode(result));
+            if (responses.isReady())
+                responses.request(1);
+            else
+                owed++;
+            completeOnceAnswered();
+        }
+
+        private synchronized void requestOwed() {
+            if (done || owed == 0)
+                return;
+            responses.request(owed);
+            owed = 0;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            cancel();
+        }
+
+        @Override
+        public synchronized void onCompleted() {
+            halfClosed = true;
+            completeOnceAnswered();
+        }
+
+        private void completeOnceAnswered() {
+            if (halfClosed && verifications.isEmpty() && !done) {
+                done = true;
+                responses.onCompleted();
+            }
+        }
+
+        private synchronized void cancel() {
+            done = true;
+            verifications.values().forEach(verification -> verification.cancel(true));
+            verifications.clear();
+        }
+    }
+}
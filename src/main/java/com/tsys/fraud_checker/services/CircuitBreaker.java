@@ -0,0 +1,151 @@
+package com.tsys.fraud_checker.services;
+
+/**
+ * A count-based circuit breaker.
+ * <p>
+ * While CLOSED, the outcomes of the last windowSize calls are kept, and
+ * once there are at least minimumCalls of them, the breaker OPENs when
+ * the share of failed calls reaches failureRateThreshold, or the share
+ * of calls slower than slowCallNanos reaches slowCallRateThreshold.
+ * <p>
+ * While OPEN, calls are not permitted.  After openNanos, the breaker is
+ * HALF_OPEN and permits halfOpenCalls trial calls: should all of them
+ * succeed in time it CLOSEs again, and on the first that does not it
+ * OPENs again.
+ */
+final class CircuitBreaker {
+
+    enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Ring buffers of the outcomes of the last windowSize calls.
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(int windowSize, int minimumCalls,
+                   double failureRateThreshold, double slowCallRateThreshold, long slowCallNanos,
+                   long openNanos, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    synchronized double slowCallRate() {
+        return calls == 0 ? 0 : (double) slowCalls / calls;
+    }
+
+    /**
+     * @return true if a call may be made, in which case its outcome
+     * must be reported to onSuccess(), onFailure() or onIgnored().
+     */
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos)
+                return false;
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0)
+                return false;
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess(long durationNanos) {
+        onResult(false, durationNanos >= slowCallNanos);
+    }
+
+    synchronized void onFailure(long durationNanos) {
+        onResult(true, durationNanos >= slowCallNanos);
+    }
+
+    /**
+     * A call cancelled before it answered says nothing of the callee,
+     * unless it had been slow already.
+     */
+    synchronized void onCancelled(long durationNanos) {
+        if (durationNanos >= slowCallNanos)
+            onResult(false, true);
+        else
+            onIgnored();
+    }
+
+    /**
+     * A permitted call was not made after all.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN)
+            halfOpenPermits++;
+    }
+
+    private void onResult(boolean isFailure, boolean isSlow) {
+        if (state == State.HALF_OPEN) {
+            if (isFailure || isSlow)
+                open();
+            else if (++halfOpenSuccesses == halfOpenCalls)
+                close();
+            return;
+        }
+        if (state == State.OPEN)
+            return;
+
+        if (calls == windowSize) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        failures += isFailure ? 1 : 0;
+        slowCalls += isSlow ? 1 : 0;
+        next = (next + 1) % windowSize;
+
+        if (calls >= minimumCalls
+                && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold))
+            open();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = calls = failures = slowCalls = 0;
+    }
+}
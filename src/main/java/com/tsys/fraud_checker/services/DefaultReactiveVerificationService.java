@@ -0,0 +1,85 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.rules.FraudRules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking counterpart of {@link DefaultVerificationService}.
+ * <p>
+ * Instead of parking a thread in Thread.sleep() while the issuing bank
+ * responds, each verification is a timer on Reactor's parallel
+ * scheduler (Mono.delay).  No thread is held while a check is in-flight,
+ * so a handful of threads can carry thousands of concurrent checks.
+ * <p>
+ * The simulated issuer responses are drawn from Random in the same
+ * order as {@link DefaultVerificationService} does.
+ * <p>
+ * As there, the check is first held to the {@link FraudRules}, and one
+ * they fail comes back straight away.  It is otherwise a raw
+ * verification: stolen-card screening, velocity checks and the decision
+ * cache decorate the blocking {@link VerificationService} only, and do
+ * not apply here.
+ */
+@Service
+@Validated
+public class DefaultReactiveVerificationService implements ReactiveVerificationService {
+
+    private static final Logger LOG = Logger.getLogger(DefaultReactiveVerificationService.class.getName());
+
+    private final Random random;
+    private final FraudRules rules;
+
+    @Autowired
+    public DefaultReactiveVerificationService(Random random, FraudRules rules) {
+        this.random = random;
+        this.rules = rules;
+    }
+
+    int randomNumberBetween(int lower, int upper) {
+        return random.nextInt(upper - lower) + lower;
+    }
+
+    private Mono<Integer> verifyCVV(CreditCard creditCard, int sleepMillis, int index) {
+        LOG.info(() -> String.format("{ 'verifyCVV() will respond after ' : '%.3f seconds' }", ((float) sleepMillis) / 1000));
+        return Mono.delay(Duration.ofMillis(sleepMillis))
+                .map(tick -> index)
+                .doOnNext(value -> LOG.info(() -> String.format("{ 'verifyCVV() Generating Response for value ==> ' : %d }", value)));
+    }
+
+    private Mono<Integer> verifyAddressWithIssuingBank(CreditCard creditCard, int sleepMillis, int index) {
+        LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() will respond after ' : '%.3f seconds' }", ((float) sleepMillis) / 1000));
+        return Mono.delay(Duration.ofMillis(sleepMillis))
+                .map(tick -> index)
+                .doOnNext(value -> LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() Generating Response for value ==> ' : %d }", value)));
+    }
+
+    @Override
+    public Mono<FraudStatus> verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                           @NotNull @Valid Money charge) {
+        return Mono.defer(() -> {
+            final FraudRules.Evaluation evaluation = rules.evaluate(card, charge);
+            if (evaluation.outcome.isFinal())
+                return Mono.just(FraudStatus.failedWithoutVerification(evaluation.failedBy));
+
+            final int cvvSleepMillis = randomNumberBetween(2000, 5000);
+            final int cvvIndex = randomNumberBetween(0, 2);
+            final int avIndex = randomNumberBetween(0, 2);
+            final int avSleepMillis = randomNumberBetween(0, 1000);
+            return Mono.zip(verifyCVV(card, cvvSleepMillis, cvvIndex),
+                    verifyAddressWithIssuingBank(card, avSleepMillis, avIndex),
+                    (cvvStatus, avStatus) -> FraudStatus.of(cvvStatus, avStatus, evaluation.outcome));
+        });
+    }
+}
@@ -3,7 +3,12 @@ package com.tsys.fraud_checker.services;
 import com.tsys.fraud_checker.domain.CreditCard;
 import com.tsys.fraud_checker.domain.FraudStatus;
 import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.rules.FraudRules;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,7 +16,9 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 import java.util.Random;
+import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
 /**
@@ -36,6 +43,29 @@ import java.util.logging.Logger;
  *
  * @see com.tsys.fraud_checker.web.advices.GlobalExceptionAdvice#onConstraintValidationException(ConstraintViolationException)
  * @see com.tsys.fraud_checker.web.advices.GlobalExceptionAdvice#onMethodArgumentNotValidException(MethodArgumentNotValidException)
+ * <p>
+ * CVV and Address verification are independent calls to the issuing
+ * bank, so each one is submitted to its own executor and the
+ * two run concurrently.  The end-to-end latency of a check is then that
+ * of the slowest verification and not the sum of all of them.
+ * The verifications are forked in a {@link VerificationScope}, so the
+ * first one to fail cancels the others.
+ * <p>
+ * Given a latency budget, verifications still pending when it runs out
+ * are cancelled and reported as timed out, and the check is decided on
+ * the ones that came back.  Timeouts are counted per verification in
+ * fraud_checker.verification.timeouts, to help tune the budgets.
+ * <p>
+ * With verification.hedging.enabled, a slow verification is hedged with
+ * a second attempt, see {@link VerificationHedging}.
+ * <p>
+ * Each verification goes through the bulkhead and circuit breaker of its
+ * check, see {@link VerificationGuard}, so a slow or failing issuing bank
+ * is answered for with a fallback status instead of tying up threads.
+ * <p>
+ * Before any of that, the check is held to the {@link FraudRules}, and a
+ * check they fail, such as one of an expired card, comes back straight
+ * away without calling the issuing bank.
  */
 @Service
 @Validated
@@ -43,28 +73,56 @@ public class DefaultVerificationService implements VerificationService {
 
     private static final Logger LOG = Logger.getLogger(DefaultVerificationService.class.getName());
 
-    private Random random;
+    private final Random random;
+    private final FraudRules rules;
+    private final AsyncTaskExecutor cvvVerificationExecutor;
+    private final AsyncTaskExecutor addressVerificationExecutor;
+    private final VerificationHedging hedging;
+    private final VerificationGuard cvvGuard;
+    private final VerificationGuard addressGuard;
+    private final Counter cvvTimeouts;
+    private final Counter addressTimeouts;
 
     @Autowired
-    public DefaultVerificationService(Random random) {
+    public DefaultVerificationService(Random random,
+                                      FraudRules rules,
+                                      @Qualifier("cvvVerificationExecutor") AsyncTaskExecutor cvvVerificationExecutor,
+                                      @Qualifier("addressVerificationExecutor") AsyncTaskExecutor addressVerificationExecutor,
+                                      VerificationHedging hedging,
+                                      VerificationGuards guards,
+                                      MeterRegistry meterRegistry) {
         this.random = random;
+        this.rules = rules;
+        this.cvvVerificationExecutor = cvvVerificationExecutor;
+        this.addressVerificationExecutor = addressVerificationExecutor;
+        this.hedging = hedging;
+        this.cvvGuard = guards.guardFor(FraudStatus.CVV_CHECK);
+        this.addressGuard = guards.guardFor(FraudStatus.ADDRESS_CHECK);
+        this.cvvTimeouts = timeoutCounter(meterRegistry, FraudStatus.CVV_CHECK);
+        this.addressTimeouts = timeoutCounter(meterRegistry, FraudStatus.ADDRESS_CHECK);
+    }
+
+    private static Counter timeoutCounter(MeterRegistry meterRegistry, String check) {
+        return Counter.builder("fraud_checker.verification.timeouts")
+                .description("Verifications cancelled as their check ran out of latency budget")
+                .tag("check", check)
+                .register(meterRegistry);
     }
 
     int randomNumberBetween(int lower, int upper) {
         return random.nextInt(upper - lower) + lower;
     }
 
-    private int verifyCVV(CreditCard creditCard) throws InterruptedException {
-        final int sleepMillis = randomNumberBetween(2000, 5000);
+    private int verifyCVV(CreditCard creditCard, int sleepMillis, int index) throws InterruptedException {
         LOG.info(() -> String.format("{ 'verifyCVV() will respond after ' : '%.3f seconds' }", ((float) sleepMillis) / 1000));
         Thread.sleep(sleepMillis);
-        final int index = randomNumberBetween(0, 2);
         LOG.info(() -> String.format("{ 'verifyCVV() Generating Response for value ==> ' : %d }", index));
         return index;
     }
 
-    private int verifyAddressWithIssuingBank(CreditCard creditCard) {
-        final int index = randomNumberBetween(0, 2);
+    private int verifyAddressWithIssuingBank(CreditCard creditCard, int sleepMillis, int index) throws InterruptedException {
+        LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() will respond after ' : '%.3f seconds' }", ((float) sleepMillis) / 1000));
+        Thread.sleep(sleepMillis);
         LOG.info(() -> String.format("{ 'verifyAddressWithIssuingBank() Generating Response for value ==> ' : %d }", index));
         return index;
     }
@@ -72,6 +130,73 @@ public class DefaultVerificationService implements VerificationService {
     @Override
     public FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
                                                      @NotNull @Valid Money charge) throws InterruptedException {
-        return new FraudStatus(verifyCVV(card), verifyAddressWithIssuingBank(card), card.hasExpired());
+        return verify(card, charge, Long.MAX_VALUE);
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                     @NotNull @Valid Money charge,
+                                                     @NotNull Duration budget) throws InterruptedException {
+        return verify(card, charge, budget.toNanos());
+    }
+
+    private FraudStatus verify(CreditCard card, Money charge, long budgetNanos) throws InterruptedException {
+        final long startNanos = System.nanoTime();
+        final FraudRules.Evaluation evaluation = rules.evaluate(card, charge);
+        if (evaluation.outcome.isFinal())
+            return FraudStatus.failedWithoutVerification(evaluation.failedBy);
+
+        // The simulated issuer responses are drawn here, on the calling
+        // thread, so that a seeded Random produces the same outcomes no
+        // matter which pool thread picks up which verification.
+        final int cvvSleepMillis = randomNumberBetween(2000, 5000);
+        final int cvvIndex = randomNumberBetween(0, 2);
+        final int avIndex = randomNumberBetween(0, 2);
+        final int avSleepMillis = randomNumberBetween(0, 1000);
+
+        // The issuing bank answers a hedge the same, only not as slowly
+        // (or not as quickly).
+        final Callable<Integer> cvvHedge;
+        final Callable<Integer> avHedge;
+        if (hedging.isEnabled()) {
+            final int cvvHedgeSleepMillis = randomNumberBetween(2000, 5000);
+            final int avHedgeSleepMillis = randomNumberBetween(0, 1000);
+            cvvHedge = () -> verifyCVV(card, cvvHedgeSleepMillis, cvvIndex);
+            avHedge = () -> verifyAddressWithIssuingBank(card, avHedgeSleepMillis, avIndex);
+        } else {
+            cvvHedge = avHedge = null;
+        }
+
+        try (var scope = new VerificationScope()) {
+            final VerificationScope.Subtask<Integer> cvvStatus = scope.fork(cvvGuard.submit(() ->
+                    hedging.submit(FraudStatus.CVV_CHECK,
+                            () -> verifyCVV(card, cvvSleepMillis, cvvIndex), cvvHedge,
+                            cvvVerificationExecutor)));
+            final VerificationScope.Subtask<Integer> avStatus = scope.fork(addressGuard.submit(() ->
+                    hedging.submit(FraudStatus.ADDRESS_CHECK,
+                            () -> verifyAddressWithIssuingBank(card, avSleepMillis, avIndex), avHedge,
+                            addressVerificationExecutor)));
+            if (budgetNanos == Long.MAX_VALUE) {
+                scope.join();
+                return FraudStatus.of(cvvStatus.get(), avStatus.get(), evaluation.outcome);
+            }
+            scope.joinUntil(startNanos + budgetNanos);
+            return FraudStatus.of(statusOf(cvvStatus, cvvTimeouts), statusOf(avStatus, addressTimeouts), evaluation.outcome);
+        }
+    }
+
+    @Override
+    public FraudStatus timedOut(CreditCard card, Money charge) {
+        final FraudRules.Evaluation evaluation = rules.evaluate(card, charge);
+        if (evaluation.outcome.isFinal())
+            return FraudStatus.failedWithoutVerification(evaluation.failedBy);
+        return FraudStatus.of(FraudStatus.TIMED_OUT, FraudStatus.TIMED_OUT, evaluation.outcome);
+    }
+
+    private static int statusOf(VerificationScope.Subtask<Integer> verification, Counter timeouts) {
+        if (verification.hasCompleted())
+            return verification.get();
+        timeouts.increment();
+        return FraudStatus.TIMED_OUT;
     }
-}
\ No newline at end of file
+}
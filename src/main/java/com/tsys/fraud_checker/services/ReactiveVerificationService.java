@@ -0,0 +1,14 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public interface ReactiveVerificationService {
+    Mono<FraudStatus> verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                    @NotNull @Valid Money charge);
+}
@@ -0,0 +1,129 @@
+package com.tsys.fraud_checker.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the verifications of one check (cvv, address...) from the
+ * others, and the service from a failing issuing bank.
+ * <p>
+ * The bulkhead lets at most maxConcurrent verifications of the check be
+ * in flight at a time, and the {@link CircuitBreaker} stops calling the
+ * issuing bank once too many of its recent verifications failed or were
+ * slow.  A verification let through neither answers with the configured
+ * fallback status straight away, without taking up a thread.
+ * <p>
+ * Meters, tagged by check:
+ * fraud_checker.verification.breaker.state (0 closed, 1 open, 2 half-open)
+ * and fraud_checker.verification.rejections (tagged by reason - open
+ * breaker or full bulkhead).
+ */
+public final class VerificationGuard {
+
+    private final String check;
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final int fallbackStatus;
+    private final Counter rejectedAsOpen;
+    private final Counter rejectedAsFull;
+
+    VerificationGuard(String check, CircuitBreaker breaker, int maxConcurrent, int fallbackStatus, MeterRegistry meterRegistry) {
+        this.check = check;
+        this.breaker = breaker;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.fallbackStatus = fallbackStatus;
+        this.rejectedAsOpen = rejectionCounter(meterRegistry, check, "breaker-open");
+        this.rejectedAsFull = rejectionCounter(meterRegistry, check, "bulkhead-full");
+        Gauge.builder("fraud_checker.verification.breaker.state", breaker, b -> b.state().ordinal())
+                .description("State of the circuit breaker of a verification: 0 closed, 1 open, 2 half-open")
+                .tag("check", check)
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String check, String reason) {
+        return Counter.builder("fraud_checker.verification.rejections")
+                .description("Verifications answered with their fallback status instead of calling the issuing bank")
+                .tags("check", check, "reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the verification if both the breaker and the bulkhead let
+     * it through, and reports its outcome to the breaker.  A verification
+     * cancelled before it answered only counts as slow once it had taken
+     * longer than a slow call.
+     *
+     * @return the status of the verification, or else the fallback status.
+     */
+    CompletableFuture<Integer> submit(Supplier<CompletableFuture<Integer>> verification) {
+        if (!breaker.tryAcquirePermission()) {
+            rejectedAsOpen.increment();
+            return CompletableFuture.completedFuture(fallbackStatus);
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.onIgnored();
+            rejectedAsFull.increment();
+            return CompletableFuture.completedFuture(fallbackStatus);
+        }
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<Integer> status;
+        try {
+            status = verification.get();
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            breaker.onIgnored();
+            throw e;
+        }
+        status.whenComplete((result, failure) -> {
+            bulkhead.release();
+            final long durationNanos = System.nanoTime() - startNanos;
+            if (failure == null)
+                breaker.onSuccess(durationNanos);
+            else if (failure instanceof CancellationException)
+                breaker.onCancelled(durationNanos);
+            else
+                breaker.onFailure(durationNanos);
+        });
+        return status;
+    }
+
+    public String check() {
+        return check;
+    }
+
+    public String state() {
+        return breaker.state().name();
+    }
+
+    public double failureRate() {
+        return breaker.failureRate();
+    }
+
+    public double slowCallRate() {
+        return breaker.slowCallRate();
+    }
+
+    public int inFlight() {
+        return maxConcurrent - bulkhead.availablePermits();
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long rejectedAsOpen() {
+        return (long) rejectedAsOpen.count();
+    }
+
+    public long rejectedAsFull() {
+        return (long) rejectedAsFull.count();
+    }
+}
@@ -0,0 +1,73 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The {@link VerificationGuard} of each check, configured from the
+ * verification.&lt;check&gt;.bulkhead.* and verification.&lt;check&gt;.breaker.*
+ * properties, and verification.&lt;check&gt;.fallback-status - one of
+ * unknown, pass or fail.
+ */
+@Component
+public class VerificationGuards {
+
+    private static final Logger LOG = Logger.getLogger(VerificationGuards.class.getName());
+
+    private final Environment env;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, VerificationGuard> guards = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public VerificationGuards(Environment env, MeterRegistry meterRegistry) {
+        this.env = env;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public VerificationGuard guardFor(String check) {
+        return guards.computeIfAbsent(check, this::newGuard);
+    }
+
+    public Collection<VerificationGuard> all() {
+        return Collections.unmodifiableCollection(guards.values());
+    }
+
+    private VerificationGuard newGuard(String check) {
+        final String prefix = "verification." + check;
+        final int maxConcurrent = env.getProperty(prefix + ".bulkhead.max-concurrent", Integer.class, 64);
+        final CircuitBreaker breaker = new CircuitBreaker(
+                env.getProperty(prefix + ".breaker.window-size", Integer.class, 20),
+                env.getProperty(prefix + ".breaker.minimum-calls", Integer.class, 10),
+                env.getProperty(prefix + ".breaker.failure-rate-threshold", Double.class, 0.5),
+                env.getProperty(prefix + ".breaker.slow-call-rate-threshold", Double.class, 0.8),
+                TimeUnit.MILLISECONDS.toNanos(env.getProperty(prefix + ".breaker.slow-call-millis", Long.class, 5000L)),
+                TimeUnit.MILLISECONDS.toNanos(env.getProperty(prefix + ".breaker.open-millis", Long.class, 10000L)),
+                env.getProperty(prefix + ".breaker.half-open-calls", Integer.class, 3));
+        final String fallback = env.getProperty(prefix + ".fallback-status", FraudStatus.UNKNOWN);
+        LOG.info(() -> String.format("{ '%s' : 'bulkhead of %d, falling back to %s' }", prefix, maxConcurrent, fallback));
+        return new VerificationGuard(check, breaker, maxConcurrent, fallbackStatusOf(prefix, fallback), meterRegistry);
+    }
+
+    private static int fallbackStatusOf(String prefix, String fallback) {
+        switch (fallback.toLowerCase()) {
+            case FraudStatus.UNKNOWN:
+                return FraudStatus.UNAVAILABLE;
+            case FraudStatus.PASS:
+                return 0;
+            case FraudStatus.FAIL:
+                return 1;
+            default:
+                throw new IllegalArgumentException(String.format("%s.fallback-status must be one of unknown, pass or fail, but was %s", prefix, fallback));
+        }
+    }
+}
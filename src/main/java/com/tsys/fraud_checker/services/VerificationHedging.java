@@ -0,0 +1,248 @@
+package com.tsys.fraud_checker.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Hedged requests, after "The Tail at Scale" (Dean and Barroso).
+ * <p>
+ * A verification that has not answered by the configured percentile of
+ * its recent latency gets a second (hedge) attempt, and whichever attempt
+ * answers first is used, the other one being cancelled.  A verification
+ * only fails once all of its attempts have failed.
+ * <p>
+ * Hedges add load on the issuing bank, so they are paid for from a
+ * budget shared by all verifications: every verification deposits
+ * budget-ratio of a hedge, and a hedge is only fired when a whole one is
+ * available.  With budget-ratio=0.05, hedges add at most 5% to the calls
+ * made, however slow the issuing bank gets.
+ * <p>
+ * Meters, tagged by check:
+ * fraud_checker.verification.latency (histogram, tagged by attempt),
+ * fraud_checker.verification.hedges (tagged by outcome - won, lost or
+ * denied for want of budget) and fraud_checker.verification.hedge.win.rate.
+ */
+@Component
+public class VerificationHedging {
+
+    private static final Logger LOG = Logger.getLogger(VerificationHedging.class.getName());
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minSamples;
+    private final HedgeBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CheckMeters> meters = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor hedgeTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = new Thread(runnable, "verification-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public VerificationHedging(@Value("${verification.hedging.enabled:false}") boolean enabled,
+                               @Value("${verification.hedging.percentile:0.95}") double percentile,
+                               @Value("${verification.hedging.min-samples:100}") long minSamples,
+                               @Value("${verification.hedging.budget-ratio:0.05}") double budgetRatio,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.budget = new HedgeBudget(budgetRatio);
+        this.meterRegistry = meterRegistry;
+        hedgeTimer.setRemoveOnCancelPolicy(true);
+        LOG.info(() -> String.format("{ 'hedging' : '%s at p%.1f, budget-ratio %.3f' }", enabled ? "on" : "off", percentile * 100, budgetRatio));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the attempt on the executor, and should it not answer in
+     * time, the hedge too - unless hedging is disabled, or there is no
+     * hedge.
+     *
+     * @return the answer of the first attempt to succeed.  Cancelling it
+     * cancels (interrupts) all attempts.
+     */
+    <T> CompletableFuture<T> submit(String check, Callable<T> attempt, Callable<T> hedge, Executor executor) {
+        final CheckMeters checkMeters = meters.computeIfAbsent(check, CheckMeters::new);
+        final CompletableFuture<T> verification = new CompletableFuture<>();
+        final List<FutureTask<T>> attempts = new CopyOnWriteArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        verification.whenComplete((result, failure) -> attempts.forEach(started -> started.cancel(true)));
+
+        budget.deposit();
+        start(attempt, false, checkMeters, verification, attempts, running, executor);
+        final long hedgeDelayNanos = enabled && hedge != null ? checkMeters.hedgeDelayNanos() : -1;
+        if (hedgeDelayNanos >= 0) {
+            final ScheduledFuture<?> hedging = hedgeTimer.schedule(() -> {
+                if (verification.isDone())
+                    return;
+                if (!budget.tryWithdraw()) {
+                    checkMeters.denied.increment();
+                    return;
+                }
+                start(hedge, true, checkMeters, verification, attempts, running, executor);
+            }, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            verification.whenComplete((result, failure) -> hedging.cancel(false));
+        }
+        return verification;
+    }
+
+    private <T> void start(Callable<T> call, boolean isHedge, CheckMeters checkMeters,
+                           CompletableFuture<T> verification, List<FutureTask<T>> attempts,
+                           AtomicInteger running, Executor executor) {
+        final long startNanos = System.nanoTime();
+        running.incrementAndGet();
+        final FutureTask<T> attempt = new FutureTask<>(call) {
+            @Override
+            protected void done() {
+                final boolean othersRunning = running.decrementAndGet() > 0;
+                if (isCancelled())
+                    return;
+                try {
+                    final T result = get();
+                    (isHedge ? checkMeters.hedgeLatency : checkMeters.attemptLatency).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    if (verification.complete(result) && attempts.size() > 1)
+                        (isHedge ? checkMeters.won : checkMeters.lost).increment();
+                } catch (Exception e) {
+                    if (!othersRunning)
+                        verification.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        };
+        attempts.add(attempt);
+        try {
+            executor.execute(attempt);
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            attempts.remove(attempt);
+            if (!isHedge)
+                throw e;
+            return;
+        }
+        // The verification may have completed (and cancelled the attempts
+        // it knew of) while this one was being started.
+        if (verification.isDone())
+            attempt.cancel(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeTimer.shutdownNow();
+    }
+
+    private final class CheckMeters {
+        private final Timer attemptLatency;
+        private final Timer hedgeLatency;
+        private final Counter won;
+        private final Counter lost;
+        private final Counter denied;
+        private volatile long hedgeDelayNanos = -1;
+        private volatile long hedgeDelayRefreshedAt;
+
+        private CheckMeters(String check) {
+            attemptLatency = latencyTimer(check, "primary");
+            hedgeLatency = latencyTimer(check, "hedge");
+            won = hedgeCounter(check, "won");
+            lost = hedgeCounter(check, "lost");
+            denied = hedgeCounter(check, "denied");
+            Gauge.builder("fraud_checker.verification.hedge.win.rate", this, CheckMeters::winRate)
+                    .description("Share of hedges that answered before the attempt they hedged")
+                    .tag("check", check)
+                    .register(meterRegistry);
+        }
+
+        private Timer latencyTimer(String check, String attempt) {
+            return Timer.builder("fraud_checker.verification.latency")
+                    .description("Latency of verification attempts that succeeded")
+                    .tags("check", check, "attempt", attempt)
+                    .publishPercentiles(0.5, percentile, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private Counter hedgeCounter(String check, String outcome) {
+            return Counter.builder("fraud_checker.verification.hedges")
+                    .description("Hedged verification attempts, by outcome")
+                    .tags("check", check, "outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private double winRate() {
+            final double hedges = won.count() + lost.count();
+            return hedges == 0 ? 0 : won.count() / hedges;
+        }
+
+        // Until there are enough samples for a meaningful percentile,
+        // nothing is hedged.  Reading percentiles off the histogram is not
+        // free, so from then on the hedge delay is refreshed once a second.
+        private long hedgeDelayNanos() {
+            if (attemptLatency.count() < minSamples)
+                return -1;
+            final long now = System.nanoTime();
+            if (hedgeDelayNanos < 0 || now - hedgeDelayRefreshedAt >= HEDGE_DELAY_REFRESH_NANOS) {
+                hedgeDelayRefreshedAt = now;
+                hedgeDelayNanos = percentileNanos();
+            }
+            return hedgeDelayNanos;
+        }
+
+        private long percentileNanos() {
+            for (ValueAtPercentile valueAtPercentile : attemptLatency.takeSnapshot().percentileValues())
+                if (valueAtPercentile.percentile() == percentile)
+                    return (long) valueAtPercentile.value(TimeUnit.NANOSECONDS);
+            return -1;
+        }
+    }
+
+    /**
+     * A token bucket, filled by ratio of a token on each deposit, holding
+     * at most a burst of MAX_TOKENS.
+     */
+    static final class HedgeBudget {
+        private static final double MAX_TOKENS = 10;
+        private final double ratio;
+        private double tokens;
+
+        HedgeBudget(double ratio) {
+            this.ratio = ratio;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(MAX_TOKENS, tokens + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1)
+                return false;
+            tokens -= 1;
+            return true;
+        }
+    }
+}
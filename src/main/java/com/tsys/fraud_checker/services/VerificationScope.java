@@ -0,0 +1,153 @@
+package com.tsys.fraud_checker.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Structured concurrency for the verifications of a single check, along
+ * the lines of JDK 21's StructuredTaskScope.ShutdownOnFailure (which we
+ * cannot use while compiling for Java 11).
+ * <p>
+ * Verifications are forked onto their executors, join() waits for all of
+ * them, and the first one to fail cancels (interrupts) the ones still
+ * pending - a failed Address verification does not wait for a CVV
+ * verification whose answer can no longer be used.  Closing the scope
+ * cancels whatever is still running, so no verification outlives the
+ * check that forked it.
+ * <p>
+ * joinUntil() waits no longer than a deadline, cancelling the
+ * verifications still pending at the deadline.  Each subtask then tells
+ * whether it completed, so a check can be decided on what came back in
+ * time.
+ * <p>
+ * A scope is meant to be used by one thread, in a try-with-resources:
+ * <pre>
+ * try (var scope = new VerificationScope()) {
+ *     final var cvv = scope.fork(() -> verifyCVV(card), cvvExecutor);
+ *     final var av = scope.fork(() -> verifyAddress(card), avExecutor);
+ *     scope.join();
+ *     return FraudStatus.of(cvv.get(), av.get(), card.hasExpired());
+ * }
+ * </pre>
+ */
+final class VerificationScope implements AutoCloseable {
+
+    private final List<Future<?>> subtasks = new ArrayList<>();
+    private final BlockingQueue<Future<?>> completions = new LinkedBlockingQueue<>();
+
+    <T> Subtask<T> fork(Callable<T> verification, Executor executor) {
+        final FutureTask<T> subtask = new FutureTask<>(verification) {
+            @Override
+            protected void done() {
+                completions.add(this);
+            }
+        };
+        subtasks.add(subtask);
+        executor.execute(subtask);
+        return new Subtask<>(subtask);
+    }
+
+    /**
+     * Forks a verification that is already under way, for instance one
+     * that is hedged over several attempts.  Cancelling it must cancel
+     * whatever it is waiting on.
+     */
+    <T> Subtask<T> fork(CompletableFuture<T> verification) {
+        subtasks.add(verification);
+        verification.whenComplete((result, failure) -> completions.add(verification));
+        return new Subtask<>(verification);
+    }
+
+    /**
+     * Waits for all forked verifications to complete.  On the first
+     * failure, the pending verifications are cancelled and the failure
+     * is rethrown.
+     */
+    void join() throws InterruptedException {
+        for (int completed = 0; completed < subtasks.size(); completed++)
+            checkCompleted(completions.take());
+    }
+
+    /**
+     * Like join(), but waits no longer than deadlineNanos (as given by
+     * System.nanoTime()).  Verifications still pending at the deadline are
+     * cancelled.
+     *
+     * @return true if all verifications completed by the deadline.
+     */
+    boolean joinUntil(long deadlineNanos) throws InterruptedException {
+        for (int completed = 0; completed < subtasks.size(); completed++) {
+            final Future<?> subtask = completions.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (subtask == null) {
+                shutdown();
+                return false;
+            }
+            checkCompleted(subtask);
+        }
+        return true;
+    }
+
+    private void checkCompleted(Future<?> subtask) throws InterruptedException {
+        try {
+            subtask.get();
+        } catch (ExecutionException | CancellationException e) {
+            shutdown();
+            throw propagate(e instanceof ExecutionException ? e.getCause() : e);
+        }
+    }
+
+    private void shutdown() {
+        subtasks.forEach(subtask -> subtask.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    private static RuntimeException propagate(Throwable failure) {
+        if (failure instanceof RuntimeException)
+            return (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        return new RuntimeException("Verification with Issuing Bank failed!", failure);
+    }
+
+    static final class Subtask<T> implements Supplier<T> {
+        private final Future<T> task;
+
+        private Subtask(Future<T> task) {
+            this.task = task;
+        }
+
+        /**
+         * @return true if the verification completed successfully, false
+         * if it is still running or was cancelled.
+         */
+        boolean hasCompleted() {
+            return task.isDone() && !task.isCancelled();
+        }
+
+        @Override
+        public T get() {
+            if (!task.isDone())
+                throw new IllegalStateException("Verification has not completed, join() the scope first!");
+            try {
+                return task.get();
+            } catch (InterruptedException | ExecutionException | CancellationException e) {
+                throw new IllegalStateException("Verification did not complete successfully!", e);
+            }
+        }
+    }
+}
@@ -6,8 +6,33 @@ import com.tsys.fraud_checker.domain.Money;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 
 public interface VerificationService {
     FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
                                               @NotNull @Valid Money charge) throws InterruptedException;
+
+    /**
+     * Verifies within a latency budget.  Verifications that cannot
+     * complete within the budget are cancelled, and the FraudStatus is
+     * decided on the ones that did, marking the others as timed out.
+     * <p>
+     * By default, the budget is not enforced.
+     */
+    default FraudStatus verifyTransactionAuthenticity(@NotNull @Valid CreditCard card,
+                                                      @NotNull @Valid Money charge,
+                                                      @NotNull Duration budget) throws InterruptedException {
+        return verifyTransactionAuthenticity(card, charge);
+    }
+
+    /**
+     * @return the FraudStatus of a check none of whose verifications
+     * came back within its budget, decided on whatever else it is held
+     * to, as verifyTransactionAuthenticity would have decided it.
+     * <p>
+     * By default, a check is held to the expiry of its card alone.
+     */
+    default FraudStatus timedOut(CreditCard card, Money charge) {
+        return FraudStatus.of(FraudStatus.TIMED_OUT, FraudStatus.TIMED_OUT, card.hasExpired());
+    }
 }
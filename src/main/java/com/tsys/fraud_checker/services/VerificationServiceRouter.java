@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.logging.Logger;
 
 @Profile("development")
@@ -36,4 +37,21 @@ public class VerificationServiceRouter implements VerificationService {
         else
             return stubbedDelayVerificationService.verifyTransactionAuthenticity(card, charge);
     }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge, Duration budget) throws InterruptedException {
+        LOG.info(String.format("Routing to %s", routeTo));
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.verifyTransactionAuthenticity(card, charge, budget);
+        else
+            return stubbedDelayVerificationService.verifyTransactionAuthenticity(card, charge, budget);
+    }
+
+    @Override
+    public FraudStatus timedOut(CreditCard card, Money charge) {
+        if (routeTo == RouteTo.ACTUAL)
+            return defaultVerificationService.timedOut(card, charge);
+        else
+            return stubbedDelayVerificationService.timedOut(card, charge);
+    }
 }
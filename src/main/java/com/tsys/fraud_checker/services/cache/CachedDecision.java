@@ -0,0 +1,20 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+
+/**
+ * A decision, and when it expires (in System.nanoTime() terms).
+ */
+final class CachedDecision {
+    final FraudStatus status;
+    final long expiresAtNanos;
+
+    CachedDecision(FraudStatus status, long expiresAtNanos) {
+        this.status = status;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    boolean hasExpired(long nowNanos) {
+        return expiresAtNanos - nowNanos <= 0;
+    }
+}
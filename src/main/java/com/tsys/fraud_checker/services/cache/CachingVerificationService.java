@@ -0,0 +1,50 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+
+import java.time.Duration;
+
+/**
+ * Answers a check from the {@link DecisionCache} when it can, and from
+ * the VerificationService it decorates otherwise.
+ */
+public class CachingVerificationService implements VerificationService {
+
+    private final VerificationService verificationService;
+    private final DecisionCache decisionCache;
+
+    public CachingVerificationService(VerificationService verificationService, DecisionCache decisionCache) {
+        this.verificationService = verificationService;
+        this.decisionCache = decisionCache;
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+        final DecisionKey key = DecisionKey.of(card, charge);
+        final FraudStatus cached = decisionCache.get(key);
+        if (cached != null)
+            return cached;
+        final FraudStatus fraudStatus = verificationService.verifyTransactionAuthenticity(card, charge);
+        decisionCache.put(key, fraudStatus);
+        return fraudStatus;
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge, Duration budget) throws InterruptedException {
+        final DecisionKey key = DecisionKey.of(card, charge);
+        final FraudStatus cached = decisionCache.get(key);
+        if (cached != null)
+            return cached;
+        final FraudStatus fraudStatus = verificationService.verifyTransactionAuthenticity(card, charge, budget);
+        decisionCache.put(key, fraudStatus);
+        return fraudStatus;
+    }
+
+    @Override
+    public FraudStatus timedOut(CreditCard card, Money charge) {
+        return verificationService.timedOut(card, charge);
+    }
+}
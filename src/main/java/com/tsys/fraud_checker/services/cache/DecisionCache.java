@@ -0,0 +1,154 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Fraud decisions of recent checks, for retries and repeat submissions
+ * to be answered without calling the issuing bank again.
+ * <p>
+ * Decisions are kept for ttl-millis, in two tiers: up to maximum-size of
+ * them on the heap (L1, see {@link OnHeapDecisionCache}), and with
+ * off-heap.enabled, the ones the L1 tier evicts or turns away in
+ * off-heap.slots slots off the heap (L2, see {@link OffHeapDecisionCache}).
+ * A decision found in the L2 tier is offered back to the L1 tier.
+ * <p>
+ * Degraded decisions, with a verification that timed out or was
+ * unavailable, are not cached: the next check may well do better.
+ * Neither are decisions made without verifying the card at all.
+ * <p>
+ * Meters, tagged by tier (l1 or l2):
+ * fraud_checker.decision.cache.gets (tagged by result - hit or miss),
+ * fraud_checker.decision.cache.evictions (tagged by cause - size,
+ * expired or rejected on admission) and fraud_checker.decision.cache.size.
+ */
+@Component
+public class DecisionCache {
+
+    private static final Logger LOG = Logger.getLogger(DecisionCache.class.getName());
+    private static final String L1 = "l1";
+    private static final String L2 = "l2";
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final OnHeapDecisionCache l1;
+    private final OffHeapDecisionCache l2;
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l1EvictedBySize;
+    private final Counter l1Expired;
+    private final Counter l1Rejected;
+    private final Counter l2EvictedBySize;
+
+    @Autowired
+    public DecisionCache(@Value("${verification.decision-cache.enabled:false}") boolean enabled,
+                         @Value("${verification.decision-cache.maximum-size:10000}") int maximumSize,
+                         @Value("${verification.decision-cache.ttl-millis:60000}") long ttlMillis,
+                         @Value("${verification.decision-cache.off-heap.enabled:false}") boolean offHeapEnabled,
+                         @Value("${verification.decision-cache.off-heap.slots:65536}") int offHeapSlots,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.l1Hits = getCounter(meterRegistry, L1, "hit");
+        this.l1Misses = getCounter(meterRegistry, L1, "miss");
+        this.l2Hits = getCounter(meterRegistry, L2, "hit");
+        this.l2Misses = getCounter(meterRegistry, L2, "miss");
+        this.l1EvictedBySize = evictionCounter(meterRegistry, L1, "size");
+        this.l1Expired = evictionCounter(meterRegistry, L1, "expired");
+        this.l1Rejected = evictionCounter(meterRegistry, L1, "rejected");
+        this.l2EvictedBySize = evictionCounter(meterRegistry, L2, "size");
+        this.l2 = enabled && offHeapEnabled ? new OffHeapDecisionCache(offHeapSlots) : null;
+        this.l1 = new OnHeapDecisionCache(enabled ? maximumSize : 1, new OnHeapDecisionCache.Displaced() {
+            @Override
+            public void onEvicted(DecisionKey key, CachedDecision decision) {
+                l1EvictedBySize.increment();
+                demote(key, decision);
+            }
+
+            @Override
+            public void onRejected(DecisionKey key, CachedDecision decision) {
+                l1Rejected.increment();
+                demote(key, decision);
+            }
+
+            @Override
+            public void onExpired() {
+                l1Expired.increment();
+            }
+        });
+        Gauge.builder("fraud_checker.decision.cache.size", l1, OnHeapDecisionCache::size)
+                .description("Decisions cached")
+                .tag("tier", L1)
+                .register(meterRegistry);
+        if (l2 != null)
+            Gauge.builder("fraud_checker.decision.cache.size", l2, OffHeapDecisionCache::size)
+                    .description("Decisions cached")
+                    .tag("tier", L2)
+                    .register(meterRegistry);
+        LOG.info(() -> String.format("{ 'decision-cache' : '%s, maximum-size %d, ttl %d ms, off-heap %s' }",
+                enabled ? "on" : "off", maximumSize, ttlMillis, l2 != null ? offHeapSlots + " slots" : "off"));
+    }
+
+    private static Counter getCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("fraud_checker.decision.cache.gets")
+                .description("Decision cache lookups, by result")
+                .tags("tier", tier, "result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String tier, String cause) {
+        return Counter.builder("fraud_checker.decision.cache.evictions")
+                .description("Decisions dropped from (or not admitted to) the decision cache, by cause")
+                .tags("tier", tier, "cause", cause)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the cached decision, or null.
+     */
+    public FraudStatus get(DecisionKey key) {
+        final long now = System.nanoTime();
+        final CachedDecision decision = l1.get(key, now);
+        if (decision != null) {
+            l1Hits.increment();
+            return decision.status;
+        }
+        l1Misses.increment();
+        if (l2 == null)
+            return null;
+        final CachedDecision demoted = l2.get(key, now);
+        if (demoted == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        l1.put(key, demoted, now);
+        return demoted.status;
+    }
+
+    public void put(DecisionKey key, FraudStatus status) {
+        if (!status.timedOut.isEmpty() || !status.unavailable.isEmpty() || status.reason != null)
+            return;
+        final long now = System.nanoTime();
+        l1.put(key, new CachedDecision(status, now + ttlNanos), now);
+    }
+
+    private void demote(DecisionKey key, CachedDecision decision) {
+        if (l2 != null && l2.put(key, decision, System.nanoTime()))
+            l2EvictedBySize.increment();
+    }
+}
@@ -0,0 +1,58 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Pan;
+
+/**
+ * Identifies a check by the keyed fingerprints of its card (that of its
+ * number, {@link Pan#fingerprint()}, worked out once with the PAN, and
+ * {@link CreditCard#detailsFingerprint()} of the rest), and by its
+ * charge.  The PAN and CVV are never kept.
+ */
+public final class DecisionKey {
+
+    final long panFingerprint;
+    final long detailsFingerprint;
+    final int currency;
+    final long amountBits;
+
+    DecisionKey(long panFingerprint, long detailsFingerprint, int currency, long amountBits) {
+        this.panFingerprint = panFingerprint;
+        this.detailsFingerprint = detailsFingerprint;
+        this.currency = currency;
+        this.amountBits = amountBits;
+    }
+
+    public static DecisionKey of(CreditCard card, Money charge) {
+        return new DecisionKey(card.pan().fingerprint(), card.detailsFingerprint(),
+                charge.currency.getNumericCode(), Double.doubleToLongBits(charge.amount));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        DecisionKey that = (DecisionKey) o;
+        return panFingerprint == that.panFingerprint &&
+                detailsFingerprint == that.detailsFingerprint &&
+                currency == that.currency &&
+                amountBits == that.amountBits;
+    }
+
+    // The fingerprints are already uniformly distributed.
+    @Override
+    public int hashCode() {
+        final long mixed = panFingerprint ^ detailsFingerprint ^ amountBits;
+        return (int) (mixed ^ (mixed >>> 32)) * 31 + currency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DecisionKey{fingerprint=%016x%016x, currency=%d}", panFingerprint, detailsFingerprint, currency);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tsys.fraud_checker.services.cache;
+
+/**
+ * A count-min sketch estimating how often each key was recently looked
+ * up, as in TinyLFU (Einhorn, Friedman and Manes).
+ * <p>
+ * Counters saturate at 15, and once sampleSize lookups were recorded all
+ * of them are halved, so that the estimates follow the recent popularity
+ * of keys rather than their all-time popularity.  Not thread safe.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final byte[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        final int width = Integer.highestOneBit(Math.max(maximumSize, 8) - 1) << 1;
+        this.counters = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    void increment(Object key) {
+        final int hash = key.hashCode();
+        boolean incremented = false;
+        for (int row = 0; row < DEPTH; row++) {
+            final int index = indexOf(hash, row);
+            if (counters[row][index] < MAX_COUNT) {
+                counters[row][index]++;
+                incremented = true;
+            }
+        }
+        if (incremented && ++additions == sampleSize)
+            halve();
+    }
+
+    int frequency(Object key) {
+        final int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++)
+            frequency = Math.min(frequency, counters[row][indexOf(hash, row)]);
+        return frequency;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private void halve() {
+        for (byte[] row : counters)
+            for (int i = 0; i < row.length; i++)
+                row[i] >>= 1;
+        additions = sampleSize / 2;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Outcome;
+import com.tsys.fraud_checker.domain.Signal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The L2 tier: decisions displaced from the L1 tier, kept off the heap
+ * in a direct buffer of fixed-size slots, so that a large cache adds
+ * neither to heap occupancy nor to GC work.
+ * <p>
+ * Each key has exactly one slot it can live in, and a decision simply
+ * takes the slot over from whichever decision held it before.  A slot
+ * holds the key, the expiry and the decision packed into a few bits:
+ * <pre>
+ *  0 PAN fingerprint     8 details fingerprint 16 amount bits
+ * 24 expires at nanos   32 currency            36 flags
+ * </pre>
+ * Only complete decisions (nothing timed out or unavailable) can be
+ * packed, and those are the only ones ever cached.
+ */
+final class OffHeapDecisionCache {
+
+    private static final int SLOT_SIZE = 40;
+    private static final byte OCCUPIED = 1;
+    private static final byte CVV_FAILED = 1 << 1;
+    private static final byte ADDRESS_INCORRECT = 1 << 2;
+    private static final byte RULES_FAILED = 1 << 3;
+    private static final byte RULES_SUSPICIOUS = 1 << 4;
+
+    private final ByteBuffer slots;
+    private final int mask;
+    private int size;
+
+    OffHeapDecisionCache(int slotCount) {
+        final int capacity = Integer.highestOneBit(Math.max(slotCount, 2) - 1) << 1;
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        this.mask = capacity - 1;
+    }
+
+    synchronized CachedDecision get(DecisionKey key, long nowNanos) {
+        final int slot = slotOf(key);
+        final byte flags = slots.get(slot + 36);
+        if ((flags & OCCUPIED) == 0 || !holds(slot, key))
+            return null;
+        final CachedDecision decision = new CachedDecision(decode(flags), slots.getLong(slot + 24));
+        if (decision.hasExpired(nowNanos)) {
+            slots.put(slot + 36, (byte) 0);
+            size--;
+            return null;
+        }
+        return decision;
+    }
+
+    /**
+     * @return true if a live decision for another key was evicted.
+     */
+    synchronized boolean put(DecisionKey key, CachedDecision decision, long nowNanos) {
+        final int slot = slotOf(key);
+        final boolean occupied = (slots.get(slot + 36) & OCCUPIED) != 0;
+        final boolean evicts = occupied && !holds(slot, key) && slots.getLong(slot + 24) - nowNanos > 0;
+        if (!occupied)
+            size++;
+        slots.putLong(slot, key.panFingerprint);
+        slots.putLong(slot + 8, key.detailsFingerprint);
+        slots.putLong(slot + 16, key.amountBits);
+        slots.putLong(slot + 24, decision.expiresAtNanos);
+        slots.putInt(slot + 32, key.currency);
+        slots.put(slot + 36, encode(decision.status));
+        return evicts;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private int slotOf(DecisionKey key) {
+        return (key.hashCode() & mask) * SLOT_SIZE;
+    }
+
+    private boolean holds(int slot, DecisionKey key) {
+        return slots.getLong(slot) == key.panFingerprint
+                && slots.getLong(slot + 8) == key.detailsFingerprint
+                && slots.getLong(slot + 16) == key.amountBits
+                && slots.getInt(slot + 32) == key.currency;
+    }
+
+    // The decision is packed as the signals it was made on.  A check
+    // that failed on the CVV fails whatever the rules made of it.
+    private static byte encode(FraudStatus status) {
+        byte flags = OCCUPIED;
+        if (status.has(Signal.CVV_FAILED))
+            flags |= CVV_FAILED;
+        else if (status.has(Signal.RULES_FAILED))
+            flags |= RULES_FAILED;
+        if (status.has(Signal.ADDRESS_INCORRECT))
+            flags |= ADDRESS_INCORRECT;
+        if (status.has(Signal.RULES_SUSPICIOUS))
+            flags |= RULES_SUSPICIOUS;
+        return flags;
+    }
+
+    private static FraudStatus decode(byte flags) {
+        return FraudStatus.of((flags & CVV_FAILED) != 0 ? 1 : 0,
+                (flags & ADDRESS_INCORRECT) != 0 ? 1 : 0,
+                (flags & RULES_FAILED) != 0 ? Outcome.FAIL
+                        : (flags & RULES_SUSPICIOUS) != 0 ? Outcome.SUSPICIOUS : Outcome.PASS);
+    }
+}
@@ -0,0 +1,122 @@
+package com.tsys.fraud_checker.services.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The L1 tier: decisions on the heap, in least recently used order.
+ * <p>
+ * Once full, a new decision is only admitted if its key was looked up
+ * more often of late (see {@link FrequencySketch}) than the key of the
+ * least recently used decision it would evict.  A burst of one-off
+ * checks thus cannot flush the decisions of the cards that keep coming
+ * back.
+ * <p>
+ * Even a hit reorders the decisions, so the cache is split by key hash
+ * into segments of at least MIN_SEGMENT_SIZE decisions (up to
+ * MAX_SEGMENTS of them), each with its own lock, order and sketch, as
+ * Guava's cache is.  Checks on different segments do not contend, and
+ * the least recently used decision is that of the segment.
+ */
+final class OnHeapDecisionCache {
+
+    static final int MIN_SEGMENT_SIZE = 64;
+    static final int MAX_SEGMENTS = 64;
+
+    interface Displaced {
+        void onEvicted(DecisionKey key, CachedDecision decision);
+
+        void onRejected(DecisionKey key, CachedDecision decision);
+
+        void onExpired();
+    }
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    OnHeapDecisionCache(int maximumSize, Displaced displaced) {
+        final int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0), displaced);
+        this.segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+    }
+
+    CachedDecision get(DecisionKey key, long nowNanos) {
+        return segmentOf(key).get(key, nowNanos);
+    }
+
+    void put(DecisionKey key, CachedDecision decision, long nowNanos) {
+        segmentOf(key).put(key, decision, nowNanos);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size();
+        return size;
+    }
+
+    int segments() {
+        return segments.length;
+    }
+
+    // By the top bits of the rehashed key, as the sketch and the L2 tier
+    // index by the bottom ones.
+    private Segment segmentOf(DecisionKey key) {
+        return segmentShift == Integer.SIZE ? segments[0] : segments[(key.hashCode() * 0x7FEB352D) >>> segmentShift];
+    }
+
+    private static final class Segment {
+
+        private final int maximumSize;
+        private final FrequencySketch sketch;
+        private final Displaced displaced;
+        private final LinkedHashMap<DecisionKey, CachedDecision> entries;
+
+        Segment(int maximumSize, Displaced displaced) {
+            this.maximumSize = maximumSize;
+            this.sketch = new FrequencySketch(maximumSize);
+            this.displaced = displaced;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        synchronized CachedDecision get(DecisionKey key, long nowNanos) {
+            sketch.increment(key);
+            final CachedDecision decision = entries.get(key);
+            if (decision == null)
+                return null;
+            if (decision.hasExpired(nowNanos)) {
+                entries.remove(key);
+                displaced.onExpired();
+                return null;
+            }
+            return decision;
+        }
+
+        synchronized void put(DecisionKey key, CachedDecision decision, long nowNanos) {
+            if (entries.containsKey(key) || entries.size() < maximumSize) {
+                entries.put(key, decision);
+                return;
+            }
+            final Iterator<Map.Entry<DecisionKey, CachedDecision>> eldest = entries.entrySet().iterator();
+            final Map.Entry<DecisionKey, CachedDecision> victim = eldest.next();
+            if (victim.getValue().hasExpired(nowNanos)) {
+                eldest.remove();
+                displaced.onExpired();
+            } else if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+                eldest.remove();
+                displaced.onEvicted(victim.getKey(), victim.getValue());
+            } else {
+                displaced.onRejected(key, decision);
+                return;
+            }
+            entries.put(key, decision);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces identical checks in flight, as a client retrying on timeout
+ * would make: the first one (the leader) is verified by the
+ * VerificationService it decorates, and the ones that come while it is
+ * (the followers) wait for, and answer with, its FraudStatus.
+ * <p>
+ * Checks are matched by {@link DecisionKey}, one hash of the card and
+ * charge, and not by CreditCard equals/hashCode.  Flights are kept in a
+ * ConcurrentHashMap, and a leader removes its flight once it has
+ * answered, failed or been interrupted.  The followers of a leader that
+ * was interrupted (its own caller gave up) take over, one of them
+ * leading the flight anew.  A follower with a latency budget waits no
+ * longer than it, and then answers with both verifications timed out,
+ * as the VerificationService it decorates would (see
+ * {@link VerificationService#timedOut}).
+ * <p>
+ * Followers are counted in fraud_checker.verification.coalesced.
+ */
+public class SingleFlightVerificationService implements VerificationService {
+
+    @FunctionalInterface
+    private interface Verification {
+        FraudStatus verify(long remainingNanos) throws InterruptedException;
+    }
+
+    private final VerificationService verificationService;
+    private final ConcurrentMap<DecisionKey, CompletableFuture<FraudStatus>> flights = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public SingleFlightVerificationService(VerificationService verificationService, MeterRegistry meterRegistry) {
+        this.verificationService = verificationService;
+        this.coalesced = Counter.builder("fraud_checker.verification.coalesced")
+                .description("Checks answered with the FraudStatus of an identical check in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+        return verifyOnce(card, charge, Long.MAX_VALUE,
+                remainingNanos -> verificationService.verifyTransactionAuthenticity(card, charge));
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge, Duration budget) throws InterruptedException {
+        return verifyOnce(card, charge, budget.toNanos(),
+                remainingNanos -> verificationService.verifyTransactionAuthenticity(card, charge, Duration.ofNanos(remainingNanos)));
+    }
+
+    private FraudStatus verifyOnce(CreditCard card, Money charge, long budgetNanos, Verification verification) throws InterruptedException {
+        final DecisionKey key = DecisionKey.of(card, charge);
+        final long startNanos = System.nanoTime();
+        while (true) {
+            final long remainingNanos = budgetNanos == Long.MAX_VALUE
+                    ? Long.MAX_VALUE
+                    : Math.max(0, budgetNanos - (System.nanoTime() - startNanos));
+            final CompletableFuture<FraudStatus> flight = new CompletableFuture<>();
+            final CompletableFuture<FraudStatus> inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null)
+                return lead(key, flight, verification, remainingNanos);
+
+            coalesced.increment();
+            try {
+                return remainingNanos == Long.MAX_VALUE
+                        ? inFlight.get()
+                        : inFlight.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } catch (CancellationException e) {
+                // The leader was interrupted, take over from it.
+            } catch (TimeoutException e) {
+                return verificationService.timedOut(card, charge);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                throw (RuntimeException) cause;
+            }
+        }
+    }
+
+    @Override
+    public FraudStatus timedOut(CreditCard card, Money charge) {
+        return verificationService.timedOut(card, charge);
+    }
+
+    private FraudStatus lead(DecisionKey key, CompletableFuture<FraudStatus> flight,
+                             Verification verification, long remainingNanos) throws InterruptedException {
+        try {
+            final FraudStatus fraudStatus = verification.verify(remainingNanos);
+            flight.complete(fraudStatus);
+            return fraudStatus;
+        } catch (InterruptedException e) {
+            flight.cancel(false);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    int inFlight() {
+        return flights.size();
+    }
+}
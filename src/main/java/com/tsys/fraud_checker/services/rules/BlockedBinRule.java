@@ -0,0 +1,71 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Fails checks of cards whose BIN (Bank Identification Number, the first
+ * 6 to 8 digits of the PAN) is in verification.rules.blocked-bins, a
+ * comma separated list.
+ */
+@Component
+public class BlockedBinRule implements FraudRule {
+
+    private final Set<String> blockedBins;
+    private final int[] binLengths;
+
+    @Autowired
+    public BlockedBinRule(@Value("${verification.rules.blocked-bins:}") String blockedBins) {
+        this.blockedBins = Arrays.stream(blockedBins.split(","))
+                .map(String::trim)
+                .filter(bin -> !bin.isEmpty())
+                .peek(BlockedBinRule::requireBin)
+                .collect(Collectors.toUnmodifiableSet());
+        this.binLengths = this.blockedBins.stream()
+                .map(String::length)
+                .collect(Collectors.toCollection(TreeSet::new))
+                .stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void requireBin(String bin) {
+        if (bin.length() < 6 || bin.length() > 8 || !bin.chars().allMatch(c -> c >= '0' && c <= '9'))
+            throw new IllegalArgumentException(String.format("verification.rules.blocked-bins must be BINs of 6 to 8 digits, but has %s", bin));
+    }
+
+    @Override
+    public String name() {
+        return FraudStatus.BLOCKED_BIN;
+    }
+
+    @Override
+    public long costNanos() {
+        return 200;
+    }
+
+    @Override
+    public boolean canFail() {
+        return true;
+    }
+
+    @Override
+    public Outcome evaluate(CreditCard card, Money charge) {
+        if (binLengths.length == 0)
+            return Outcome.PASS;
+
+        final String digits = card.pan().firstDigits(8);
+        for (int length : binLengths)
+            if (digits.length() >= length && blockedBins.contains(digits.substring(0, length)))
+                return Outcome.FAIL;
+        return Outcome.PASS;
+    }
+}
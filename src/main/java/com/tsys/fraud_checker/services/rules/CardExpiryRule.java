@@ -0,0 +1,34 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails checks of expired cards.
+ */
+@Component
+public class CardExpiryRule implements FraudRule {
+
+    @Override
+    public String name() {
+        return FraudStatus.CARD_EXPIRED;
+    }
+
+    @Override
+    public long costNanos() {
+        return 100;
+    }
+
+    @Override
+    public boolean canFail() {
+        return true;
+    }
+
+    @Override
+    public Outcome evaluate(CreditCard card, Money charge) {
+        return card.hasExpired() ? Outcome.FAIL : Outcome.PASS;
+    }
+}
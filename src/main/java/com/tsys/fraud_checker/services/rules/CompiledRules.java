@@ -0,0 +1,194 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RuleDefinition}s compiled, once, into a decision tree of
+ * lambdas, so that a check pays for none of the interpretation.
+ * <p>
+ * The tree branches first on the currency of the charge, by identity (a
+ * Currency is a singleton), to the rules that can match a charge in that
+ * currency, those that fail a check first.  Each rule is then a chain of
+ * the conditions it has, cheapest first, each one comparing a field of
+ * the check with a constant worked out at compile time: a primitive
+ * threshold, a set of issuing banks, or the length of an expiry window.
+ */
+public final class CompiledRules {
+
+    public static final CompiledRules NONE = new CompiledRules(Collections.emptyMap(), new CompiledRule[0], false, 0);
+
+    private static final Comparator<CompiledRule> FAILING_FIRST =
+            Comparator.comparing((CompiledRule rule) -> rule.outcome).reversed();
+
+    private final Map<Currency, CompiledRule[]> byCurrency;
+    private final CompiledRule[] anyCurrency;
+    private final boolean needsClock;
+    private final int size;
+
+    private CompiledRules(Map<Currency, CompiledRule[]> byCurrency, CompiledRule[] anyCurrency, boolean needsClock, int size) {
+        this.byCurrency = byCurrency;
+        this.anyCurrency = anyCurrency;
+        this.needsClock = needsClock;
+        this.size = size;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a definition is not a valid rule.
+     */
+    public static CompiledRules compile(List<RuleDefinition> definitions) {
+        final List<CompiledRule> anyCurrency = new ArrayList<>();
+        final Map<Currency, List<CompiledRule>> byCurrency = new IdentityHashMap<>();
+        final Set<String> names = new HashSet<>();
+        boolean needsClock = false;
+        for (RuleDefinition definition : definitions) {
+            final CompiledRule rule = compile(definition);
+            if (!names.add(rule.name))
+                throw new IllegalArgumentException(String.format("There are two rules named %s", rule.name));
+            needsClock |= definition.expiresWithinDays != null;
+            if (definition.currencies == null)
+                anyCurrency.add(rule);
+            else
+                for (Currency currency : currenciesOf(definition))
+                    byCurrency.computeIfAbsent(currency, c -> new ArrayList<>()).add(rule);
+        }
+
+        final Map<Currency, CompiledRule[]> branches = new IdentityHashMap<>();
+        byCurrency.forEach((currency, rules) -> {
+            rules.addAll(anyCurrency);
+            branches.put(currency, ordered(rules));
+        });
+        return new CompiledRules(branches, ordered(anyCurrency), needsClock, definitions.size());
+    }
+
+    private static CompiledRule compile(RuleDefinition definition) {
+        if (definition.name == null || definition.name.isBlank())
+            throw new IllegalArgumentException(String.format("Rule has no name: %s", definition));
+        final Outcome outcome = outcomeOf(definition);
+
+        final List<Condition> conditions = new ArrayList<>(3);
+        if (definition.amountAbove != null) {
+            final double amountAbove = definition.amountAbove;
+            conditions.add((card, charge, nowMillis) -> charge.amount > amountAbove);
+        }
+        if (definition.expiresWithinDays != null) {
+            if (definition.expiresWithinDays < 0)
+                throw new IllegalArgumentException(String.format("Rule %s has a negative expiry window", definition.name));
+            final long windowMillis = TimeUnit.DAYS.toMillis(definition.expiresWithinDays);
+            conditions.add((card, charge, nowMillis) -> card.validUntil.getTime() - nowMillis <= windowMillis);
+        }
+        if (definition.issuingBanks != null) {
+            if (definition.issuingBanks.size() == 1) {
+                final String issuingBank = definition.issuingBanks.get(0);
+                conditions.add((card, charge, nowMillis) -> issuingBank.equals(card.issuingBank));
+            } else {
+                final Set<String> issuingBanks = Set.copyOf(definition.issuingBanks);
+                conditions.add((card, charge, nowMillis) -> issuingBanks.contains(card.issuingBank));
+            }
+        }
+        if (conditions.isEmpty() && definition.currencies == null)
+            throw new IllegalArgumentException(String.format("Rule %s has no conditions, and would match every check", definition.name));
+        return new CompiledRule(definition.name, outcome, conditions.stream().reduce(Condition::and).orElse(Condition.ALWAYS));
+    }
+
+    private static Outcome outcomeOf(RuleDefinition definition) {
+        if (Outcome.FAIL.status.equals(definition.outcome))
+            return Outcome.FAIL;
+        if (Outcome.SUSPICIOUS.status.equals(definition.outcome))
+            return Outcome.SUSPICIOUS;
+        throw new IllegalArgumentException(String.format("Rule %s must have an outcome of fail or suspicious, but has %s", definition.name, definition.outcome));
+    }
+
+    private static Set<Currency> currenciesOf(RuleDefinition definition) {
+        final Set<Currency> currencies = new LinkedHashSet<>();
+        for (String code : definition.currencies) {
+            try {
+                currencies.add(Currency.getInstance(code));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException(String.format("Rule %s has an unknown currency %s", definition.name, code));
+            }
+        }
+        return currencies;
+    }
+
+    private static CompiledRule[] ordered(List<CompiledRule> rules) {
+        final CompiledRule[] ordered = rules.toArray(new CompiledRule[0]);
+        Arrays.sort(ordered, FAILING_FIRST);
+        return ordered;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the worst outcome of the rules the check matches.
+     */
+    public Outcome evaluate(CreditCard card, Money charge) {
+        final CompiledRule[] rules = byCurrency.getOrDefault(charge.currency, anyCurrency);
+        final long nowMillis = needsClock ? System.currentTimeMillis() : 0;
+        Outcome outcome = Outcome.PASS;
+        for (CompiledRule rule : rules) {
+            if (rule.condition.test(card, charge, nowMillis)) {
+                outcome = outcome.and(rule.outcome);
+                if (outcome.isFinal())
+                    return outcome;
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * @return the name of the first rule the check matches with the
+     * given outcome, null if there is none.
+     */
+    public String matchedBy(CreditCard card, Money charge, Outcome outcome) {
+        final CompiledRule[] rules = byCurrency.getOrDefault(charge.currency, anyCurrency);
+        final long nowMillis = needsClock ? System.currentTimeMillis() : 0;
+        for (CompiledRule rule : rules)
+            if (rule.outcome == outcome && rule.condition.test(card, charge, nowMillis))
+                return rule.name;
+        return null;
+    }
+
+    @FunctionalInterface
+    interface Condition {
+        Condition ALWAYS = (card, charge, nowMillis) -> true;
+
+        boolean test(CreditCard card, Money charge, long nowMillis);
+
+        default Condition and(Condition other) {
+            return (card, charge, nowMillis) -> test(card, charge, nowMillis) && other.test(card, charge, nowMillis);
+        }
+    }
+
+    private static final class CompiledRule {
+        private final String name;
+        private final Outcome outcome;
+        private final Condition condition;
+
+        private CompiledRule(String name, Outcome outcome, Condition condition) {
+            this.name = name;
+            this.outcome = outcome;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The threshold rules risk analysts keep in verification.rules.file, a
+ * JSON array of {@link RuleDefinition}s, held to as one {@link FraudRule}.
+ * A check the rules fail is given the name of the rule it matched as the
+ * reason.
+ * <p>
+ * The rules are compiled when they are loaded (see {@link CompiledRules})
+ * and swapped in all at once, so a check sees either the old rules or
+ * the new ones, never some of each.  The file is looked at every
+ * verification.rules.reload-millis and reloaded when it has changed.  A
+ * file that does not load at startup stops the application, one that
+ * does not load later is logged and counted, and the rules loaded
+ * before are kept.
+ */
+@Component
+public class ConfiguredRules implements FraudRule {
+
+    private static final Logger LOG = Logger.getLogger(ConfiguredRules.class.getName());
+    private static final TypeReference<List<RuleDefinition>> RULE_DEFINITIONS = new TypeReference<>() {
+    };
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Counter reloaded;
+    private final Counter failedToReload;
+    private volatile CompiledRules rules = CompiledRules.NONE;
+    private FileTime lastModified;
+    private final ScheduledThreadPoolExecutor reloader = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = new Thread(runnable, "configured-rules-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ConfiguredRules(@Value("${verification.rules.file:}") String file,
+                           @Value("${verification.rules.reload-millis:5000}") long reloadMillis,
+                           MeterRegistry meterRegistry) {
+        this.file = file.isBlank() ? null : Paths.get(file);
+        this.reloaded = reloadCounter(meterRegistry, "success");
+        this.failedToReload = reloadCounter(meterRegistry, "failure");
+        Gauge.builder("fraud_checker.rules.configured.size", this, configured -> configured.rules.size())
+                .description("Rules loaded from the rules file")
+                .register(meterRegistry);
+        if (this.file != null) {
+            try {
+                load();
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException(String.format("Could not load the rules in %s", file), e);
+            }
+            reloader.scheduleWithFixedDelay(this::reload, reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Counter reloadCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fraud_checker.rules.configured.reloads")
+                .description("Reloads of the rules file, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "configured rules";
+    }
+
+    @Override
+    public long costNanos() {
+        return 300;
+    }
+
+    @Override
+    public boolean canFail() {
+        return true;
+    }
+
+    @Override
+    public Outcome evaluate(CreditCard card, Money charge) {
+        return rules.evaluate(card, charge);
+    }
+
+    @Override
+    public String reasonFor(CreditCard card, Money charge) {
+        final String rule = rules.matchedBy(card, charge, Outcome.FAIL);
+        return rule == null ? name() : rule;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    synchronized void reload() {
+        try {
+            if (!Files.getLastModifiedTime(file).equals(lastModified))
+                load();
+        } catch (IOException | IllegalArgumentException e) {
+            failedToReload.increment();
+            LOG.warning(() -> String.format("{ 'rules not reloaded from %s, keeping the %d loaded before' : '%s' }", file, rules.size(), e.getMessage()));
+        }
+    }
+
+    private void load() throws IOException {
+        final FileTime modified = Files.getLastModifiedTime(file);
+        final List<RuleDefinition> definitions = objectMapper.readValue(file.toFile(), RULE_DEFINITIONS);
+        rules = CompiledRules.compile(definitions);
+        lastModified = modified;
+        reloaded.increment();
+        LOG.info(() -> String.format("{ 'rules loaded from %s' : %d }", file, definitions.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+}
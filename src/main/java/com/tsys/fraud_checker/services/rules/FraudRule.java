@@ -0,0 +1,42 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+
+/**
+ * A rule a check is held to before the card is verified with its issuing
+ * bank.  Any bean implementing it is picked up by {@link FraudRules}.
+ * <p>
+ * Rules are evaluated on the calling thread, so they must be cheap: a
+ * lookup or a comparison, not a call to another system.
+ */
+public interface FraudRule {
+
+    /**
+     * @return the name of the rule, given as the reason for the checks
+     * it fails.
+     */
+    String name();
+
+    /**
+     * @return about how long the rule takes to evaluate, in nanoseconds.
+     */
+    long costNanos();
+
+    /**
+     * @return whether the rule can fail a check, and so decide it on its
+     * own, or can only make it suspicious.
+     */
+    boolean canFail();
+
+    Outcome evaluate(CreditCard card, Money charge);
+
+    /**
+     * @return why the rule failed the check, its name unless it says
+     * otherwise.  Only asked of a rule once it has failed a check.
+     */
+    default String reasonFor(CreditCard card, Money charge) {
+        return name();
+    }
+}
@@ -0,0 +1,171 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates the {@link FraudRule}s one after the other, and stops at the
+ * first one to fail the check, as nothing after it can change the
+ * outcome.
+ * <p>
+ * In the fixed order, rules that can fail a check go first, cheapest
+ * (by the cost they declare) first, and those that can only make it
+ * suspicious last.  With verification.rules.ordering=adaptive, the rules
+ * are instead reordered every verification.rules.reorder-millis by their
+ * measured latency for their measured fail rate, see
+ * {@link MeasuredRule}, so that a rule that often fails checks cheaply
+ * goes before one that rarely fails them, whatever they declare.  That
+ * is the order that minimises the expected cost of a check, as a query
+ * optimiser orders predicates.  The fixed order is kept for auditing,
+ * and the expected saving of the adaptive order over it is reported.
+ * <p>
+ * Evaluations are counted per rule and outcome in
+ * fraud_checker.rules.evaluations, and the rules a check did not get to
+ * in fraud_checker.rules.skipped.
+ */
+@Component
+public class FraudRules {
+
+    private static final Logger LOG = Logger.getLogger(FraudRules.class.getName());
+
+    public static final String FIXED = "fixed";
+    public static final String ADAPTIVE = "adaptive";
+
+    static final Comparator<MeasuredRule> CHEAPEST_DECISIVE_FIRST = Comparator
+            .comparing((MeasuredRule rule) -> !rule.canFail())
+            .thenComparingLong(MeasuredRule::declaredCostNanos);
+    static final Comparator<MeasuredRule> LOWEST_RANK_FIRST = Comparator
+            .comparingDouble(MeasuredRule::rank)
+            .thenComparing(CHEAPEST_DECISIVE_FIRST);
+
+    private final boolean adaptive;
+    private final double smoothing;
+    private final MeasuredRule[] fixedOrder;
+    private volatile MeasuredRule[] order;
+    private final ScheduledThreadPoolExecutor reorderer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = new Thread(runnable, "fraud-rules-reorderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public FraudRules(List<FraudRule> rules,
+                      @Value("${verification.rules.ordering:adaptive}") String ordering,
+                      @Value("${verification.rules.reorder-millis:10000}") long reorderMillis,
+                      @Value("${verification.rules.smoothing:0.2}") double smoothing,
+                      MeterRegistry meterRegistry) {
+        this(rules, ordering, smoothing, meterRegistry);
+        reorderer.scheduleWithFixedDelay(this::reorder, reorderMillis, reorderMillis, TimeUnit.MILLISECONDS);
+    }
+
+    FraudRules(List<FraudRule> rules, String ordering, double smoothing, MeterRegistry meterRegistry) {
+        if (!FIXED.equals(ordering) && !ADAPTIVE.equals(ordering))
+            throw new IllegalArgumentException(String.format("verification.rules.ordering must be one of fixed or adaptive, but was %s", ordering));
+        this.adaptive = ADAPTIVE.equals(ordering);
+        this.smoothing = smoothing;
+        this.fixedOrder = rules.stream()
+                .map(rule -> new MeasuredRule(rule, meterRegistry))
+                .sorted(CHEAPEST_DECISIVE_FIRST)
+                .toArray(MeasuredRule[]::new);
+        this.order = fixedOrder;
+        LOG.info(() -> String.format("{ 'fraud rules' : '%s', 'ordering' : '%s' }", namesOf(fixedOrder), ordering));
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return the rules in the order they are now evaluated in.
+     */
+    public List<MeasuredRule> order() {
+        return Collections.unmodifiableList(Arrays.asList(order));
+    }
+
+    public List<MeasuredRule> fixedOrder() {
+        return Collections.unmodifiableList(Arrays.asList(fixedOrder));
+    }
+
+    public double expectedNanos() {
+        return expectedNanosOf(order);
+    }
+
+    public double fixedOrderExpectedNanos() {
+        return expectedNanosOf(fixedOrder);
+    }
+
+    // Each rule is evaluated only if none before it failed the check.
+    private static double expectedNanosOf(MeasuredRule[] rules) {
+        double expectedNanos = 0;
+        double reached = 1;
+        for (MeasuredRule rule : rules) {
+            expectedNanos += reached * rule.latencyNanos();
+            reached *= 1 - rule.failRate();
+        }
+        return expectedNanos;
+    }
+
+    public Evaluation evaluate(CreditCard card, Money charge) {
+        final MeasuredRule[] rules = order;
+        Outcome outcome = Outcome.PASS;
+        for (int i = 0; i < rules.length; i++) {
+            outcome = outcome.and(rules[i].evaluate(card, charge));
+            if (outcome.isFinal()) {
+                for (int j = i + 1; j < rules.length; j++)
+                    rules[j].skip();
+                return new Evaluation(outcome, rules[i].reasonFor(card, charge));
+            }
+        }
+        return new Evaluation(outcome, null);
+    }
+
+    synchronized void reorder() {
+        for (MeasuredRule rule : fixedOrder)
+            rule.fold(smoothing);
+        if (!adaptive)
+            return;
+
+        final MeasuredRule[] reordered = fixedOrder.clone();
+        Arrays.sort(reordered, LOWEST_RANK_FIRST);
+        if (!Arrays.equals(reordered, order)) {
+            order = reordered;
+            LOG.info(() -> String.format("{ 'fraud rules reordered' : '%s', 'expected nanos' : %.0f, 'fixed order expected nanos' : %.0f }",
+                    namesOf(reordered), expectedNanosOf(reordered), expectedNanosOf(fixedOrder)));
+        }
+    }
+
+    private static String namesOf(MeasuredRule[] rules) {
+        return Arrays.stream(rules).map(MeasuredRule::name).collect(Collectors.joining(", "));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reorderer.shutdownNow();
+    }
+
+    public static final class Evaluation {
+        public final Outcome outcome;
+        // The rule that failed the check, if one did.
+        public final String failedBy;
+
+        Evaluation(Outcome outcome, String failedBy) {
+            this.outcome = outcome;
+            this.failedBy = failedBy;
+        }
+    }
+}
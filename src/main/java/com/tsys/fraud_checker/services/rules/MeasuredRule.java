@@ -0,0 +1,108 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link FraudRule} with how long it takes and how often it fails a
+ * check, as measured on live checks.
+ * <p>
+ * Evaluations are only added up as they happen, so that checks never
+ * contend on the statistics.  The sums are folded, every so often, into
+ * exponentially weighted moving averages (EWMA) of the latency and fail
+ * rate, which start from the cost the rule declares and from never
+ * failing.
+ */
+public final class MeasuredRule {
+
+    private final FraudRule rule;
+    private final Counter[] evaluations = new Counter[Outcome.values().length];
+    private final Counter skipped;
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder evaluatedNanos = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile double latencyNanos;
+    private volatile double failRate;
+
+    MeasuredRule(FraudRule rule, MeterRegistry meterRegistry) {
+        this.rule = rule;
+        this.latencyNanos = rule.costNanos();
+        for (Outcome outcome : Outcome.values())
+            evaluations[outcome.ordinal()] = Counter.builder("fraud_checker.rules.evaluations")
+                    .description("Rules evaluated, by outcome")
+                    .tag("rule", rule.name())
+                    .tag("outcome", outcome.status)
+                    .register(meterRegistry);
+        this.skipped = Counter.builder("fraud_checker.rules.skipped")
+                .description("Rules not evaluated, as an earlier one had failed the check")
+                .tag("rule", rule.name())
+                .register(meterRegistry);
+    }
+
+    FraudRule rule() {
+        return rule;
+    }
+
+    public String name() {
+        return rule.name();
+    }
+
+    public boolean canFail() {
+        return rule.canFail();
+    }
+
+    public long declaredCostNanos() {
+        return rule.costNanos();
+    }
+
+    public double latencyNanos() {
+        return latencyNanos;
+    }
+
+    public double failRate() {
+        return failRate;
+    }
+
+    Outcome evaluate(CreditCard card, Money charge) {
+        final long startNanos = System.nanoTime();
+        final Outcome outcome = rule.evaluate(card, charge);
+        evaluatedNanos.add(System.nanoTime() - startNanos);
+        evaluated.increment();
+        if (outcome == Outcome.FAIL)
+            failed.increment();
+        evaluations[outcome.ordinal()].increment();
+        return outcome;
+    }
+
+    String reasonFor(CreditCard card, Money charge) {
+        return rule.reasonFor(card, charge);
+    }
+
+    void skip() {
+        skipped.increment();
+    }
+
+    // Only ever called from one thread at a time.
+    void fold(double smoothing) {
+        final long count = evaluated.sumThenReset();
+        final long nanos = evaluatedNanos.sumThenReset();
+        final long failures = failed.sumThenReset();
+        if (count == 0)
+            return;
+
+        latencyNanos = smoothing * nanos / count + (1 - smoothing) * latencyNanos;
+        failRate = smoothing * failures / count + (1 - smoothing) * failRate;
+    }
+
+    // The cost of the rule for the chance it has to end the check.  The
+    // order of rules that minimises the expected cost of a check is that
+    // of this rank, lowest first.  Rules that never fail rank last.
+    double rank() {
+        return failRate > 0 ? latencyNanos / failRate : Double.POSITIVE_INFINITY;
+    }
+}
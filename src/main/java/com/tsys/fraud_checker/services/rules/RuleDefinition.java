@@ -0,0 +1,81 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A threshold rule, as a risk analyst writes it in the rules file.  A
+ * check matches the rule when it meets all of its conditions, those it
+ * leaves out being met by any check, and then takes its outcome
+ * (fail or suspicious).  For example:
+ * <pre>
+ * { "name": "large INR charge", "outcome": "suspicious", "currencies": ["INR"], "amountAbove": 100000 }
+ * </pre>
+ * {@link #matches(CreditCard, Money, long)} interprets the rule as it
+ * is written.  On the hot path, rules are compiled instead, see
+ * {@link CompiledRules}.
+ */
+public class RuleDefinition {
+
+    public final String name;
+    public final String outcome;
+    // ISO 4217 codes of the currencies of charges matching the rule.
+    public final List<String> currencies;
+    public final Double amountAbove;
+    public final List<String> issuingBanks;
+    public final Integer expiresWithinDays;
+
+    @Deprecated
+    public RuleDefinition() {
+        this(null, null, null, null, null, null);
+    }
+
+    public RuleDefinition(String name, String outcome, List<String> currencies, Double amountAbove, List<String> issuingBanks, Integer expiresWithinDays) {
+        this.name = name;
+        this.outcome = outcome;
+        this.currencies = currencies;
+        this.amountAbove = amountAbove;
+        this.issuingBanks = issuingBanks;
+        this.expiresWithinDays = expiresWithinDays;
+    }
+
+    public boolean matches(CreditCard card, Money charge, long nowMillis) {
+        if (currencies != null && !currencies.contains(charge.currency.getCurrencyCode()))
+            return false;
+        if (amountAbove != null && charge.amount <= amountAbove)
+            return false;
+        if (issuingBanks != null && !issuingBanks.contains(card.issuingBank))
+            return false;
+        if (expiresWithinDays != null && card.validUntil.getTime() - nowMillis > TimeUnit.DAYS.toMillis(expiresWithinDays))
+            return false;
+        return true;
+    }
+
+    /**
+     * @return the worst outcome of the rules the check matches.
+     */
+    public static Outcome interpret(List<RuleDefinition> rules, CreditCard card, Money charge) {
+        final long nowMillis = System.currentTimeMillis();
+        Outcome outcome = Outcome.PASS;
+        for (RuleDefinition rule : rules)
+            if (rule.matches(card, charge, nowMillis))
+                outcome = outcome.and(Outcome.valueOf(rule.outcome.toUpperCase()));
+        return outcome;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleDefinition{" +
+                "name='" + name + '\'' +
+                ", outcome='" + outcome + '\'' +
+                ", currencies=" + currencies +
+                ", amountAbove=" + amountAbove +
+                ", issuingBanks=" + issuingBanks +
+                ", expiresWithinDays=" + expiresWithinDays +
+                '}';
+    }
+}
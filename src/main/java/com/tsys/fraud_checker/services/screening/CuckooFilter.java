@@ -0,0 +1,174 @@
+package com.tsys.fraud_checker.services.screening;
+
+/**
+ * An approximate set of 64-bit hashes, after "Cuckoo Filter: Practically
+ * Better Than Bloom" (Fan, Andersen, Kaminsky and Mitzenmacher).
+ * <p>
+ * Each hash is kept as a 16-bit fingerprint, in one of two buckets of
+ * four slots: its own bucket, or the alternate bucket given by its
+ * bucket and fingerprint alone.  Should both be full, a fingerprint
+ * already there is kicked out to its own alternate bucket, and so on.
+ * A lookup thus only ever probes 8 slots, and unlike a Bloom filter, a
+ * hash can be removed again - provided it was added in the first place,
+ * or a colliding hash could be removed instead.
+ * <p>
+ * There are no false negatives, and the false positive rate is at most
+ * 8 / 2^16 (about 0.012%), lower the emptier the filter.  Not thread safe.
+ */
+final class CuckooFilter {
+
+    static final int BUCKET_SIZE = 4;
+    private static final double MAX_LOAD_FACTOR = 0.95;
+    private static final int MAX_KICKS = 500;
+    private static final int FINGERPRINT_VALUES = (1 << 16) - 1;
+
+    private final short[] slots;
+    private final int bucketMask;
+    private long size;
+    private long kickSeed = 0x9E3779B97F4A7C15L;
+
+    // A fingerprint that could not be placed, after MAX_KICKS, is stashed
+    // here rather than lost, and the filter takes no more.
+    private short victim;
+    private int victimBucket;
+
+    CuckooFilter(long capacity) {
+        final long buckets = Math.max(2, (long) Math.ceil(capacity / (BUCKET_SIZE * MAX_LOAD_FACTOR)));
+        final long powerOfTwo = Long.highestOneBit(buckets - 1) << 1;
+        if (powerOfTwo * BUCKET_SIZE > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format("A capacity of %d is too large", capacity));
+        this.slots = new short[(int) powerOfTwo * BUCKET_SIZE];
+        this.bucketMask = (int) powerOfTwo - 1;
+    }
+
+    /**
+     * @return false if the filter is full.
+     */
+    boolean add(long hash) {
+        if (victim != 0)
+            return false;
+        short fingerprint = fingerprintOf(hash);
+        final int bucket = bucketOf(hash);
+        if (tryPut(bucket, fingerprint) || tryPut(alternate(bucket, fingerprint), fingerprint)) {
+            size++;
+            return true;
+        }
+        int kickedFrom = nextRandom() % 2 == 0 ? bucket : alternate(bucket, fingerprint);
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            final int slot = kickedFrom * BUCKET_SIZE + (nextRandom() & (BUCKET_SIZE - 1));
+            final short kicked = slots[slot];
+            slots[slot] = fingerprint;
+            fingerprint = kicked;
+            kickedFrom = alternate(kickedFrom, fingerprint);
+            if (tryPut(kickedFrom, fingerprint)) {
+                size++;
+                return true;
+            }
+        }
+        victim = fingerprint;
+        victimBucket = kickedFrom;
+        size++;
+        return true;
+    }
+
+    boolean mightContain(long hash) {
+        final short fingerprint = fingerprintOf(hash);
+        final int bucket = bucketOf(hash);
+        final int alternate = alternate(bucket, fingerprint);
+        return holds(bucket, fingerprint) || holds(alternate, fingerprint)
+                || (victim == fingerprint && (victimBucket == bucket || victimBucket == alternate));
+    }
+
+    boolean remove(long hash) {
+        final short fingerprint = fingerprintOf(hash);
+        final int bucket = bucketOf(hash);
+        final int alternate = alternate(bucket, fingerprint);
+        if (victim == fingerprint && (victimBucket == bucket || victimBucket == alternate)) {
+            victim = 0;
+            size--;
+            return true;
+        }
+        if (tryRemove(bucket, fingerprint) || tryRemove(alternate, fingerprint)) {
+            size--;
+            // Room was made, maybe for the stashed fingerprint.
+            if (victim != 0 && (tryPut(victimBucket, victim) || tryPut(alternate(victimBucket, victim), victim)))
+                victim = 0;
+            return true;
+        }
+        return false;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long capacity() {
+        return slots.length;
+    }
+
+    long memoryBytes() {
+        return (long) slots.length * Short.BYTES;
+    }
+
+    /**
+     * A lookup probes 2 * BUCKET_SIZE slots, each of which is occupied as
+     * often as the filter is loaded, and matches the fingerprint looked
+     * up one time in 2^16 - 1.
+     */
+    double falsePositiveRate() {
+        final double loadFactor = (double) size / slots.length;
+        return 1 - Math.pow(1 - 1.0 / FINGERPRINT_VALUES, 2 * BUCKET_SIZE * loadFactor);
+    }
+
+    // The bucket is taken from the low bits of the hash, and the
+    // fingerprint from the high ones, so the two are independent.
+    private int bucketOf(long hash) {
+        return (int) hash & bucketMask;
+    }
+
+    private static short fingerprintOf(long hash) {
+        final int fingerprint = (int) (hash >>> 48);
+        return (short) (fingerprint == 0 ? 1 : fingerprint);
+    }
+
+    // i ^ h(f) is its own inverse, so either bucket gives the other.
+    private int alternate(int bucket, short fingerprint) {
+        return (bucket ^ ((fingerprint & 0xFFFF) * 0x5BD1E995)) & bucketMask;
+    }
+
+    private boolean holds(int bucket, short fingerprint) {
+        final int first = bucket * BUCKET_SIZE;
+        for (int slot = first; slot < first + BUCKET_SIZE; slot++)
+            if (slots[slot] == fingerprint)
+                return true;
+        return false;
+    }
+
+    private boolean tryPut(int bucket, short fingerprint) {
+        final int first = bucket * BUCKET_SIZE;
+        for (int slot = first; slot < first + BUCKET_SIZE; slot++)
+            if (slots[slot] == 0) {
+                slots[slot] = fingerprint;
+                return true;
+            }
+        return false;
+    }
+
+    private boolean tryRemove(int bucket, short fingerprint) {
+        final int first = bucket * BUCKET_SIZE;
+        for (int slot = first; slot < first + BUCKET_SIZE; slot++)
+            if (slots[slot] == fingerprint) {
+                slots[slot] = 0;
+                return true;
+            }
+        return false;
+    }
+
+    // xorshift, to pick which fingerprint to kick out.
+    private int nextRandom() {
+        kickSeed ^= kickSeed << 13;
+        kickSeed ^= kickSeed >>> 7;
+        kickSeed ^= kickSeed << 17;
+        return (int) (kickSeed >>> 33);
+    }
+}
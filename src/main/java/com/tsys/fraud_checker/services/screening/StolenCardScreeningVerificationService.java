@@ -0,0 +1,42 @@
+package com.tsys.fraud_checker.services.screening;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+
+import java.time.Duration;
+
+/**
+ * Fails checks of {@link StolenCards} straight away, and passes the
+ * others on to the VerificationService it decorates.
+ */
+public class StolenCardScreeningVerificationService implements VerificationService {
+
+    private final VerificationService verificationService;
+    private final StolenCards stolenCards;
+
+    public StolenCardScreeningVerificationService(VerificationService verificationService, StolenCards stolenCards) {
+        this.verificationService = verificationService;
+        this.stolenCards = stolenCards;
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+        if (stolenCards.isStolen(card.number))
+            return FraudStatus.failedWithoutVerification(FraudStatus.STOLEN_CARD);
+        return verificationService.verifyTransactionAuthenticity(card, charge);
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge, Duration budget) throws InterruptedException {
+        if (stolenCards.isStolen(card.number))
+            return FraudStatus.failedWithoutVerification(FraudStatus.STOLEN_CARD);
+        return verificationService.verifyTransactionAuthenticity(card, charge, budget);
+    }
+
+    @Override
+    public FraudStatus timedOut(CreditCard card, Money charge) {
+        return verificationService.timedOut(card, charge);
+    }
+}
@@ -0,0 +1,236 @@
+package com.tsys.fraud_checker.services.screening;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cards known to be compromised, as a {@link CuckooFilter} of their PAN
+ * hashes: the SHA-256, in hex, of the digits of the PAN.
+ * <p>
+ * The filter is loaded at startup from verification.stolen-cards.file,
+ * one PAN hash a line (blank lines and lines starting with # are
+ * skipped), and sized for verification.stolen-cards.capacity cards.  PAN
+ * hashes can then be added and removed one at a time, see
+ * {@link com.tsys.fraud_checker.web.StolenCardsEndpoint}.  Only remove a
+ * PAN hash that was added, or a card sharing its fingerprint could be
+ * removed instead.
+ * <p>
+ * A card is taken for stolen if the filter might contain it, so about
+ * one card in falsePositiveRate() is taken for stolen when it is not.
+ * Meters: fraud_checker.stolen.cards.hits, fraud_checker.stolen.cards.size,
+ * fraud_checker.stolen.cards.filter.memory (bytes) and
+ * fraud_checker.stolen.cards.filter.false.positive.rate.
+ */
+@Component
+public class StolenCards {
+
+    private static final Logger LOG = Logger.getLogger(StolenCards.class.getName());
+    private static final int PAN_HASH_LENGTH = 64;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(StolenCards::newSha256);
+
+    private final boolean enabled;
+    private final CuckooFilter filter;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter hits;
+
+    @Autowired
+    public StolenCards(@Value("${verification.stolen-cards.enabled:false}") boolean enabled,
+                       @Value("${verification.stolen-cards.capacity:100000}") long capacity,
+                       @Value("${verification.stolen-cards.file:}") String file,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.filter = new CuckooFilter(enabled ? capacity : 0);
+        this.hits = Counter.builder("fraud_checker.stolen.cards.hits")
+                .description("Checks failed as their card was taken for stolen")
+                .register(meterRegistry);
+        Gauge.builder("fraud_checker.stolen.cards.size", this, StolenCards::size)
+                .description("PAN hashes in the stolen card filter")
+                .register(meterRegistry);
+        Gauge.builder("fraud_checker.stolen.cards.filter.memory", this, StolenCards::memoryBytes)
+                .description("Memory taken by the stolen card filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("fraud_checker.stolen.cards.filter.false.positive.rate", this, StolenCards::falsePositiveRate)
+                .description("Share of cards that are not stolen, but taken for stolen")
+                .register(meterRegistry);
+        if (enabled && !file.isBlank())
+            load(Paths.get(file));
+        LOG.info(() -> String.format("{ 'stolen-cards' : '%s, %d of %d PAN hashes in %d bytes, false positive rate %.6f' }",
+                enabled ? "on" : "off", size(), capacity(), memoryBytes(), falsePositiveRate()));
+    }
+
+    private void load(Path file) {
+        final long startNanos = System.nanoTime();
+        long invalid = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                if (!isPanHash(line)) {
+                    invalid++;
+                    continue;
+                }
+                if (!filter.add(hashOf(line)))
+                    throw new IllegalStateException(String.format("%s holds more PAN hashes than verification.stolen-cards.capacity", file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not load stolen cards from %s", file), e);
+        }
+        if (invalid > 0) {
+            final long skipped = invalid;
+            LOG.log(Level.WARNING, () -> String.format("{ 'stolen-cards' : 'skipped %d lines of %s that are not PAN hashes' }", skipped, file));
+        }
+        LOG.info(() -> String.format("{ 'stolen-cards' : 'loaded %d PAN hashes from %s in %d ms' }",
+                filter.size(), file, (System.nanoTime() - startNanos) / 1_000_000));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isStolen(String cardNumber) {
+        final long hash = panHashOf(cardNumber);
+        final boolean stolen;
+        lock.readLock().lock();
+        try {
+            stolen = filter.mightContain(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (stolen)
+            hits.increment();
+        return stolen;
+    }
+
+    /**
+     * @return false if the filter is full.
+     * @throws IllegalArgumentException if panHash is not a PAN hash.
+     */
+    public boolean add(String panHash) {
+        final long hash = hashOf(checked(panHash));
+        lock.writeLock().lock();
+        try {
+            return filter.add(hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the filter did not contain the PAN hash.
+     * @throws IllegalArgumentException if panHash is not a PAN hash.
+     */
+    public boolean remove(String panHash) {
+        final long hash = hashOf(checked(panHash));
+        lock.writeLock().lock();
+        try {
+            return filter.remove(hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return filter.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long capacity() {
+        return filter.capacity();
+    }
+
+    public long memoryBytes() {
+        return filter.memoryBytes();
+    }
+
+    public double falsePositiveRate() {
+        lock.readLock().lock();
+        try {
+            return filter.falsePositiveRate();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the SHA-256, in hex, of the digits of the card number, the
+     * ASCII 0 to 9 as {@link com.tsys.fraud_checker.domain.Pan} keeps them.
+     */
+    public static String panHash(String cardNumber) {
+        final byte[] digest = digestOf(cardNumber);
+        final StringBuilder hex = new StringBuilder(PAN_HASH_LENGTH);
+        for (byte b : digest)
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return hex.toString();
+    }
+
+    // The filter only needs 64 bits of the hash, the first 8 bytes.
+    static long panHashOf(String cardNumber) {
+        final byte[] digest = digestOf(cardNumber);
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++)
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        return hash;
+    }
+
+    private static byte[] digestOf(String cardNumber) {
+        final MessageDigest sha256 = SHA_256.get();
+        for (int i = 0; i < cardNumber.length(); i++) {
+            final char c = cardNumber.charAt(i);
+            if (c >= '0' && c <= '9')
+                sha256.update((byte) c);
+        }
+        return sha256.digest();
+    }
+
+    private static long hashOf(String panHash) {
+        return Long.parseUnsignedLong(panHash.substring(0, 16), 16);
+    }
+
+    private static String checked(String panHash) {
+        if (panHash == null || !isPanHash(panHash))
+            throw new IllegalArgumentException("A PAN hash is the SHA-256 of the digits of the PAN, as 64 hex digits");
+        return panHash;
+    }
+
+    private static boolean isPanHash(String line) {
+        if (line.length() != PAN_HASH_LENGTH)
+            return false;
+        for (int i = 0; i < PAN_HASH_LENGTH; i++)
+            if (Character.digit(line.charAt(i), 16) < 0)
+                return false;
+        return true;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
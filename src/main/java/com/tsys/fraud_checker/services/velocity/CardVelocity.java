@@ -0,0 +1,79 @@
+package com.tsys.fraud_checker.services.velocity;
+
+/**
+ * The charges made on one card, over each {@link VelocityWindow}.
+ * <p>
+ * Each window keeps two fixed buckets, the one now filling and the one
+ * before it, and slides by weighing the one before by how much of it is
+ * still inside the window.  That takes a few primitives a window, however
+ * many charges there are, and is off by no more than the charges of one
+ * bucket at its edge.
+ * <p>
+ * Charges on different cards never contend, those on the same card
+ * take turns on its monitor.
+ */
+final class CardVelocity {
+
+    private final VelocityWindow[] windows;
+    private final long[] buckets;
+    private final long[] charges;
+    private final long[] previousCharges;
+    private final double[] amounts;
+    private final double[] previousAmounts;
+    private long lastChargedNanos;
+
+    CardVelocity(VelocityWindow[] windows) {
+        this.windows = windows;
+        this.buckets = new long[windows.length];
+        this.charges = new long[windows.length];
+        this.previousCharges = new long[windows.length];
+        this.amounts = new double[windows.length];
+        this.previousAmounts = new double[windows.length];
+    }
+
+    /**
+     * Records a charge of amount at nowNanos, which never goes back in
+     * time (and is never negative).
+     *
+     * @return the windows the card has now gone over, one bit a window
+     * in their order.
+     */
+    synchronized int charge(double amount, long nowNanos) {
+        lastChargedNanos = nowNanos;
+        int exceeded = 0;
+        for (int i = 0; i < windows.length; i++) {
+            final VelocityWindow window = windows[i];
+            slide(i, nowNanos / window.lengthNanos);
+            charges[i]++;
+            amounts[i] += amount;
+
+            final double stillInWindow = 1.0 - (double) (nowNanos % window.lengthNanos) / window.lengthNanos;
+            final double estimatedCharges = charges[i] + previousCharges[i] * stillInWindow;
+            final double estimatedAmount = amounts[i] + previousAmounts[i] * stillInWindow;
+            if (estimatedCharges > window.maxCharges || estimatedAmount > window.maxAmount)
+                exceeded |= 1 << i;
+        }
+        return exceeded;
+    }
+
+    synchronized long lastChargedNanos() {
+        return lastChargedNanos;
+    }
+
+    private void slide(int window, long bucket) {
+        final long elapsed = bucket - buckets[window];
+        if (elapsed == 0)
+            return;
+
+        if (elapsed == 1) {
+            previousCharges[window] = charges[window];
+            previousAmounts[window] = amounts[window];
+        } else {
+            previousCharges[window] = 0;
+            previousAmounts[window] = 0;
+        }
+        charges[window] = 0;
+        amounts[window] = 0;
+        buckets[window] = bucket;
+    }
+}
@@ -0,0 +1,155 @@
+package com.tsys.fraud_checker.services.velocity;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Pan;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Counts the charges made on each card, and sums their amounts, over the
+ * last minute, hour and day, to catch bursts of charges such as those of
+ * card testing.  A card goes over a window when it is charged more than
+ * verification.velocity.&lt;window&gt;.max-charges times in it, or more
+ * than verification.velocity.&lt;window&gt;.max-amount in all.
+ * <p>
+ * Cards are tracked per currency, by {@link Pan#fingerprint()}, in a
+ * {@link CardVelocity} each.  At most verification.velocity.max-cards
+ * cards are tracked, any others are let through uncounted (and counted in
+ * fraud_checker.velocity.untracked), and a card is forgotten once it
+ * has not been charged for two of its longest window.
+ */
+@Component
+public class Velocity {
+
+    private static final Logger LOG = Logger.getLogger(Velocity.class.getName());
+
+    public static final String MINUTE = "minute";
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    private final boolean enabled;
+    private final int maxCards;
+    private final VelocityWindow[] windows;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final Map<Long, CardVelocity> cards = new ConcurrentHashMap<>();
+    private final Counter[] exceeded;
+    private final Counter untracked;
+    private final ScheduledThreadPoolExecutor sweeper = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = new Thread(runnable, "velocity-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public Velocity(Environment env, MeterRegistry meterRegistry) {
+        this(env, meterRegistry, nanosSince(System.nanoTime()));
+    }
+
+    Velocity(Environment env, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = env.getProperty("verification.velocity.enabled", Boolean.class, false);
+        this.maxCards = env.getProperty("verification.velocity.max-cards", Integer.class, 100000);
+        this.windows = new VelocityWindow[]{
+                windowOf(env, MINUTE, TimeUnit.MINUTES.toNanos(1), 10),
+                windowOf(env, HOUR, TimeUnit.HOURS.toNanos(1), 30),
+                windowOf(env, DAY, TimeUnit.DAYS.toNanos(1), 100)
+        };
+        this.idleNanos = 2 * windows[windows.length - 1].lengthNanos;
+        this.clock = clock;
+        this.exceeded = new Counter[windows.length];
+        for (int i = 0; i < windows.length; i++)
+            exceeded[i] = Counter.builder("fraud_checker.velocity.exceeded")
+                    .description("Charges that took their card over a velocity window")
+                    .tag("window", windows[i].name)
+                    .register(meterRegistry);
+        this.untracked = Counter.builder("fraud_checker.velocity.untracked")
+                .description("Charges let through uncounted, as velocity was tracking as many cards as it may")
+                .register(meterRegistry);
+        Gauge.builder("fraud_checker.velocity.cards", cards, Map::size)
+                .description("Cards whose velocity is being tracked")
+                .register(meterRegistry);
+        if (enabled) {
+            final long sweepMillis = env.getProperty("verification.velocity.sweep-millis", Long.class, 60000L);
+            sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        }
+        LOG.info(() -> String.format("{ 'verification.velocity' : 'enabled=%b, tracking up to %d cards' }", enabled, maxCards));
+    }
+
+    private static VelocityWindow windowOf(Environment env, String name, long lengthNanos, long maxCharges) {
+        final String prefix = "verification.velocity." + name;
+        return new VelocityWindow(name, lengthNanos,
+                env.getProperty(prefix + ".max-charges", Long.class, maxCharges),
+                env.getProperty(prefix + ".max-amount", Double.class, Double.MAX_VALUE));
+    }
+
+    private static LongSupplier nanosSince(long originNanos) {
+        return () -> System.nanoTime() - originNanos;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the charge on the card.
+     *
+     * @return the names of the windows the card has now gone over, none
+     * if it is within all of them.
+     */
+    public List<String> charge(CreditCard card, Money charge) {
+        final long key = card.pan().fingerprint() ^ (charge.currency.getNumericCode() * 0x9E3779B97F4A7C15L);
+        CardVelocity velocity = cards.get(key);
+        if (velocity == null) {
+            if (cards.size() >= maxCards) {
+                untracked.increment();
+                return Collections.emptyList();
+            }
+            velocity = cards.computeIfAbsent(key, k -> new CardVelocity(windows));
+        }
+
+        final int exceededWindows = velocity.charge(charge.amount, clock.getAsLong());
+        if (exceededWindows == 0)
+            return Collections.emptyList();
+
+        final List<String> names = new ArrayList<>(windows.length);
+        for (int i = 0; i < windows.length; i++) {
+            if ((exceededWindows & (1 << i)) != 0) {
+                exceeded[i].increment();
+                names.add(windows[i].name);
+            }
+        }
+        return names;
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    // A charge racing the removal of its card, idle until then, is not
+    // counted.
+    void sweep() {
+        final long now = clock.getAsLong();
+        cards.entrySet().removeIf(card -> now - card.getValue().lastChargedNanos() > idleNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
@@ -0,0 +1,46 @@
+package com.tsys.fraud_checker.services.velocity;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Counts every check against the {@link Velocity} of its card, and fails
+ * those that take the card over a window straight away.  The others are
+ * passed on to the VerificationService it decorates.
+ */
+public class VelocityCheckingVerificationService implements VerificationService {
+
+    private final VerificationService verificationService;
+    private final Velocity velocity;
+
+    public VelocityCheckingVerificationService(VerificationService verificationService, Velocity velocity) {
+        this.verificationService = verificationService;
+        this.velocity = velocity;
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+        final List<String> exceeded = velocity.charge(card, charge);
+        if (!exceeded.isEmpty())
+            return FraudStatus.failedOnVelocity(exceeded);
+        return verificationService.verifyTransactionAuthenticity(card, charge);
+    }
+
+    @Override
+    public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge, Duration budget) throws InterruptedException {
+        final List<String> exceeded = velocity.charge(card, charge);
+        if (!exceeded.isEmpty())
+            return FraudStatus.failedOnVelocity(exceeded);
+        return verificationService.verifyTransactionAuthenticity(card, charge, budget);
+    }
+
+    @Override
+    public FraudStatus timedOut(CreditCard card, Money charge) {
+        return verificationService.timedOut(card, charge);
+    }
+}
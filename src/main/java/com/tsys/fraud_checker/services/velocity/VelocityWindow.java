@@ -0,0 +1,27 @@
+package com.tsys.fraud_checker.services.velocity;
+
+/**
+ * A sliding window over which a card may be charged at most maxCharges
+ * times, and at most maxAmount in all.
+ */
+final class VelocityWindow {
+
+    final String name;
+    final long lengthNanos;
+    final long maxCharges;
+    final double maxAmount;
+
+    VelocityWindow(String name, long lengthNanos, long maxCharges, double maxAmount) {
+        if (lengthNanos <= 0)
+            throw new IllegalArgumentException(String.format("Length of the %s velocity window must be positive, but was %d", name, lengthNanos));
+        this.name = name;
+        this.lengthNanos = lengthNanos;
+        this.maxCharges = maxCharges;
+        this.maxAmount = maxAmount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VelocityWindow{name='%s', lengthNanos=%d, maxCharges=%d, maxAmount=%.2f}", name, lengthNanos, maxCharges, maxAmount);
+    }
+}
@@ -0,0 +1,43 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * A card number, as @NotBlank, @Length(min, max),
+ * @CreditCardNumber(ignoreNonDigitCharacters = true) and @LuhnCheck
+ * would have it, checked in a single pass over its characters.  Each
+ * of those it fails is reported with its own message.  Unlike them, it
+ * takes only the ASCII 0 to 9 for digits, check digit included.
+ */
+@Target({FIELD, PARAMETER})
+@Retention(RUNTIME)
+@Documented
+@Constraint(validatedBy = {CardNumberValidator.class})
+public @interface CardNumber {
+    /**
+     * @return the message of a number that fails @CreditCardNumber
+     */
+    String message() default "{org.hibernate.validator.constraints.CreditCardNumber.message}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    int min() default 0;
+
+    int max() default Integer.MAX_VALUE;
+
+    String requiredMessage() default "{javax.validation.constraints.NotBlank.message}";
+
+    String lengthMessage() default "{org.hibernate.validator.constraints.Length.message}";
+
+    String luhnMessage() default "{org.hibernate.validator.constraints.LuhnCheck.message}";
+}
@@ -0,0 +1,98 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Checks a card number is not blank, is of the right length, and that
+ * its digits (ignoring any separators) pass the Luhn check, reading
+ * each character once and allocating nothing unless it fails.
+ * <p>
+ * As @CreditCardNumber and @LuhnCheck do, the last character is taken
+ * for the check digit as it is, and the Luhn checksum is worked out over
+ * the digits before it.  Digits are the ASCII 0 to 9 only, as for
+ * {@link com.tsys.fraud_checker.domain.Pan}, so a number ending in any
+ * other Unicode digit fails its Luhn check.
+ */
+public class CardNumberValidator implements ConstraintValidator<CardNumber, CharSequence> {
+
+    private int min;
+    private int max;
+    private String message;
+    private String requiredMessage;
+    private String lengthMessage;
+    private String luhnMessage;
+
+    public void initialize(CardNumber parameters) {
+        min = parameters.min();
+        max = parameters.max();
+        message = parameters.message();
+        requiredMessage = parameters.requiredMessage();
+        lengthMessage = parameters.lengthMessage();
+        luhnMessage = parameters.luhnMessage();
+        validateParameters();
+    }
+
+    private void validateParameters() {
+        if (min < 0)
+            throw new IllegalArgumentException("min cannot be negative");
+        if (max < min)
+            throw new IllegalArgumentException("max cannot be less than min");
+    }
+
+    @Override
+    public boolean isValid(CharSequence number, ConstraintValidatorContext context) {
+        if (number == null) {
+            report(context, requiredMessage);
+            return false;
+        }
+
+        final int length = number.length();
+        boolean blank = true;
+        // The Luhn sums of the digits read so far, with the last of them
+        // doubled and with the last of them as it is.  Each digit read
+        // swaps the two, as the digit before it is then doubled or not.
+        int lastDoubled = 0;
+        int lastAsIs = 0;
+        for (int i = 0; i < length - 1; i++) {
+            final char c = number.charAt(i);
+            if (c > ' ')
+                blank = false;
+            if (c >= '0' && c <= '9') {
+                final int digit = c - '0';
+                final int doubled = digit > 4 ? 2 * digit - 9 : 2 * digit;
+                final int previousDoubled = lastDoubled;
+                lastDoubled = lastAsIs + doubled;
+                lastAsIs = previousDoubled + digit;
+            }
+        }
+        boolean luhn = false;
+        if (length > 0) {
+            final char checkDigit = number.charAt(length - 1);
+            if (checkDigit > ' ')
+                blank = false;
+            luhn = checkDigit >= '0' && checkDigit <= '9' && checkDigit - '0' == (10 - lastDoubled % 10) % 10;
+        }
+        final boolean ofLength = length >= min && length <= max;
+
+        if (!blank && ofLength && luhn)
+            return true;
+
+        if (blank)
+            report(context, requiredMessage);
+        if (!ofLength)
+            report(context, lengthMessage);
+        if (!luhn) {
+            report(context, message);
+            report(context, luhnMessage);
+        }
+        return false;
+    }
+
+    private static void report(ConstraintValidatorContext context, String messageTemplate) {
+        if (context == null)
+            return;
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(messageTemplate).addConstraintViolation();
+    }
+}
@@ -2,6 +2,7 @@ package com.tsys.fraud_checker.spring.validators;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -33,7 +34,8 @@ public class NumberOfDigitsValidator implements ConstraintValidator<NumberOfDigi
             number = number / 10;
             count++;
         }
-        LOG.info(String.format("Number of digits: %d", count));
+        if (LOG.isLoggable(Level.FINE))
+            LOG.fine(String.format("Number of digits: %d", count));
         return count == value;
     }
 }
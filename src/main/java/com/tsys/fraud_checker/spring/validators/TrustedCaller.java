@@ -0,0 +1,85 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Lets a caller that has validated what it is about to pass to a
+ * @Validated bean vouch for it, so that the bean does not validate it
+ * all over again (see {@link TrustingMethodValidationInterceptor}).
+ * <p>
+ * A caller vouches for the very objects it validated, and only for the
+ * duration of its call, on its own thread.  A validated method it calls
+ * with all of them among its arguments is not validated, but any other
+ * it calls, and any called from there, is validated as usual.  Anyone
+ * who has not vouched for their arguments has them validated.
+ */
+public final class TrustedCaller {
+
+    private static final ThreadLocal<Object[]> VOUCHED_FOR = new ThreadLocal<>();
+
+    private TrustedCaller() {
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public static <T, E extends Exception> T call(Call<T, E> call, Object... validated) throws E {
+        final Object[] vouchedBefore = VOUCHED_FOR.get();
+        VOUCHED_FOR.set(validated);
+        try {
+            return call.call();
+        } finally {
+            restore(vouchedBefore);
+        }
+    }
+
+    static Object proceed(MethodInvocation invocation, Object[] validated) throws Throwable {
+        final Object[] vouchedBefore = VOUCHED_FOR.get();
+        VOUCHED_FOR.set(validated);
+        try {
+            return invocation.proceed();
+        } finally {
+            restore(vouchedBefore);
+        }
+    }
+
+    private static void restore(Object[] vouchedBefore) {
+        if (vouchedBefore == null)
+            VOUCHED_FOR.remove();
+        else
+            VOUCHED_FOR.set(vouchedBefore);
+    }
+
+    /**
+     * @return what the caller vouched for, now claimed by a call with
+     * all of it among its arguments, or else null
+     */
+    static Object[] claim(Object[] arguments) {
+        final Object[] vouchedFor = VOUCHED_FOR.get();
+        if (vouchedFor == null || !allAmong(vouchedFor, arguments))
+            return null;
+        VOUCHED_FOR.remove();
+        return vouchedFor;
+    }
+
+    static void giveBack(Object[] vouchedFor) {
+        VOUCHED_FOR.set(vouchedFor);
+    }
+
+    private static boolean allAmong(Object[] vouchedFor, Object[] arguments) {
+        for (Object validated : vouchedFor) {
+            boolean among = false;
+            for (Object argument : arguments) {
+                if (argument == validated) {
+                    among = true;
+                    break;
+                }
+            }
+            if (!among)
+                return false;
+        }
+        return true;
+    }
+}
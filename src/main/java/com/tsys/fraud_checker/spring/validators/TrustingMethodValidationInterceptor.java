@@ -0,0 +1,35 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.validation.beanvalidation.MethodValidationInterceptor;
+
+import javax.validation.Validator;
+
+/**
+ * Validates the arguments (and return value) of methods of @Validated
+ * beans, as Spring's MethodValidationInterceptor does, unless a
+ * {@link TrustedCaller} has vouched for them.
+ */
+public class TrustingMethodValidationInterceptor extends MethodValidationInterceptor {
+
+    public TrustingMethodValidationInterceptor() {
+        super();
+    }
+
+    public TrustingMethodValidationInterceptor(Validator validator) {
+        super(validator);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        final Object[] vouchedFor = TrustedCaller.claim(invocation.getArguments());
+        if (vouchedFor == null)
+            return super.invoke(invocation);
+
+        try {
+            return invocation.proceed();
+        } finally {
+            TrustedCaller.giveBack(vouchedFor);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import javax.validation.Valid;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Goes after a {@link TrustingMethodValidationInterceptor}, and vouches
+ * (see {@link TrustedCaller}) for the @Valid arguments it has just
+ * validated, so that the @Validated bean they are passed on to, through
+ * any number of decorators, does not validate them all over again.
+ */
+public class VouchingInterceptor implements MethodInterceptor {
+
+    private final ConcurrentMap<Method, boolean[]> validParameters = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        final Object[] arguments = invocation.getArguments();
+        final boolean[] valid = validParameters.computeIfAbsent(invocation.getMethod(), VouchingInterceptor::validParameters);
+        int count = 0;
+        for (boolean validParameter : valid)
+            if (validParameter)
+                count++;
+        final Object[] validated = new Object[count];
+        for (int i = 0, at = 0; i < valid.length; i++)
+            if (valid[i])
+                validated[at++] = arguments[i];
+        return TrustedCaller.proceed(invocation, validated);
+    }
+
+    private static boolean[] validParameters(Method method) {
+        final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        final boolean[] valid = new boolean[parameterAnnotations.length];
+        for (int i = 0; i < parameterAnnotations.length; i++)
+            for (Annotation annotation : parameterAnnotations[i])
+                if (annotation instanceof Valid)
+                    valid[i] = true;
+        return valid;
+    }
+}
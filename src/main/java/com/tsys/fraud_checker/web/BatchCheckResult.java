@@ -0,0 +1,62 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.web.advices.ValidationError;
+
+import java.util.List;
+
+/**
+ * Outcome of one check in a batch or a stream.  Exactly one of
+ * fraudStatus, validationErrors or error is present.  The index is the
+ * position of the check in the submitted batch (or its line number in a
+ * stream).  Streamed results also carry the correlationId of their check.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchCheckResult {
+    public final int index;
+    public final String correlationId;
+    public final FraudStatus fraudStatus;
+    public final List<ValidationError> validationErrors;
+    public final String error;
+
+    @Deprecated
+    public BatchCheckResult() {
+        this(0, null, null, null, null);
+    }
+
+    private BatchCheckResult(int index, String correlationId, FraudStatus fraudStatus, List<ValidationError> validationErrors, String error) {
+        this.index = index;
+        this.correlationId = correlationId;
+        this.fraudStatus = fraudStatus;
+        this.validationErrors = validationErrors;
+        this.error = error;
+    }
+
+    public static BatchCheckResult checked(int index, FraudStatus fraudStatus) {
+        return new BatchCheckResult(index, null, fraudStatus, null, null);
+    }
+
+    public static BatchCheckResult invalid(int index, List<ValidationError> validationErrors) {
+        return new BatchCheckResult(index, null, null, validationErrors, null);
+    }
+
+    public static BatchCheckResult failed(int index, String error) {
+        return new BatchCheckResult(index, null, null, null, error);
+    }
+
+    public BatchCheckResult correlatedWith(String correlationId) {
+        return new BatchCheckResult(index, correlationId, fraudStatus, validationErrors, error);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchCheckResult{" +
+                "index=" + index +
+                ", correlationId='" + correlationId + '\'' +
+                ", fraudStatus=" + fraudStatus +
+                ", validationErrors=" + validationErrors +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
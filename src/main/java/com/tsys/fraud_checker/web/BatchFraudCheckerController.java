@@ -0,0 +1,171 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.spring.validators.TrustedCaller;
+import com.tsys.fraud_checker.web.advices.ValidationError;
+import com.tsys.fraud_checker.web.advices.ValidationErrorsResponse;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// NOTE:
+// =====
+// A batch is not annotated with @Valid, as a single invalid check would
+// then reject the whole batch.  Instead, all checks are validated in one
+// pass up-front and each invalid check gets its own validation errors,
+// while the valid ones go on to be verified.
+//
+// Verifications block (on the issuing bank), so they run on Reactor's
+// bounded elastic scheduler, at most verification.batch.parallelism of
+// them at a time for a batch.  flatMapSequential lets them complete in
+// any order, but emits results in the order the checks were submitted.
+//
+// A stream is for check runs too large to hold in memory.  Checks are
+// read one line at a time and flatMap only asks for the next line when
+// one of its verification.stream.max-in-flight checks finishes, while
+// Spring writes each result as soon as it's emitted and only asks for
+// the next one once it has been written out.  So a slow reader slows
+// down the checks, and memory stays flat however long the stream is.
+// flatMap emits results as checks complete, hence every result carries
+// the correlationId of its check.
+@Controller
+@RequestMapping("/")
+public class BatchFraudCheckerController {
+
+    private static final Logger LOG = Logger.getLogger(BatchFraudCheckerController.class.getName());
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final VerificationService verificationService;
+    private final Validator validator;
+    private final int parallelism;
+    private final int maxBatchSize;
+    private final ObjectMapper objectMapper;
+    private final int maxInFlight;
+
+    @Autowired
+    public BatchFraudCheckerController(VerificationService verificationService,
+                                       Validator validator,
+                                       @Value("${verification.batch.parallelism:8}") int parallelism,
+                                       @Value("${verification.batch.max-size:500}") int maxBatchSize,
+                                       ObjectMapper objectMapper,
+                                       @Value("${verification.stream.max-in-flight:64}") int maxInFlight) {
+        this.verificationService = verificationService;
+        this.validator = validator;
+        this.parallelism = parallelism;
+        this.maxBatchSize = maxBatchSize;
+        this.objectMapper = objectMapper;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @ApiOperation(value = "Check a batch of transactions for possible fraud, returning a result for each check in the order submitted.", consumes = "application/json, application/cbor, application/x-jackson-smile, application/x-protobuf", produces = "application/json, application/cbor, application/x-jackson-smile, application/x-protobuf")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Got a Fraud Status or Validation Errors for each check in the batch", response = BatchCheckResult.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Empty or oversized batch", response = ValidationErrorsResponse.class)
+    })
+    @PostMapping(value = "check/batch", consumes = {"application/json", "application/cbor", "application/x-jackson-smile", "application/x-protobuf"}, produces = {"application/json", "application/cbor", "application/x-jackson-smile", "application/x-protobuf"})
+    public Mono<ResponseEntity<?>> checkFraudInBatch(@RequestBody List<FraudCheckPayload> payloads) {
+        LOG.info(() -> String.format("{ 'checkFraudInBatch' : '%d checks' }", payloads.size()));
+        if (payloads.isEmpty() || payloads.size() > maxBatchSize) {
+            final var errors = new ValidationErrorsResponse();
+            errors.add(new ValidationError("payloads", String.format("batch must contain between 1 and %d checks", maxBatchSize)));
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(errors));
+        }
+
+        return Flux.range(0, payloads.size())
+                .flatMapSequential(index -> check(index, payloads.get(index)), parallelism)
+                .collectList()
+                .map(results -> ResponseEntity.ok().body(results));
+    }
+
+    @ApiOperation(value = "Check a stream of transactions, one per line, for possible fraud, streaming back a result for each check as soon as it completes.", consumes = APPLICATION_NDJSON, produces = APPLICATION_NDJSON)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Got a Fraud Status, Validation Errors or an Error for each check, tagged with its correlationId", response = BatchCheckResult.class)
+    })
+    @PostMapping(value = "check/stream", consumes = APPLICATION_NDJSON, produces = APPLICATION_NDJSON)
+    public Flux<BatchCheckResult> checkFraudInStream(InputStream body) {
+        LOG.info(() -> String.format("{ 'checkFraudInStream' : 'at most %d checks in flight' }", maxInFlight));
+        return Flux.using(() -> new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)),
+                        reader -> Flux.fromStream(reader.lines()),
+                        this::close)
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .flatMap(line -> check(Math.toIntExact(line.getT1() + 1), line.getT2()), maxInFlight)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<BatchCheckResult> check(int lineNumber, String line) {
+        final CorrelatedFraudCheckPayload payload;
+        try {
+            payload = objectMapper.readValue(line, CorrelatedFraudCheckPayload.class);
+        } catch (JsonProcessingException e) {
+            LOG.warning(() -> String.format("{ 'checkFraudInStream' : 'line %d is malformed: %s' }", lineNumber, e.getOriginalMessage()));
+            return Mono.just(BatchCheckResult.failed(lineNumber, "Malformed check, expected a Fraud Check Payload on a single line")
+                    .correlatedWith(String.valueOf(lineNumber)));
+        }
+        final String correlationId = payload == null || payload.correlationId == null ? String.valueOf(lineNumber) : payload.correlationId;
+        return check(lineNumber, payload).map(result -> result.correlatedWith(correlationId));
+    }
+
+    private void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Mono<BatchCheckResult> check(int index, FraudCheckPayload payload) {
+        final List<ValidationError> validationErrors = validate(payload);
+        if (!validationErrors.isEmpty())
+            return Mono.just(BatchCheckResult.invalid(index, validationErrors));
+
+        return Mono.fromCallable(() -> TrustedCaller.call(
+                        () -> verificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge),
+                        payload.creditCard, payload.charge))
+                .map(fraudStatus -> BatchCheckResult.checked(index, fraudStatus))
+                .onErrorResume(e -> {
+                    LOG.warning(() -> String.format("{ 'checkFraudInBatch' : 'check %d failed with %s' }", index, e));
+                    return Mono.just(BatchCheckResult.failed(index, "Unable to verify this check, please retry"));
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private List<ValidationError> validate(FraudCheckPayload payload) {
+        if (payload == null)
+            return List.of(new ValidationError("payload", "Require Fraud Check Payload!"));
+
+        final Set<ConstraintViolation<FraudCheckPayload>> violations = validator.validate(payload);
+        return violations.stream()
+                .map(violation -> new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,35 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+
+/**
+ * A line of a streamed check.  Results of a stream are written in the
+ * order the checks complete, so the caller tags each check with a
+ * correlationId to match results to checks.  When absent, the line
+ * number is used instead.
+ */
+@JsonDeserialize(using = FraudCheckPayloadDeserializer.Correlated.class)
+public class CorrelatedFraudCheckPayload extends FraudCheckPayload {
+    public final String correlationId;
+
+    @Deprecated
+    public CorrelatedFraudCheckPayload() {
+        this(null, null, null);
+    }
+
+    public CorrelatedFraudCheckPayload(String correlationId, CreditCard creditCard, Money charge) {
+        super(creditCard, charge);
+        this.correlationId = correlationId;
+    }
+
+    @Override
+    public String toString() {
+        return "CorrelatedFraudCheckPayload{" +
+                "correlationId='" + correlationId + '\'' +
+                ", creditCard=" + creditCard +
+                ", charge=" + charge +
+                '}';
+    }
+}
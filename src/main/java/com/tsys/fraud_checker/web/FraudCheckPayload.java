@@ -1,5 +1,6 @@
 package com.tsys.fraud_checker.web;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.tsys.fraud_checker.domain.CreditCard;
 import com.tsys.fraud_checker.domain.Money;
 
@@ -14,7 +15,11 @@ import javax.validation.constraints.NotNull;
  * <p>
  * For example - In our case, we need to annotate CreditCard and Money
  * fields with Valid annotation.
+ * <p>
+ * Read by {@link FraudCheckPayloadDeserializer} rather than bound
+ * reflectively.
  */
+@JsonDeserialize(using = FraudCheckPayloadDeserializer.class)
 public class FraudCheckPayload {
     @Valid
     @NotNull(message = "Require Credit Card Details!")
@@ -0,0 +1,356 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.Money;
+
+import java.io.IOException;
+import java.util.Currency;
+import java.util.Date;
+
+/**
+ * Reads a {@link FraudCheckPayload} straight off the parser's tokens,
+ * rather than binding it reflectively through a tree of bean
+ * deserializers.
+ * <p>
+ * Currencies are looked up in a table of every ISO 4217 code, indexed by
+ * its three letters as they lie in the parser's buffer, and expiry dates
+ * in the shape clients send them (yyyy-MM-ddTHH:mm:ss[.SSS] with Z or an
+ * offset) are parsed in place.  Anything out of the ordinary - a value
+ * of an unexpected type, an unknown currency, a date in some other shape
+ * - is handed to the deserializers Jackson would have used, so a payload
+ * reads (or fails to read) just as it did before.
+ */
+public class FraudCheckPayloadDeserializer extends StdDeserializer<FraudCheckPayload> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int LETTERS = 26;
+    private static final Currency[] CURRENCIES = currencies();
+    // Jackson reads earlier dates on the Julian calendar.
+    private static final int GREGORIAN_SINCE = 1600;
+
+    public FraudCheckPayloadDeserializer() {
+        this(FraudCheckPayload.class);
+    }
+
+    FraudCheckPayloadDeserializer(Class<? extends FraudCheckPayload> payloadType) {
+        super(payloadType);
+    }
+
+    /**
+     * Reads a {@link CorrelatedFraudCheckPayload}, a line of a streamed
+     * check.
+     */
+    public static class Correlated extends FraudCheckPayloadDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        public Correlated() {
+            super(CorrelatedFraudCheckPayload.class);
+        }
+    }
+
+    @Override
+    public FraudCheckPayload deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT)
+            token = p.nextToken();
+        else if (token != JsonToken.FIELD_NAME)
+            return (FraudCheckPayload) ctxt.handleUnexpectedToken(handledType(), p);
+
+        final boolean correlated = handledType() == CorrelatedFraudCheckPayload.class;
+        String correlationId = null;
+        CreditCard creditCard = null;
+        Money charge = null;
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            final String field = p.getCurrentName();
+            p.nextToken();
+            try {
+                switch (field) {
+                    case "creditCard":
+                        creditCard = readCreditCard(p, ctxt);
+                        break;
+                    case "charge":
+                        charge = readMoney(p, ctxt);
+                        break;
+                    case "correlationId":
+                        // Not a property of an uncorrelated payload.
+                        if (!correlated) {
+                            ctxt.handleUnknownProperty(p, this, handledType(), field);
+                        } else {
+                            correlationId = readString(p, ctxt);
+                        }
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, handledType(), field);
+                }
+            } catch (JsonProcessingException e) {
+                throw withPath(ctxt, e, handledType(), field);
+            }
+        }
+        return correlated
+                ? new CorrelatedFraudCheckPayload(correlationId, creditCard, charge)
+                : new FraudCheckPayload(creditCard, charge);
+    }
+
+    private CreditCard readCreditCard(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL)
+            return null;
+        if (p.currentToken() != JsonToken.START_OBJECT)
+            return ctxt.readValue(p, CreditCard.class);
+
+        String number = null;
+        String holderName = null;
+        String issuingBank = null;
+        Date validUntil = null;
+        Integer cvv = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = p.getCurrentName();
+            p.nextToken();
+            try {
+                switch (field) {
+                    case "number":
+                        number = readString(p, ctxt);
+                        break;
+                    case "holderName":
+                        holderName = readString(p, ctxt);
+                        break;
+                    case "issuingBank":
+                        issuingBank = readString(p, ctxt);
+                        break;
+                    case "validUntil":
+                        validUntil = readDate(p, ctxt);
+                        break;
+                    case "cvv":
+                        cvv = readInteger(p, ctxt);
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, CreditCard.class, field);
+                }
+            } catch (JsonProcessingException e) {
+                throw withPath(ctxt, e, CreditCard.class, field);
+            }
+        }
+        return new CreditCard(number, holderName, issuingBank, validUntil, cvv);
+    }
+
+    private Money readMoney(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL)
+            return null;
+        if (p.currentToken() != JsonToken.START_OBJECT)
+            return ctxt.readValue(p, Money.class);
+
+        Currency currency = null;
+        Double amount = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = p.getCurrentName();
+            p.nextToken();
+            try {
+                switch (field) {
+                    case "currency":
+                        currency = readCurrency(p, ctxt);
+                        break;
+                    case "amount":
+                        amount = readDouble(p, ctxt);
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, Money.class, field);
+                }
+            } catch (JsonProcessingException e) {
+                throw withPath(ctxt, e, Money.class, field);
+            }
+        }
+        return new Money(currency, amount);
+    }
+
+    // As a bean deserializer does, so the caller is told where in the
+    // payload it went wrong.
+    private static JsonProcessingException withPath(DeserializationContext ctxt, JsonProcessingException e, Class<?> type, String field) {
+        return ctxt.isEnabled(DeserializationFeature.WRAP_EXCEPTIONS) ? JsonMappingException.wrapWithPath(e, type, field) : e;
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_STRING:
+                return p.getText();
+            case VALUE_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, String.class);
+        }
+    }
+
+    private static Integer readInteger(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_NUMBER_INT:
+                if (p.getNumberType() == JsonParser.NumberType.INT)
+                    return p.getIntValue();
+                return ctxt.readValue(p, Integer.class);
+            case VALUE_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, Integer.class);
+        }
+    }
+
+    private static Double readDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_NUMBER_FLOAT:
+            case VALUE_NUMBER_INT:
+                return p.getDoubleValue();
+            case VALUE_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, Double.class);
+        }
+    }
+
+    private static Currency readCurrency(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_STRING:
+                final Currency currency = currencyAt(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                return currency == null ? ctxt.readValue(p, Currency.class) : currency;
+            case VALUE_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, Currency.class);
+        }
+    }
+
+    private static Date readDate(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_STRING:
+                final long millis = isoMillisAt(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                return millis == Long.MIN_VALUE ? ctxt.readValue(p, Date.class) : new Date(millis);
+            case VALUE_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, Date.class);
+        }
+    }
+
+    // Every ISO 4217 currency, at the index of its three (upper case)
+    // letters taken as a number in base 26.
+    private static Currency[] currencies() {
+        final Currency[] currencies = new Currency[LETTERS * LETTERS * LETTERS];
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            final String code = currency.getCurrencyCode();
+            final int index = indexOf(code.toCharArray(), 0, code.length());
+            if (index >= 0)
+                currencies[index] = currency;
+        }
+        return currencies;
+    }
+
+    private static Currency currencyAt(char[] text, int offset, int length) {
+        final int index = indexOf(text, offset, length);
+        return index < 0 ? null : CURRENCIES[index];
+    }
+
+    private static int indexOf(char[] code, int offset, int length) {
+        if (length != 3)
+            return -1;
+        int index = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final int letter = code[i] - 'A';
+            if (letter < 0 || letter >= LETTERS)
+                return -1;
+            index = index * LETTERS + letter;
+        }
+        return index;
+    }
+
+    /**
+     * Milliseconds since the epoch of yyyy-MM-ddTHH:mm:ss[.SSS] followed by
+     * Z, +hh:mm or +hhmm (or a - offset), or Long.MIN_VALUE for any other
+     * text, including dates and times out of range.
+     */
+    private static long isoMillisAt(char[] text, int offset, int length) {
+        final int end = offset + length;
+        if (length < 20 || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T'
+                || text[offset + 13] != ':' || text[offset + 16] != ':')
+            return Long.MIN_VALUE;
+        final int year = digits(text, offset, 4);
+        final int month = digits(text, offset + 5, 2);
+        final int day = digits(text, offset + 8, 2);
+        final int hour = digits(text, offset + 11, 2);
+        final int minute = digits(text, offset + 14, 2);
+        final int second = digits(text, offset + 17, 2);
+        int at = offset + 19;
+        int millis = 0;
+        if (text[at] == '.') {
+            if (end - at < 5)
+                return Long.MIN_VALUE;
+            millis = digits(text, at + 1, 3);
+            at += 4;
+        }
+        if (year < GREGORIAN_SINCE || month < 1 || month > 12 || day < 1 || day > daysIn(month, year)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0)
+            return Long.MIN_VALUE;
+
+        final int offsetMinutes = offsetMinutesAt(text, at, end);
+        if (offsetMinutes == Integer.MIN_VALUE)
+            return Long.MIN_VALUE;
+        final long seconds = ((daysSinceEpoch(year, month, day) * 24 + hour) * 60 + minute - offsetMinutes) * 60 + second;
+        return seconds * 1000 + millis;
+    }
+
+    private static int offsetMinutesAt(char[] text, int at, int end) {
+        final int length = end - at;
+        if (length == 1 && text[at] == 'Z')
+            return 0;
+        if (length != 5 && length != 6 || text[at] != '+' && text[at] != '-')
+            return Integer.MIN_VALUE;
+        if (length == 6 && text[at + 3] != ':')
+            return Integer.MIN_VALUE;
+        final int hours = digits(text, at + 1, 2);
+        final int minutes = digits(text, end - 2, 2);
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59)
+            return Integer.MIN_VALUE;
+        final int offsetMinutes = hours * 60 + minutes;
+        return text[at] == '-' ? -offsetMinutes : offsetMinutes;
+    }
+
+    // The number in the digits, or -1 when they are not all digits.
+    private static int digits(char[] text, int offset, int count) {
+        int number = 0;
+        for (int i = offset; i < offset + count; i++) {
+            final int digit = text[i] - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            number = number * 10 + digit;
+        }
+        return number;
+    }
+
+    private static int daysIn(int month, int year) {
+        switch (month) {
+            case 2:
+                return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Days from 1970-01-01 to the (proleptic Gregorian) date.
+    private static long daysSinceEpoch(int year, int month, int day) {
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
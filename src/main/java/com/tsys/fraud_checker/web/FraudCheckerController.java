@@ -1,26 +1,31 @@
 package com.tsys.fraud_checker.web;
 
 import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.RiskThresholds;
 import com.tsys.fraud_checker.services.DefaultVerificationService;
 import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.spring.validators.TrustedCaller;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
 import springfox.documentation.annotations.ApiIgnore;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.Duration;
 import java.util.logging.Logger;
 
 // NOTE:
@@ -59,12 +64,23 @@ import java.util.logging.Logger;
 public class FraudCheckerController {
 
     private static final Logger LOG = Logger.getLogger(FraudCheckerController.class.getName());
+    public static final String LATENCY_BUDGET_HEADER = "X-Latency-Budget-Millis";
+    public static final String RISK_THRESHOLDS_HEADER = "X-Risk-Score-Thresholds";
 
     private final VerificationService verificationService;
+    private final long checkTimeoutMillis;
+    private final long checkBudgetMillis;
+    private final long budgetHeadroomMillis;
 
     @Autowired
-    public FraudCheckerController(VerificationService verificationService) {
+    public FraudCheckerController(VerificationService verificationService,
+                                  @Value("${verification.check.timeout-millis:6000}") long checkTimeoutMillis,
+                                  @Value("${verification.check.budget-millis:800}") long checkBudgetMillis,
+                                  @Value("${verification.check.budget-headroom-millis:50}") long budgetHeadroomMillis) {
         this.verificationService = verificationService;
+        this.checkTimeoutMillis = checkTimeoutMillis;
+        this.checkBudgetMillis = checkBudgetMillis;
+        this.budgetHeadroomMillis = budgetHeadroomMillis;
     }
 
     @ApiIgnore
@@ -142,6 +158,31 @@ public class FraudCheckerController {
         return ResponseEntity.ok("valid");
     }
 
+    // NOTE:
+    // =====
+    // The verification runs on Spring MVC's async executor (see
+    // AsyncWebConfiguration), releasing the container thread while the
+    // issuing bank is being asked.  A check that takes longer than
+    // verification.check.timeout-millis gets a 503.  Its verification is
+    // then interrupted, which cancels whatever is still pending with the
+    // issuing bank, and that too is answered with a 503 (whichever of
+    // the two comes first is sent).
+    //
+    // Within the timeout, a check has a latency budget - the caller's
+    // X-Latency-Budget-Millis header, or else verification.check.budget-millis.
+    // Verifications still pending budget-headroom-millis before the
+    // budget runs out are cancelled, and the FraudStatus is decided on
+    // the ones that came back, listing the others as timedOut.
+    //
+    // A caller that decides on risk scores of its own sends them as the
+    // X-Risk-Score-Thresholds header, "suspiciousAt,failAt" out of 1000.
+    // Its FraudStatus then gives the riskScore of the check, and is
+    // decided overall on those thresholds rather than the default ones.
+    //
+    // A check can be made, and its FraudStatus asked for, in JSON (the
+    // default), CBOR, Smile or Protobuf (see WireFormat).  The FraudStatus
+    // is written as is from its pre-encoded body (see FraudStatusBodies),
+    // rather than run through an encoder.
     /**
      * https://reflectoring.io/bean-validation-with-spring-boot/
      * Bean Validation works by defining constraints to the fields
@@ -153,7 +194,7 @@ public class FraudCheckerController {
      * There are three things we can validate for any incoming HTTP request:
      * 1. the request body,
      *
-     * @see FraudCheckerController#checkFraud(FraudCheckPayload)
+     * @see FraudCheckerController#checkFraud(Long, String, String, FraudCheckPayload)
      * 2. variables within the path (e.g. id in /foos/{id})
      * @see FraudCheckerController#validatePathVariable(int)
      * 3. query parameters.
@@ -164,25 +205,65 @@ public class FraudCheckerController {
      * should be validated, this field, too, needs to be annotated with
      * Valid.
      */
-    @ApiOperation(value = "Check possibility of a fradulent transaction and return a status to the caller.", consumes = "application/json", produces = "application/json", response = FraudStatus.class)
+    @ApiOperation(value = "Check possibility of a fradulent transaction and return a status to the caller.", consumes = "application/json, application/cbor, application/x-jackson-smile, application/x-protobuf", produces = "application/json, application/cbor, application/x-jackson-smile, application/x-protobuf", response = FraudStatus.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Got Fraud Status for the check", response = FraudStatus.class),
-            @ApiResponse(code = 500, message = "Internal Server Error")
+            @ApiResponse(code = 400, message = "Invalid check or risk score thresholds"),
+            @ApiResponse(code = 500, message = "Internal Server Error"),
+            @ApiResponse(code = 503, message = "Unable to check in time or too many checks in flight, please retry")
     })
-    @PostMapping(value = "check", consumes = "application/json", produces = "application/json")
-    public ResponseEntity<FraudStatus> checkFraud(
+    @PostMapping(value = "check", consumes = {"application/json", "application/cbor", "application/x-jackson-smile", "application/x-protobuf"}, produces = {"application/json", "application/cbor", "application/x-jackson-smile", "application/x-protobuf"})
+    public WebAsyncTask<ResponseEntity<byte[]>> checkFraud(
+            @RequestHeader(value = LATENCY_BUDGET_HEADER, required = false)
+            @Min(value = 1, message = "A latency budget of at least 1 ms is required")
+            @ApiParam(name = LATENCY_BUDGET_HEADER, value = "milliseconds the caller can wait for the check")
+                    Long latencyBudgetMillis,
+            @RequestHeader(value = RISK_THRESHOLDS_HEADER, required = false)
+            @ApiParam(name = RISK_THRESHOLDS_HEADER, value = "risk scores (out of 1000) at which the check is suspicious and fails", example = "300,700")
+                    String riskThresholds,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) @ApiIgnore String accept,
             @RequestBody @Valid FraudCheckPayload payload) {
+        LOG.info(() -> String.format("{ 'checkFraud' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
+        final Duration budget = verificationBudget(latencyBudgetMillis);
+        final RiskThresholds thresholds = riskThresholds(riskThresholds);
+        final WireFormat format = WireFormat.accepted(accept);
+        final WebAsyncTask<ResponseEntity<byte[]>> check = new WebAsyncTask<>(checkTimeoutMillis, () -> verify(payload, budget, thresholds, format));
+        check.onTimeout(() -> {
+            LOG.warning(() -> String.format("{ 'checkFraud' : 'timed out after %d ms' }", checkTimeoutMillis));
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+        return check;
+    }
+
+    private Duration verificationBudget(Long latencyBudgetMillis) {
+        final long budgetMillis = latencyBudgetMillis == null ? checkBudgetMillis : Math.min(latencyBudgetMillis, checkTimeoutMillis);
+        return Duration.ofMillis(Math.max(0, budgetMillis - budgetHeadroomMillis));
+    }
+
+    private static RiskThresholds riskThresholds(String riskThresholds) {
+        if (riskThresholds == null)
+            return null;
         try {
-            LOG.info(() -> String.format("{ 'checkFraud' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
-            FraudStatus fraudStatus = verificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge);
-            LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus));
-            final var httpHeaders = new HttpHeaders() {{
-                setContentType(MediaType.APPLICATION_JSON);
-            }};
+            return RiskThresholds.parse(riskThresholds);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
-            return new ResponseEntity<>(fraudStatus, httpHeaders, HttpStatus.OK);
+    private ResponseEntity<byte[]> verify(FraudCheckPayload payload, Duration budget, RiskThresholds thresholds, WireFormat format) {
+        try {
+            // The payload was validated as it came in, so the service
+            // need not validate it again.
+            final FraudStatus verified = TrustedCaller.call(
+                    () -> verificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge, budget),
+                    payload.creditCard, payload.charge);
+            final FraudStatus fraudStatus = thresholds == null ? verified : verified.scoredFor(thresholds);
+            LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus));
+            return new ResponseEntity<>(FraudStatusBodies.of(fraudStatus, format), format.headers, HttpStatus.OK);
         } catch (InterruptedException e) {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            // Interrupted as the check timed out (or the service is
+            // shutting down), so the caller may retry.
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         }
     }
 }
@@ -0,0 +1,66 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.services.rules.FraudRules;
+import com.tsys.fraud_checker.services.rules.MeasuredRule;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * GET /actuator/fraudrules lists the fraud rules in the order they are
+ * evaluated in, and in the fixed order, with the measured latency and
+ * fail rate of each, and the expected saving of the one order over the
+ * other.
+ */
+@Component
+@Endpoint(id = "fraudrules")
+public class FraudRulesEndpoint {
+
+    private final FraudRules rules;
+
+    public FraudRulesEndpoint(FraudRules rules) {
+        this.rules = rules;
+    }
+
+    @ReadOperation
+    public RulesStatus rules() {
+        return new RulesStatus(rules);
+    }
+
+    public static class RulesStatus {
+        public final String ordering;
+        public final List<RuleStatus> order;
+        public final List<String> fixedOrder;
+        public final double expectedNanos;
+        public final double fixedOrderExpectedNanos;
+        public final double expectedSavingNanos;
+
+        private RulesStatus(FraudRules rules) {
+            this.ordering = rules.isAdaptive() ? FraudRules.ADAPTIVE : FraudRules.FIXED;
+            this.order = rules.order().stream().map(RuleStatus::new).collect(Collectors.toList());
+            this.fixedOrder = rules.fixedOrder().stream().map(MeasuredRule::name).collect(Collectors.toList());
+            this.expectedNanos = rules.expectedNanos();
+            this.fixedOrderExpectedNanos = rules.fixedOrderExpectedNanos();
+            this.expectedSavingNanos = fixedOrderExpectedNanos - expectedNanos;
+        }
+    }
+
+    public static class RuleStatus {
+        public final String name;
+        public final boolean canFail;
+        public final long declaredCostNanos;
+        public final double latencyNanos;
+        public final double failRate;
+
+        private RuleStatus(MeasuredRule rule) {
+            this.name = rule.name();
+            this.canFail = rule.canFail();
+            this.declaredCostNanos = rule.declaredCostNanos();
+            this.latencyNanos = rule.latencyNanos();
+            this.failRate = rule.failRate();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The body of each canonical {@link FraudStatus} in each
+ * {@link WireFormat}, encoded once when the class is loaded, so that
+ * answering a check with one of them is a lookup rather than a run
+ * through an encoder.
+ * <p>
+ * Any other status (one that failed without verification, or was scored
+ * for the caller's thresholds) is encoded as it comes.
+ */
+final class FraudStatusBodies {
+
+    private static final WireFormat[] FORMATS = WireFormat.values();
+    private static final Map<FraudStatus, byte[][]> BODIES = encodeCanonical();
+
+    private FraudStatusBodies() {
+    }
+
+    // The bodies are shared, so must not be written to.
+    static byte[] of(FraudStatus status, WireFormat format) {
+        final byte[][] bodies = BODIES.get(status);
+        return bodies == null ? format.encode(status) : bodies[format.ordinal()];
+    }
+
+    private static Map<FraudStatus, byte[][]> encodeCanonical() {
+        final Map<FraudStatus, byte[][]> bodies = new IdentityHashMap<>();
+        for (FraudStatus status : FraudStatus.canonical()) {
+            final byte[][] encoded = new byte[FORMATS.length][];
+            for (WireFormat format : FORMATS)
+                encoded[format.ordinal()] = format.encode(status);
+            bodies.put(status, encoded);
+        }
+        return bodies;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.services.ReactiveVerificationService;
+import com.tsys.fraud_checker.spring.validators.TrustedCaller;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.logging.Logger;
+
+// NOTE:
+// =====
+// We still run on Spring MVC (Tomcat), but a handler returning a Mono
+// is completed asynchronously: the container thread is handed back as
+// soon as the Mono is returned and the response is written when the
+// Mono emits.  Together with the timer-based ReactiveVerificationService
+// no thread is held for the duration of the check.
+//
+// The check is held to the fraud rules, but is otherwise a raw
+// verification: stolen-card screening, velocity checks and the decision
+// cache are only on /check.
+@Controller
+@RequestMapping("/reactive")
+public class ReactiveFraudCheckerController {
+
+    private static final Logger LOG = Logger.getLogger(ReactiveFraudCheckerController.class.getName());
+
+    private final ReactiveVerificationService reactiveVerificationService;
+
+    @Autowired
+    public ReactiveFraudCheckerController(ReactiveVerificationService reactiveVerificationService) {
+        this.reactiveVerificationService = reactiveVerificationService;
+    }
+
+    @ApiOperation(value = "Check possibility of a fradulent transaction without holding a thread while the check is in-flight.", consumes = "application/json", produces = "application/json", response = FraudStatus.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Got Fraud Status for the check", response = FraudStatus.class),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @PostMapping(value = "check", consumes = "application/json", produces = "application/json")
+    public Mono<ResponseEntity<FraudStatus>> checkFraud(
+            @RequestBody @Valid FraudCheckPayload payload) {
+        LOG.info(() -> String.format("{ 'reactive checkFraud' : ' for chargedAmount %s on %s'}", payload.charge, payload.creditCard));
+        return TrustedCaller.call(
+                () -> reactiveVerificationService.verifyTransactionAuthenticity(payload.creditCard, payload.charge),
+                payload.creditCard, payload.charge)
+                .doOnNext(fraudStatus -> LOG.info(() -> String.format("{ 'FraudStatus' : '%s'}", fraudStatus)))
+                .map(fraudStatus -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(fraudStatus));
+    }
+}
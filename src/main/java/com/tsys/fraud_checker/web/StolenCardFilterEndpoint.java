@@ -0,0 +1,43 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.services.screening.StolenCards;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/stolencardfilter reports the size, memory footprint and
+ * false positive rate of the stolen card filter.  Cards are added to it
+ * and removed from it through {@link StolenCardsEndpoint}.
+ */
+@Component
+@Endpoint(id = "stolencardfilter")
+public class StolenCardFilterEndpoint {
+
+    private final StolenCards stolenCards;
+
+    public StolenCardFilterEndpoint(StolenCards stolenCards) {
+        this.stolenCards = stolenCards;
+    }
+
+    @ReadOperation
+    public FilterStatus filter() {
+        return new FilterStatus(stolenCards);
+    }
+
+    public static class FilterStatus {
+        public final boolean enabled;
+        public final long size;
+        public final long capacity;
+        public final long memoryBytes;
+        public final double falsePositiveRate;
+
+        FilterStatus(StolenCards stolenCards) {
+            this.enabled = stolenCards.isEnabled();
+            this.size = stolenCards.size();
+            this.capacity = stolenCards.capacity();
+            this.memoryBytes = stolenCards.memoryBytes();
+            this.falsePositiveRate = stolenCards.falsePositiveRate();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.services.screening.StolenCards;
+import com.tsys.fraud_checker.web.StolenCardFilterEndpoint.FilterStatus;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * POST /actuator/stolencards/{panHash} adds a card to the stolen card
+ * filter and DELETE /actuator/stolencards/{panHash} removes one (404 if
+ * it was not there).  A PAN hash is the SHA-256, in hex, of the digits
+ * of the PAN.  Both answer with the filter's status, as
+ * {@link StolenCardFilterEndpoint} reports it.
+ * <p>
+ * Whoever can reach it can unblock a stolen card, or fill the filter, and
+ * actuator endpoints are not authenticated.  So it is off unless
+ * management.endpoint.stolencards.enabled=true, and then still has to be
+ * exposed, best on a management.server.port kept off the public network.
+ */
+@Component
+@ConditionalOnAvailableEndpoint(endpoint = StolenCardsEndpoint.class)
+@Endpoint(id = "stolencards", enableByDefault = false)
+public class StolenCardsEndpoint {
+
+    private final StolenCards stolenCards;
+
+    public StolenCardsEndpoint(StolenCards stolenCards) {
+        this.stolenCards = stolenCards;
+    }
+
+    @WriteOperation
+    public FilterStatus add(@Selector String panHash) {
+        if (!changed(() -> stolenCards.add(panHash)))
+            throw new InvalidEndpointRequestException("The stolen card filter is full", "Raise verification.stolen-cards.capacity");
+        return new FilterStatus(stolenCards);
+    }
+
+    @DeleteOperation
+    public FilterStatus remove(@Selector String panHash) {
+        return changed(() -> stolenCards.remove(panHash)) ? new FilterStatus(stolenCards) : null;
+    }
+
+    private static boolean changed(BooleanSupplier change) {
+        try {
+            return change.getAsBoolean();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.services.VerificationGuard;
+import com.tsys.fraud_checker.services.VerificationGuards;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/verifications lists the circuit breaker state, bulkhead
+ * occupancy and rejection counts of each check, and
+ * GET /actuator/verifications/{check} those of one check.
+ */
+@Component
+@Endpoint(id = "verifications")
+public class VerificationGuardsEndpoint {
+
+    private final VerificationGuards guards;
+
+    public VerificationGuardsEndpoint(VerificationGuards guards) {
+        this.guards = guards;
+    }
+
+    @ReadOperation
+    public Map<String, GuardStatus> verifications() {
+        final Map<String, GuardStatus> statuses = new LinkedHashMap<>();
+        guards.all().forEach(guard -> statuses.put(guard.check(), new GuardStatus(guard)));
+        return statuses;
+    }
+
+    @ReadOperation
+    public GuardStatus verification(@Selector String check) {
+        return guards.all().stream()
+                .filter(guard -> guard.check().equals(check))
+                .findFirst()
+                .map(GuardStatus::new)
+                .orElse(null);
+    }
+
+    public static class GuardStatus {
+        public final String breakerState;
+        public final double failureRate;
+        public final double slowCallRate;
+        public final int inFlight;
+        public final int maxConcurrent;
+        public final long rejectedAsBreakerOpen;
+        public final long rejectedAsBulkheadFull;
+
+        private GuardStatus(VerificationGuard guard) {
+            this.breakerState = guard.state();
+            this.failureRate = guard.failureRate();
+            this.slowCallRate = guard.slowCallRate();
+            this.inFlight = guard.inFlight();
+            this.maxConcurrent = guard.maxConcurrent();
+            this.rejectedAsBreakerOpen = guard.rejectedAsOpen();
+            this.rejectedAsBulkheadFull = guard.rejectedAsFull();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobuf;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The encodings a check can be made in, JSON being the default.  A
+ * caller picks one for the check with its Content-Type, and for the
+ * FraudStatus with its Accept header.
+ */
+enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, new ObjectMapper()::writeValueAsBytes),
+    CBOR(MediaType.APPLICATION_CBOR, new CBORMapper()::writeValueAsBytes),
+    SMILE(new MediaType("application", "x-jackson-smile"), new SmileMapper()::writeValueAsBytes),
+    PROTOBUF(FraudCheckProtobuf.MEDIA_TYPE, FraudCheckProtobuf::encode);
+
+    interface Encoder {
+        byte[] encode(FraudStatus status) throws IOException;
+    }
+
+    final MediaType mediaType;
+    // Shared by every response, so must not be written to.
+    final HttpHeaders headers;
+    private final Encoder encoder;
+
+    WireFormat(MediaType mediaType, Encoder encoder) {
+        this.mediaType = mediaType;
+        this.encoder = encoder;
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    byte[] encode(FraudStatus status) {
+        try {
+            return encoder.encode(status);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Could not encode %s as %s", status, mediaType), e);
+        }
+    }
+
+    /**
+     * The format most preferred by the Accept header, or JSON when it
+     * accepts any or none of them.
+     */
+    static WireFormat accepted(String accept) {
+        if (accept == null || accept.isBlank())
+            return JSON;
+        final List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable)
+            for (WireFormat format : values())
+                if (mediaType.getQualityValue() > 0 && mediaType.isCompatibleWith(format.mediaType))
+                    return format;
+        return JSON;
+    }
+}
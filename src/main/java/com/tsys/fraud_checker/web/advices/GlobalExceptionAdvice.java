@@ -1,5 +1,6 @@
 package com.tsys.fraud_checker.web.advices;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -73,4 +74,14 @@ public class GlobalExceptionAdvice {
                 .forEach(validationError -> errors.add(validationError));
         return errors;
     }
-}
\ No newline at end of file
+
+    /**
+     * A check is refused when all threads of the executor it runs on
+     * are busy and its queue is full.  That is a transient condition,
+     * and the caller may retry, so answer with a 503 rather than a 500.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void onTaskRejectedException(TaskRejectedException e) {
+    }
+}
@@ -0,0 +1,337 @@
+package com.tsys.fraud_checker.web.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.web.BatchCheckResult;
+import com.tsys.fraud_checker.web.CorrelatedFraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.advices.ValidationError;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads and writes the messages of src/main/proto/fraud_checker.proto
+ * straight from and to the domain objects, field by field, so there are
+ * no generated message classes to copy them through.
+ * <p>
+ * Fields of a message are written in the order of their numbers and
+ * only when they are set, as protoc's own code writes them.  Fields read
+ * that are not in the schema are skipped.
+ */
+public final class FraudCheckProtobuf {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-protobuf");
+
+    // Wire types, which a tag carries below the field number.
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private FraudCheckProtobuf() {
+    }
+
+    public static FraudCheckPayload readFraudCheck(CodedInputStream in, boolean correlated) throws IOException {
+        String correlationId = null;
+        CreditCard creditCard = null;
+        Money charge = null;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case 1 << 3 | LENGTH_DELIMITED:
+                    final int cardLimit = in.pushLimit(in.readRawVarint32());
+                    creditCard = readCreditCard(in);
+                    in.popLimit(cardLimit);
+                    break;
+                case 2 << 3 | LENGTH_DELIMITED:
+                    final int chargeLimit = in.pushLimit(in.readRawVarint32());
+                    charge = readMoney(in);
+                    in.popLimit(chargeLimit);
+                    break;
+                case 3 << 3 | LENGTH_DELIMITED:
+                    correlationId = in.readStringRequireUtf8();
+                    break;
+                default:
+                    in.skipField(tag);
+            }
+        }
+        return correlated
+                ? new CorrelatedFraudCheckPayload(correlationId, creditCard, charge)
+                : new FraudCheckPayload(creditCard, charge);
+    }
+
+    public static List<FraudCheckPayload> readFraudCheckBatch(CodedInputStream in) throws IOException {
+        final List<FraudCheckPayload> checks = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == (1 << 3 | LENGTH_DELIMITED)) {
+                final int limit = in.pushLimit(in.readRawVarint32());
+                checks.add(readFraudCheck(in, false));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return checks;
+    }
+
+    private static CreditCard readCreditCard(CodedInputStream in) throws IOException {
+        String number = null;
+        String holderName = null;
+        String issuingBank = null;
+        Date validUntil = null;
+        Integer cvv = null;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case 1 << 3 | LENGTH_DELIMITED:
+                    number = in.readStringRequireUtf8();
+                    break;
+                case 2 << 3 | LENGTH_DELIMITED:
+                    holderName = in.readStringRequireUtf8();
+                    break;
+                case 3 << 3 | LENGTH_DELIMITED:
+                    issuingBank = in.readStringRequireUtf8();
+                    break;
+                case 4 << 3 | VARINT:
+                    validUntil = new Date(in.readInt64());
+                    break;
+                case 5 << 3 | VARINT:
+                    cvv = in.readInt32();
+                    break;
+                default:
+                    in.skipField(tag);
+            }
+        }
+        return new CreditCard(number, holderName, issuingBank, validUntil, cvv);
+    }
+
+    private static Money readMoney(CodedInputStream in) throws IOException {
+        Currency currency = null;
+        Double amount = null;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case 1 << 3 | LENGTH_DELIMITED:
+                    final String code = in.readStringRequireUtf8();
+                    try {
+                        currency = Currency.getInstance(code);
+                    } catch (IllegalArgumentException e) {
+                        throw new InvalidProtocolBufferException(String.format("%s is not an ISO 4217 currency code", code));
+                    }
+                    break;
+                case 2 << 3 | FIXED64:
+                    amount = in.readDouble();
+                    break;
+                default:
+                    in.skipField(tag);
+            }
+        }
+        return new Money(currency, amount);
+    }
+
+    public static byte[] encode(FraudCheckPayload payload) {
+        final byte[] bytes = new byte[sizeOf(payload)];
+        final CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            write(payload, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to an array sized for the message", e);
+        }
+        return bytes;
+    }
+
+    public static byte[] encode(FraudStatus status) {
+        final byte[] bytes = new byte[sizeOf(status)];
+        final CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            write(status, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to an array sized for the message", e);
+        }
+        return bytes;
+    }
+
+    public static byte[] encode(BatchCheckResult result) {
+        final byte[] bytes = new byte[sizeOf(result)];
+        final CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            write(result, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to an array sized for the message", e);
+        }
+        return bytes;
+    }
+
+    public static void write(List<BatchCheckResult> results, OutputStream body) throws IOException {
+        final CodedOutputStream out = CodedOutputStream.newInstance(body);
+        for (BatchCheckResult result : results) {
+            out.writeTag(1, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(sizeOf(result));
+            write(result, out);
+        }
+        out.flush();
+    }
+
+    private static void write(FraudCheckPayload payload, CodedOutputStream out) throws IOException {
+        if (payload.creditCard != null) {
+            out.writeTag(1, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(sizeOf(payload.creditCard));
+            write(payload.creditCard, out);
+        }
+        if (payload.charge != null) {
+            out.writeTag(2, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(sizeOf(payload.charge));
+            write(payload.charge, out);
+        }
+        if (payload instanceof CorrelatedFraudCheckPayload && ((CorrelatedFraudCheckPayload) payload).correlationId != null)
+            out.writeString(3, ((CorrelatedFraudCheckPayload) payload).correlationId);
+    }
+
+    private static int sizeOf(FraudCheckPayload payload) {
+        int size = 0;
+        if (payload.creditCard != null)
+            size += nestedSize(1, sizeOf(payload.creditCard));
+        if (payload.charge != null)
+            size += nestedSize(2, sizeOf(payload.charge));
+        if (payload instanceof CorrelatedFraudCheckPayload && ((CorrelatedFraudCheckPayload) payload).correlationId != null)
+            size += CodedOutputStream.computeStringSize(3, ((CorrelatedFraudCheckPayload) payload).correlationId);
+        return size;
+    }
+
+    private static void write(CreditCard card, CodedOutputStream out) throws IOException {
+        if (card.number != null)
+            out.writeString(1, card.number);
+        if (card.holderName != null)
+            out.writeString(2, card.holderName);
+        if (card.issuingBank != null)
+            out.writeString(3, card.issuingBank);
+        if (card.validUntil != null)
+            out.writeInt64(4, card.validUntil.getTime());
+        if (card.cvv != null)
+            out.writeInt32(5, card.cvv);
+    }
+
+    private static int sizeOf(CreditCard card) {
+        int size = 0;
+        if (card.number != null)
+            size += CodedOutputStream.computeStringSize(1, card.number);
+        if (card.holderName != null)
+            size += CodedOutputStream.computeStringSize(2, card.holderName);
+        if (card.issuingBank != null)
+            size += CodedOutputStream.computeStringSize(3, card.issuingBank);
+        if (card.validUntil != null)
+            size += CodedOutputStream.computeInt64Size(4, card.validUntil.getTime());
+        if (card.cvv != null)
+            size += CodedOutputStream.computeInt32Size(5, card.cvv);
+        return size;
+    }
+
+    private static void write(Money money, CodedOutputStream out) throws IOException {
+        if (money.currency != null)
+            out.writeString(1, money.currency.getCurrencyCode());
+        if (money.amount != null)
+            out.writeDouble(2, money.amount);
+    }
+
+    private static int sizeOf(Money money) {
+        int size = 0;
+        if (money.currency != null)
+            size += CodedOutputStream.computeStringSize(1, money.currency.getCurrencyCode());
+        if (money.amount != null)
+            size += CodedOutputStream.computeDoubleSize(2, money.amount);
+        return size;
+    }
+
+    private static void write(FraudStatus status, CodedOutputStream out) throws IOException {
+        writeString(out, 1, status.cvvStatus);
+        writeString(out, 2, status.avStatus);
+        writeString(out, 3, status.overall);
+        writeStrings(out, 4, status.timedOut);
+        writeStrings(out, 5, status.unavailable);
+        writeString(out, 6, status.reason);
+        writeStrings(out, 7, status.velocityExceeded);
+        if (status.riskScore != null)
+            out.writeInt32(8, status.riskScore);
+    }
+
+    private static int sizeOf(FraudStatus status) {
+        int size = stringSize(1, status.cvvStatus)
+                + stringSize(2, status.avStatus)
+                + stringSize(3, status.overall)
+                + stringsSize(4, status.timedOut)
+                + stringsSize(5, status.unavailable)
+                + stringSize(6, status.reason)
+                + stringsSize(7, status.velocityExceeded);
+        if (status.riskScore != null)
+            size += CodedOutputStream.computeInt32Size(8, status.riskScore);
+        return size;
+    }
+
+    private static void write(BatchCheckResult result, CodedOutputStream out) throws IOException {
+        if (result.index != 0)
+            out.writeInt32(1, result.index);
+        writeString(out, 2, result.correlationId);
+        if (result.fraudStatus != null) {
+            out.writeTag(3, LENGTH_DELIMITED);
+            out.writeUInt32NoTag(sizeOf(result.fraudStatus));
+            write(result.fraudStatus, out);
+        }
+        if (result.validationErrors != null) {
+            for (ValidationError error : result.validationErrors) {
+                out.writeTag(4, LENGTH_DELIMITED);
+                out.writeUInt32NoTag(sizeOf(error));
+                writeString(out, 1, error.fieldName);
+                writeString(out, 2, error.message);
+            }
+        }
+        writeString(out, 5, result.error);
+    }
+
+    private static int sizeOf(BatchCheckResult result) {
+        int size = result.index == 0 ? 0 : CodedOutputStream.computeInt32Size(1, result.index);
+        size += stringSize(2, result.correlationId);
+        if (result.fraudStatus != null)
+            size += nestedSize(3, sizeOf(result.fraudStatus));
+        if (result.validationErrors != null)
+            for (ValidationError error : result.validationErrors)
+                size += nestedSize(4, sizeOf(error));
+        return size + stringSize(5, result.error);
+    }
+
+    private static int sizeOf(ValidationError error) {
+        return stringSize(1, error.fieldName) + stringSize(2, error.message);
+    }
+
+    private static int nestedSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null)
+            out.writeString(field, value);
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static void writeStrings(CodedOutputStream out, int field, List<String> values) throws IOException {
+        if (values != null)
+            for (String value : values)
+                out.writeString(field, value);
+    }
+
+    private static int stringsSize(int field, List<String> values) {
+        int size = 0;
+        if (values != null)
+            for (String value : values)
+                size += CodedOutputStream.computeStringSize(field, value);
+        return size;
+    }
+}
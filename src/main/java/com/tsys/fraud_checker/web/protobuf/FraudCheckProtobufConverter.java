@@ -0,0 +1,86 @@
+package com.tsys.fraud_checker.web.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.web.BatchCheckResult;
+import com.tsys.fraud_checker.web.CorrelatedFraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads checks, and writes their results, as application/x-protobuf (see
+ * {@link FraudCheckProtobuf}): a FraudCheck or a FraudCheckBatch in, a
+ * FraudStatus or BatchCheckResults out.
+ */
+public class FraudCheckProtobufConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public FraudCheckProtobufConverter() {
+        super(FraudCheckProtobuf.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FraudCheckPayload.class.isAssignableFrom(clazz)
+                || FraudStatus.class == clazz
+                || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == FraudCheckPayload.class || type == CorrelatedFraudCheckPayload.class || isBatch(type))
+                && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (FraudStatus.class == clazz || List.class.isAssignableFrom(clazz)) && canWrite(mediaType);
+    }
+
+    private static boolean isBatch(Type type) {
+        if (!(type instanceof ParameterizedType))
+            return false;
+        final ParameterizedType parameterized = (ParameterizedType) type;
+        return parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] == FraudCheckPayload.class;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        final CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+        try {
+            if (isBatch(type))
+                return FraudCheckProtobuf.readFraudCheckBatch(in);
+            return FraudCheckProtobuf.readFraudCheck(in, type == CorrelatedFraudCheckPayload.class);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException(String.format("Malformed %s: %s", FraudCheckProtobuf.MEDIA_TYPE, e.getMessage()), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof FraudStatus) {
+            outputMessage.getBody().write(FraudCheckProtobuf.encode((FraudStatus) value));
+            return;
+        }
+        for (Object result : (List<?>) value)
+            if (!(result instanceof BatchCheckResult))
+                throw new HttpMessageNotWritableException(String.format("Can only write BatchCheckResults as %s, not %s", FraudCheckProtobuf.MEDIA_TYPE, result));
+        FraudCheckProtobuf.write((List<BatchCheckResult>) value, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,155 @@
+package com.tsys.fraud_checker;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.grpc.FraudCheckerGrpc;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fires N concurrent fraud checks at a running instance and reports
+ * throughput and latency percentiles.  Used to compare the platform and
+ * virtual-threads execution modes:
+ * <pre>
+ * $ java -jar fraud_checker-1.0.0.jar --verification.execution-mode=platform
+ * $ java -jar fraud_checker-1.0.0.jar --verification.execution-mode=virtual-threads
+ * </pre>
+ * and then in each case:
+ * <pre>
+ * FraudCheckLoadSpike [baseUrl] [concurrentChecks] [path]
+ * FraudCheckLoadSpike http://localhost:9001/fraud-checker 5000 /check
+ * </pre>
+ * The same checks can be made as gRPC Check calls instead, all over one
+ * connection, to compare with the REST path:
+ * <pre>
+ * FraudCheckLoadSpike grpc://localhost:9002 5000
+ * </pre>
+ */
+public class FraudCheckLoadSpike {
+
+    private static final String GRPC = "grpc://";
+
+    private static final String PAYLOAD = "{\n" +
+            "    \"creditCard\" : {\n" +
+            "        \"number\": \"4485-2847-2013-4093\",\n" +
+            "        \"holderName\" : \"Jumping Jack\",\n" +
+            "        \"issuingBank\" : \"Bank of America\",\n" +
+            "        \"validUntil\" : \"4000-10-04T01:00:26.874+00:00\",\n" +
+            "        \"cvv\" : 123\n" +
+            "    },\n" +
+            "    \"charge\" : {\n" +
+            "        \"currency\" : \"INR\",\n" +
+            "        \"amount\" : 1235.45\n" +
+            "    }\n" +
+            "}";
+
+    public static void main(String[] args) {
+        final String baseUrl = args.length > 0 ? args[0] : "http://localhost:9001/fraud-checker";
+        final int concurrentChecks = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        final String path = args.length > 2 ? args[2] : "/check";
+
+        final boolean grpc = baseUrl.startsWith(GRPC);
+        final String target = grpc ? baseUrl : baseUrl + path;
+        final Supplier<CompletableFuture<String>> check = grpc
+                ? grpcCheck(baseUrl.substring(GRPC.length()))
+                : httpCheck(target);
+
+        final long[] latencies = new long[concurrentChecks];
+        final ConcurrentHashMap<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        final long start = System.nanoTime();
+        final List<CompletableFuture<Void>> checks = IntStream.range(0, concurrentChecks)
+                .mapToObj(i -> {
+                    final long sent = System.nanoTime();
+                    return check.get()
+                            .<Void>handle((response, failure) -> {
+                                latencies[i] = System.nanoTime() - sent;
+                                final String outcome = failure == null
+                                        ? response
+                                        : failure.getClass().getSimpleName();
+                                outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                                return null;
+                            });
+                })
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0])).join();
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Arrays.sort(latencies);
+        System.out.println(String.format("Checks      : %d concurrent on %s", concurrentChecks, target));
+        System.out.println(String.format("Outcomes    : %s", outcomes));
+        System.out.println(String.format("Wall time   : %d ms", elapsedMillis));
+        System.out.println(String.format("Throughput  : %.1f checks/s", concurrentChecks * 1000.0 / elapsedMillis));
+        System.out.println(String.format("Latency p50 : %d ms", percentile(latencies, 50)));
+        System.out.println(String.format("Latency p99 : %d ms", percentile(latencies, 99)));
+        System.out.println(String.format("Latency max : %d ms", latencies[latencies.length - 1] / 1_000_000));
+    }
+
+    private static Supplier<CompletableFuture<String>> httpCheck(String url) {
+        final HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(PAYLOAD))
+                .build();
+        return () -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> String.valueOf(response.statusCode()));
+    }
+
+    // Answers with the status code of each call, OK or otherwise.
+    private static Supplier<CompletableFuture<String>> grpcCheck(String target) {
+        final ManagedChannel channel = ManagedChannelBuilder.forTarget(target).usePlaintext().build();
+        final FraudCheckPayload payload;
+        try {
+            payload = new ObjectMapper().readValue(PAYLOAD, FraudCheckPayload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return () -> {
+            final CompletableFuture<String> outcome = new CompletableFuture<>();
+            ClientCalls.asyncUnaryCall(channel.newCall(FraudCheckerGrpc.CHECK, CallOptions.DEFAULT.withDeadlineAfter(5, TimeUnit.MINUTES)), payload,
+                    new StreamObserver<>() {
+                        @Override
+                        public void onNext(byte[] status) {
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            outcome.complete(Status.fromThrowable(t).getCode().name());
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            outcome.complete(Status.Code.OK.name());
+                        }
+                    });
+            return outcome;
+        };
+    }
+
+    private static long percentile(long[] sortedLatencies, int percentile) {
+        final int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000;
+    }
+}
@@ -162,4 +162,21 @@ public class FraudCheckerTest {
         final FraudStatus fraudStatus = response.getBody();
         assertThat(fraudStatus.overall, is(FraudStatus.SUSPICIOUS));
     }
+
+    @Test
+    public void reactiveFraudCheckIsSuspicious() {
+        // Given
+        given(random.nextInt(anyInt()))
+                .willReturn(-2000) // for sleepMillis
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_FAIL);
+
+        // When
+        final ResponseEntity<FraudStatus> response = client.postForEntity("/reactive/check", new FraudCheckPayload(validCard, chargedAmount), FraudStatus.class);
+
+        // Then
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        final FraudStatus fraudStatus = response.getBody();
+        assertThat(fraudStatus.overall, is(FraudStatus.SUSPICIOUS));
+    }
 }
@@ -0,0 +1,72 @@
+package com.tsys.fraud_checker;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Currency;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "verification.check.timeout-millis=1000",
+                "verification.check.budget-millis=5000"
+        })
+@Tags({
+        @Tag("In-Process"),
+        @Tag("ComponentTest")
+})
+public class FraudCheckerTimeoutTest {
+
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @MockBean
+    private Random random;
+
+    @Autowired
+    private TestRestTemplate client;
+
+    @Test
+    public void fraudCheckTakingLongerThanTimeoutIsUnavailable() {
+        // Given
+        given(random.nextInt(anyInt()))
+                .willReturn(1000) // for sleepMillis, CVV verification takes 3 seconds
+                .willReturn(0);
+
+        // When
+        final long start = System.nanoTime();
+        final ResponseEntity<FraudStatus> response = client.postForEntity("/check", new FraudCheckPayload(validCard, chargedAmount), FraudStatus.class);
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(response.getStatusCode(), is(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(elapsedMillis, lessThan(3000L));
+    }
+}
@@ -29,4 +29,40 @@ public class CreditCardTest {
 
         assertThat(creditCard.hasExpired()).isTrue();
     }
+
+    @Test
+    public void isTheSameCardWhateverItsNumberIsWrittenWith() {
+        final var dashed = card("4485-2847-2013-4093");
+        final var spaced = card("4485 2847 2013 4093");
+
+        assertThat(dashed).isEqualTo(spaced);
+        assertThat(dashed.hashCode()).isEqualTo(spaced.hashCode());
+        assertThat(dashed).isNotEqualTo(card("4485-2847-2013-4094"));
+    }
+
+    @Test
+    public void rendersItsNumberMasked() {
+        final var creditCard = card("4485-2847-2013-4093");
+
+        assertThat(creditCard.toString())
+                .contains("448528******4093")
+                .doesNotContain("4485-2847-2013-4093", "4485284720134093");
+    }
+
+    @Test
+    public void rendersNoCvv() {
+        assertThat(card("4485-2847-2013-4093").toString())
+                .contains("cvv=***")
+                .doesNotContain("123");
+    }
+
+    private static CreditCard card(String number) {
+        return CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withNumber(number)
+                .withCVV(123)
+                .withFutureExpiryDate()
+                .build();
+    }
 }
@@ -5,7 +5,12 @@ import org.junit.jupiter.api.Tags;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Tags({
         @Tag("StandAlone"),
@@ -60,4 +65,109 @@ public class FraudStatusTest {
         // When-Then
         assertThat(suspicious.overall, is(FraudStatus.SUSPICIOUS));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void overallStatusIsSuspiciousWhenCvvVerificationTimedOut() {
+        // Given
+        final int validAddress = 0;
+        final boolean cardExpired = false;
+        final FraudStatus suspicious = new FraudStatus(FraudStatus.TIMED_OUT, validAddress, cardExpired);
+
+        // When-Then
+        assertThat(suspicious.cvvStatus, is(FraudStatus.UNKNOWN));
+        assertThat(suspicious.overall, is(FraudStatus.SUSPICIOUS));
+        assertThat(suspicious.timedOut, contains(FraudStatus.CVV_CHECK));
+    }
+
+    @Test
+    public void overallStatusIsFailWhenCvvIsIncorrectEvenIfAddressVerificationTimedOut() {
+        // Given
+        final int invalidCvv = 1;
+        final boolean cardExpired = false;
+        final FraudStatus fail = new FraudStatus(invalidCvv, FraudStatus.TIMED_OUT, cardExpired);
+
+        // When-Then
+        assertThat(fail.avStatus, is(FraudStatus.UNKNOWN));
+        assertThat(fail.overall, is(FraudStatus.FAIL));
+        assertThat(fail.timedOut, contains(FraudStatus.ADDRESS_CHECK));
+    }
+
+    @Test
+    public void noVerificationTimedOutWhenAllCompleted() {
+        // Given
+        final FraudStatus pass = new FraudStatus(0, 0, false);
+
+        // When-Then
+        assertThat(pass.timedOut, is(empty()));
+    }
+
+    @Test
+    public void overallStatusIsSuspiciousWhenAddressVerificationWasUnavailable() {
+        // Given
+        final int validCvv = 0;
+        final boolean cardExpired = false;
+        final FraudStatus suspicious = new FraudStatus(validCvv, FraudStatus.UNAVAILABLE, cardExpired);
+
+        // When-Then
+        assertThat(suspicious.avStatus, is(FraudStatus.UNKNOWN));
+        assertThat(suspicious.overall, is(FraudStatus.SUSPICIOUS));
+        assertThat(suspicious.unavailable, contains(FraudStatus.ADDRESS_CHECK));
+        assertThat(suspicious.timedOut, is(empty()));
+    }
+
+    @Test
+    public void riskScoreIsGivenOnlyWhenScoredForCallersThresholds() {
+        // Given
+        final int validCvv = 0;
+        final int incorrectAddress = 1;
+        final FraudStatus suspicious = new FraudStatus(validCvv, incorrectAddress, false);
+
+        // When
+        final FraudStatus scored = suspicious.scoredFor(new RiskThresholds(100, 300));
+
+        // Then
+        assertThat(suspicious.riskScore, is(nullValue()));
+        assertThat(scored.riskScore, is(300));
+        assertThat(scored.overall, is(FraudStatus.FAIL));
+        assertThat(scored.avStatus, is(FraudStatus.ADDRESS_VERIFICATION_IA));
+    }
+
+    @Test
+    public void defaultThresholdsDecideAsStatusesAlwaysHave() {
+        // Given
+        final int incorrectAddress = 1;
+        final FraudStatus allButFailing = new FraudStatus(FraudStatus.TIMED_OUT, incorrectAddress, Outcome.SUSPICIOUS);
+
+        // When-Then
+        assertThat(allButFailing.has(Signal.CVV_UNVERIFIED), is(true));
+        assertThat(allButFailing.has(Signal.ADDRESS_INCORRECT), is(true));
+        assertThat(allButFailing.scoredFor(RiskThresholds.DEFAULT).riskScore, is(900));
+        assertThat(allButFailing.overall, is(FraudStatus.SUSPICIOUS));
+        assertThat(FraudStatus.failedWithoutVerification(FraudStatus.STOLEN_CARD).scoredFor(RiskThresholds.DEFAULT).riskScore, is(Signal.MAX_SCORE));
+    }
+
+    @Test
+    public void readsCallersThresholds() {
+        // When
+        final RiskThresholds thresholds = RiskThresholds.parse("200, 700");
+
+        // Then
+        assertThat(thresholds.suspiciousAt, is(200));
+        assertThat(thresholds.failAt, is(700));
+        assertThrows(IllegalArgumentException.class, () -> RiskThresholds.parse("700,200"));
+        assertThrows(IllegalArgumentException.class, () -> RiskThresholds.parse("200,1001"));
+        assertThrows(IllegalArgumentException.class, () -> RiskThresholds.parse("200"));
+        assertThrows(IllegalArgumentException.class, () -> RiskThresholds.parse("low,high"));
+    }
+
+    @Test
+    public void sharesOneInstanceOfEachStatusAVerificationComesTo() {
+        // When
+        final FraudStatus suspicious = FraudStatus.of(FraudStatus.TIMED_OUT, 1, Outcome.PASS);
+
+        // Then
+        assertThat(FraudStatus.of(FraudStatus.TIMED_OUT, 1, false), is(sameInstance(suspicious)));
+        assertThat(suspicious.toString(), is(new FraudStatus(FraudStatus.TIMED_OUT, 1, false).toString()));
+        assertThrows(IllegalArgumentException.class, () -> FraudStatus.of(2, 0, false));
+    }
+}
@@ -0,0 +1,90 @@
+package com.tsys.fraud_checker.domain;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class PanTest {
+
+    @Test
+    public void leavesSeparatorsOut() {
+        // Given
+        final Pan pan = Pan.of("4485-2847 2013-4093");
+
+        // When-Then
+        assertThat(pan.length()).isEqualTo(16);
+        assertThat(pan.digits()).isEqualTo("4485284720134093");
+        assertThat(pan.digitAt(0)).isEqualTo(4);
+        assertThat(pan.digitAt(15)).isEqualTo(3);
+        assertThat(pan.firstDigits(6)).isEqualTo("448528");
+    }
+
+    @Test
+    public void sameDigitsWrittenDifferentlyMakeTheSamePan() {
+        // Given
+        final Pan dashed = Pan.of("4485-2847-2013-4093");
+        final Pan spaced = Pan.of("4485 2847 2013 4093");
+
+        // When-Then
+        assertThat(dashed).isEqualTo(spaced);
+        assertThat(dashed.hashCode()).isEqualTo(spaced.hashCode());
+        assertThat(dashed.fingerprint()).isEqualTo(spaced.fingerprint());
+    }
+
+    @Test
+    public void differentDigitsMakeDifferentPans() {
+        // Given
+        final Pan pan = Pan.of("4485-2847-2013-4093");
+
+        // When-Then
+        assertThat(pan).isNotEqualTo(Pan.of("4485-2847-2013-4094"));
+        assertThat(pan).isNotEqualTo(Pan.of("04485-2847-2013-4093"));
+        assertThat(pan.fingerprint()).isNotEqualTo(Pan.of("4485-2847-2013-4094").fingerprint());
+    }
+
+    @Test
+    public void holdsUpToMaxDigits() {
+        // Given
+        final String digits = "12345678901234567890123456789012";
+
+        // When-Then
+        assertThat(Pan.of(digits).digits()).isEqualTo(digits);
+        assertThat(Pan.of(digits + "3")).isNull();
+        assertThat(Pan.of("").length()).isZero();
+        assertThrows(IndexOutOfBoundsException.class, () -> Pan.of(digits).digitAt(32));
+    }
+
+    @Test
+    public void takesOnlyAsciiDigitsForDigits() {
+        // Given
+        final Pan pan = Pan.of("4485-2847-2013-409\u0664");
+
+        // When-Then
+        assertThat(pan.length()).isEqualTo(15);
+        assertThat(pan).isEqualTo(Pan.of("448528472013409"));
+        assertThat(pan.fingerprint()).isEqualTo(Pan.of("448528472013409").fingerprint());
+    }
+
+    @Test
+    public void fingerprintIsSipHash24OfThePackedDigits() {
+        // The SipHash-2-4 reference vector for the 24 bytes 00 to 17
+        // under the key 00 to 0f.
+        assertThat(Fingerprint.sipHash(0x0706050403020100L, 0x0f0e0d0c0b0a0908L,
+                0x0706050403020100L, 0x0f0e0d0c0b0a0908L, 0x1716151413121110L)).isEqualTo(0xb8ad50c6f649af94L);
+    }
+
+    @Test
+    public void isRenderedMasked() {
+        assertThat(Pan.of("4485-2847-2013-4093").masked()).isEqualTo("448528******4093");
+        assertThat(Pan.of("4485-2847-2013-4093").toString()).isEqualTo("448528******4093");
+        assertThat(Pan.of("4485-2847-2013").masked()).isEqualTo("********2013");
+        assertThat(Pan.of("4485").masked()).isEqualTo("****");
+    }
+}
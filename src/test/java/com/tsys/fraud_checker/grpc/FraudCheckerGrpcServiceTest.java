@@ -0,0 +1,373 @@
+package com.tsys.fraud_checker.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.CorrelatedFraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobuf;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+// The service is served in-process, so no port is opened.
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudCheckerGrpcServiceTest {
+
+    private static final long CHECK_TIMEOUT_MILLIS = 1000;
+    private static final long CHECK_BUDGET_MILLIS = 800;
+    private static final long BUDGET_HEADROOM_MILLIS = 50;
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private VerificationService verificationService;
+
+    private final ExecutorService checkExecutor = Executors.newCachedThreadPool();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        startServer(new TaskExecutorAdapter(checkExecutor));
+    }
+
+    private void startServer(TaskExecutorAdapter executor) throws IOException {
+        final String name = InProcessServerBuilder.generateName();
+        final var service = new FraudCheckerGrpcService(verificationService, Validation.buildDefaultValidatorFactory().getValidator(),
+                executor, CHECK_TIMEOUT_MILLIS, CHECK_BUDGET_MILLIS, BUDGET_HEADROOM_MILLIS, MAX_IN_FLIGHT);
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        checkExecutor.shutdownNow();
+    }
+
+    @Test
+    public void checksWithinConfiguredBudgetWhenCallerSetsNoDeadline() throws Exception {
+        // Given
+        final FraudStatus pass = new FraudStatus(0, 0, false);
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), eq(Duration.ofMillis(CHECK_BUDGET_MILLIS - BUDGET_HEADROOM_MILLIS))))
+                .willReturn(pass);
+
+        // When
+        final byte[] status = ClientCalls.blockingUnaryCall(channel, FraudCheckerGrpc.CHECK, CallOptions.DEFAULT, new FraudCheckPayload(validCard, charge));
+
+        // Then
+        assertThat(status).isEqualTo(FraudCheckProtobuf.encode(pass));
+    }
+
+    @Test
+    public void checksWithinCallersDeadlineLessHeadroom() throws Exception {
+        // Given
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willReturn(new FraudStatus(0, 0, false));
+
+        // When
+        ClientCalls.blockingUnaryCall(channel, FraudCheckerGrpc.CHECK, CallOptions.DEFAULT.withDeadlineAfter(300, TimeUnit.MILLISECONDS), new FraudCheckPayload(validCard, charge));
+
+        // Then
+        final ArgumentCaptor<Duration> budget = ArgumentCaptor.forClass(Duration.class);
+        verify(verificationService).verifyTransactionAuthenticity(eq(validCard), eq(charge), budget.capture());
+        assertThat(budget.getValue()).isBetween(Duration.ofMillis(150), Duration.ofMillis(300 - BUDGET_HEADROOM_MILLIS));
+    }
+
+    @Test
+    public void callersDeadlineIsCappedAtCheckTimeout() throws Exception {
+        // Given
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willReturn(new FraudStatus(0, 0, false));
+
+        // When
+        ClientCalls.blockingUnaryCall(channel, FraudCheckerGrpc.CHECK, CallOptions.DEFAULT.withDeadlineAfter(1, TimeUnit.MINUTES), new FraudCheckPayload(validCard, charge));
+
+        // Then
+        verify(verificationService).verifyTransactionAuthenticity(validCard, charge, Duration.ofMillis(CHECK_TIMEOUT_MILLIS - BUDGET_HEADROOM_MILLIS));
+    }
+
+    @Test
+    public void invalidCheckIsAnInvalidArgument() {
+        // Given
+        final var cardWithoutHolder = CreditCardBuilder.make()
+                .withValidNumber()
+                .withIssuingBank("Bank")
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+
+        // When-Then
+        assertThatThrownBy(() -> ClientCalls.blockingUnaryCall(channel, FraudCheckerGrpc.CHECK, CallOptions.DEFAULT, new FraudCheckPayload(cardWithoutHolder, charge)))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                    assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+                    assertThat(e.getStatus().getDescription()).isEqualTo("creditCard.holderName: is required");
+                });
+    }
+
+    @Test
+    public void malformedCheckIsAnInvalidArgument() {
+        // Given
+        final MethodDescriptor<byte[], byte[]> checkBytes = FraudCheckerGrpc.CHECK.toBuilder(new BytesMarshaller(), new BytesMarshaller()).build();
+        final byte[] check = FraudCheckProtobuf.encode(new FraudCheckPayload(validCard, charge));
+        final byte[] truncated = Arrays.copyOf(check, check.length - 3);
+
+        // When-Then
+        assertThatThrownBy(() -> ClientCalls.blockingUnaryCall(channel, checkBytes, CallOptions.DEFAULT, truncated))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+    }
+
+    @Test
+    public void checkIsUnavailableWhenCheckPoolIsFull() throws Exception {
+        // Given
+        stopServer();
+        startServer(new TaskExecutorAdapter(task -> {
+            throw new TaskRejectedException("full");
+        }));
+
+        // When-Then
+        assertThatThrownBy(() -> ClientCalls.blockingUnaryCall(channel, FraudCheckerGrpc.CHECK, CallOptions.DEFAULT, new FraudCheckPayload(validCard, charge)))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE));
+    }
+
+    @Test
+    public void interruptsVerificationOnceCallersDeadlinePasses() throws Exception {
+        // Given
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willAnswer(invocation -> {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return new FraudStatus(0, 0, false);
+                });
+
+        // When-Then
+        assertThatThrownBy(() -> ClientCalls.blockingUnaryCall(channel, FraudCheckerGrpc.CHECK, CallOptions.DEFAULT.withDeadlineAfter(1, TimeUnit.SECONDS), new FraudCheckPayload(validCard, charge)))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void streamsAResultForEachCheckWithItsCorrelationId() throws Exception {
+        // Given
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willReturn(new FraudStatus(0, 0, false));
+        final var cardWithoutHolder = CreditCardBuilder.make()
+                .withValidNumber()
+                .withIssuingBank("Bank")
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+        final var results = new StreamedResults<CorrelatedFraudCheckPayload>();
+
+        // When
+        final var checks = ClientCalls.asyncBidiStreamingCall(channel.newCall(FraudCheckerGrpc.CHECK_STREAM, CallOptions.DEFAULT), results);
+        checks.onNext(new CorrelatedFraudCheckPayload("order-1", validCard, charge));
+        checks.onNext(new CorrelatedFraudCheckPayload(null, cardWithoutHolder, charge));
+        checks.onNext(new CorrelatedFraudCheckPayload("order-3", validCard, charge));
+        checks.onCompleted();
+
+        // Then
+        final List<UnknownFieldSet> streamed = results.completed.get(5, TimeUnit.SECONDS);
+        assertThat(streamed.stream().map(result -> correlationIdOf(result)).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("order-1", "2", "order-3");
+        final UnknownFieldSet invalid = streamed.stream().filter(result -> correlationIdOf(result).equals("2")).findFirst().orElseThrow();
+        assertThat(invalid.hasField(3)).isFalse();
+        assertThat(invalid.getField(4).getLengthDelimitedList()).hasSize(1);
+    }
+
+    @Test
+    public void answersMalformedCheckOnAStreamAndGoesOn() throws Exception {
+        // Given
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willReturn(new FraudStatus(0, 0, false));
+        final MethodDescriptor<byte[], byte[]> checkStreamBytes = FraudCheckerGrpc.CHECK_STREAM.toBuilder(new BytesMarshaller(), new BytesMarshaller()).build();
+        final byte[] check = FraudCheckProtobuf.encode(new CorrelatedFraudCheckPayload("order-2", validCard, charge));
+        final var results = new StreamedResults<byte[]>();
+
+        // When
+        final var checks = ClientCalls.asyncBidiStreamingCall(channel.newCall(checkStreamBytes, CallOptions.DEFAULT), results);
+        checks.onNext(Arrays.copyOf(check, check.length - 3));
+        checks.onNext(check);
+        checks.onCompleted();
+
+        // Then
+        final List<UnknownFieldSet> streamed = results.completed.get(5, TimeUnit.SECONDS);
+        assertThat(streamed.stream().map(result -> correlationIdOf(result)).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("1", "order-2");
+        final UnknownFieldSet malformed = streamed.stream().filter(result -> correlationIdOf(result).equals("1")).findFirst().orElseThrow();
+        assertThat(malformed.getField(5).getLengthDelimitedList())
+                .containsExactly(ByteString.copyFromUtf8("Malformed check, expected a FraudCheck message"));
+    }
+
+    @Test
+    public void streamReadsNextCheckOnlyWhileFewerThanMaxInFlightAreBeingVerified() throws Exception {
+        // Given
+        final CountDownLatch released = new CountDownLatch(1);
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willAnswer(invocation -> {
+                    released.await();
+                    return new FraudStatus(0, 0, false);
+                });
+        final var results = new StreamedResults<CorrelatedFraudCheckPayload>();
+        final var checks = ClientCalls.asyncBidiStreamingCall(channel.newCall(FraudCheckerGrpc.CHECK_STREAM, CallOptions.DEFAULT), results);
+
+        // When
+        for (int i = 0; i < 5; i++)
+            checks.onNext(new CorrelatedFraudCheckPayload("order-" + i, validCard, charge));
+        checks.onCompleted();
+
+        // Then
+        verify(verificationService, timeout(1000).times(MAX_IN_FLIGHT)).verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class));
+        Thread.sleep(200);
+        verify(verificationService, times(MAX_IN_FLIGHT)).verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class));
+        released.countDown();
+        assertThat(results.completed.get(5, TimeUnit.SECONDS)).hasSize(5);
+    }
+
+    @Test
+    public void cancellingStreamInterruptsItsVerifications() throws Exception {
+        // Given
+        final CountDownLatch interrupted = new CountDownLatch(MAX_IN_FLIGHT);
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willAnswer(invocation -> {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return new FraudStatus(0, 0, false);
+                });
+        final var results = new StreamedResults<CorrelatedFraudCheckPayload>();
+        final var checks = ClientCalls.asyncBidiStreamingCall(channel.newCall(FraudCheckerGrpc.CHECK_STREAM, CallOptions.DEFAULT), results);
+        for (int i = 0; i < MAX_IN_FLIGHT; i++)
+            checks.onNext(new CorrelatedFraudCheckPayload("order-" + i, validCard, charge));
+        verify(verificationService, timeout(1000).times(MAX_IN_FLIGHT)).verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class));
+
+        // When
+        results.stream.cancel("caller went away", null);
+
+        // Then
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static String correlationIdOf(UnknownFieldSet result) {
+        return result.getField(2).getLengthDelimitedList().get(0).toStringUtf8();
+    }
+
+    private static class StreamedResults<T> implements ClientResponseObserver<T, byte[]> {
+        private final List<UnknownFieldSet> results = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<List<UnknownFieldSet>> completed = new CompletableFuture<>();
+        private ClientCallStreamObserver<T> stream;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<T> stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void onNext(byte[] result) {
+            try {
+                results.add(UnknownFieldSet.parseFrom(ByteString.copyFrom(result)));
+            } catch (IOException e) {
+                completed.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            completed.completeExceptionally(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.complete(results);
+        }
+    }
+
+    private static class BytesMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream in) {
+            try {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.tsys.fraud_checker.services;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class CircuitBreakerTest {
+
+    private static final int WINDOW_SIZE = 10;
+    private static final int MINIMUM_CALLS = 4;
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final long OPEN_MILLIS = 100;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(WINDOW_SIZE, MINIMUM_CALLS, 0.5, 0.5,
+            TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS), 2);
+
+    @Test
+    public void opensOnceFailureRateReachesThreshold() {
+        // Given
+        call(false);
+        call(true);
+        call(false);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // When
+        call(true);
+
+        // Then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void staysClosedUntilMinimumCallsWereMade() {
+        // When
+        call(true);
+        call(true);
+        call(true);
+
+        // Then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void opensOnceSlowCallRateReachesThreshold() {
+        // When
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onSuccess(i % 2 == 0 ? FAST : SLOW);
+        }
+
+        // Then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void forgetsCallsOutsideItsWindow() {
+        // Given
+        call(true);
+        assertThat(breaker.failureRate()).isEqualTo(1.0);
+
+        // When
+        for (int i = 0; i < WINDOW_SIZE; i++)
+            call(false);
+
+        // Then
+        assertThat(breaker.failureRate()).isEqualTo(0.0);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void closesOnceAllTrialCallsSucceedAfterWaitingOpen() throws InterruptedException {
+        // Given
+        givenOpenBreaker();
+
+        // When
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        // Then
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void reopensOnFailedTrialCall() throws InterruptedException {
+        // Given
+        givenOpenBreaker();
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        // When
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onFailure(FAST);
+
+        // Then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void cancelledCallCountsOnlyWhenAlreadySlow() {
+        // Given
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++)
+            call(false);
+
+        // When
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onCancelled(FAST);
+
+        // Then
+        assertThat(breaker.slowCallRate()).isEqualTo(0.0);
+
+        // When
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onCancelled(SLOW);
+
+        // Then
+        assertThat(breaker.slowCallRate()).isEqualTo(1.0 / MINIMUM_CALLS);
+    }
+
+    private void givenOpenBreaker() {
+        for (int i = 0; i < MINIMUM_CALLS; i++)
+            call(true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean fails) {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        if (fails)
+            breaker.onFailure(FAST);
+        else
+            breaker.onSuccess(FAST);
+    }
+}
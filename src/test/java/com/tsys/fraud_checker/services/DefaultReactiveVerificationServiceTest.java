@@ -0,0 +1,112 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.rules.CardExpiryRule;
+import com.tsys.fraud_checker.services.rules.FraudRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class DefaultReactiveVerificationServiceTest {
+
+    private static final int CVV_STATUS_FAIL = 1;
+    private static final int ADDRESS_VERIFICATION_STATUS_PASS = 0;
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Mock
+    private Random random;
+
+    private DefaultReactiveVerificationService reactiveVerificationService;
+
+    @BeforeEach
+    public void setUp() {
+        final FraudRules rules = new FraudRules(List.of(new CardExpiryRule()), FraudRules.FIXED, 10000, 0.2, new SimpleMeterRegistry());
+        reactiveVerificationService = new DefaultReactiveVerificationService(random, rules);
+    }
+
+    @Test
+    public void respondsOnceTheSlowestVerificationHasResponded() {
+        given(random.nextInt(anyInt()))
+                .willReturn(1000) // CVV responds in 3000 ms
+                .willReturn(CVV_STATUS_FAIL)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_PASS)
+                .willReturn(500); // Address Verification responds in 500 ms
+
+        StepVerifier.withVirtualTime(() -> reactiveVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(2999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextMatches(fraudStatus -> fraudStatus.overall.equals(FraudStatus.FAIL))
+                .verifyComplete();
+    }
+
+    @Test
+    public void holdsThousandsOfChecksInFlightWithoutBlocking() {
+        final int inFlightChecks = 5_000;
+        // Every draw is the largest value in its range, so each CVV
+        // verification responds after 4999 ms.
+        given(random.nextInt(anyInt()))
+                .willAnswer(invocation -> (int) invocation.getArgument(0) - 1);
+
+        // All checks are subscribed to at once and none of them holds
+        // a thread, so they all complete together once the simulated
+        // issuer latency has elapsed.
+        StepVerifier.withVirtualTime(() -> Flux.range(0, inFlightChecks)
+                .flatMap(i -> reactiveVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount), inFlightChecks)
+                .count())
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(4998))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext((long) inFlightChecks)
+                .verifyComplete();
+    }
+
+    @Test
+    public void failsCheckOfExpiredCardWithoutVerifying() {
+        final CreditCard expiredCard = CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withValidNumber()
+                .withValidCVV()
+                .withPastExpiryDate()
+                .build();
+
+        StepVerifier.withVirtualTime(() -> reactiveVerificationService.verifyTransactionAuthenticity(expiredCard, chargedAmount))
+                .expectSubscription()
+                .expectNextMatches(fraudStatus -> fraudStatus.overall.equals(FraudStatus.FAIL)
+                        && FraudStatus.CARD_EXPIRED.equals(fraudStatus.reason))
+                .verifyComplete();
+        verifyNoInteractions(random);
+    }
+}
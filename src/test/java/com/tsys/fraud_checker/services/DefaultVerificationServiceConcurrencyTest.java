@@ -0,0 +1,123 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.Currency;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Tags({
+        @Tag("In-Process"),
+        @Tag("ComponentTest")
+})
+public class DefaultVerificationServiceConcurrencyTest {
+
+    private static final int CVV_STATUS_PASS = 0;
+    private static final int ADDRESS_VERIFICATION_STATUS_PASS = 0;
+    private static final int ADDRESS_VERIFICATION_STATUS_FAIL = 1;
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @MockBean
+    private Random random;
+
+    @Autowired
+    private DefaultVerificationService defaultVerificationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void cvvAndAddressVerificationOverlap() throws InterruptedException {
+        // Given
+        given(random.nextInt(anyInt()))
+                .willReturn(-1000) // CVV responds in 1000 ms
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_FAIL)
+                .willReturn(1000); // Address Verification responds in 1000 ms
+
+        // When
+        final long start = System.nanoTime();
+        final FraudStatus fraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount);
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        // Run one after the other, the two would take at least 2000 ms.
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(1000));
+        assertThat(elapsed).isLessThan(Duration.ofMillis(1800));
+        assertThat(fraudStatus.cvvStatus).isEqualTo(FraudStatus.PASS);
+        assertThat(fraudStatus.avStatus).isEqualTo(FraudStatus.ADDRESS_VERIFICATION_IA);
+        assertThat(fraudStatus.overall).isEqualTo(FraudStatus.SUSPICIOUS);
+    }
+
+    @Test
+    public void verificationsPendingWhenBudgetRunsOutAreTimedOut() throws InterruptedException {
+        // Given
+        given(random.nextInt(anyInt()))
+                .willReturn(-1000) // CVV responds in 1000 ms
+                .willReturn(CVV_STATUS_PASS)
+                .willReturn(ADDRESS_VERIFICATION_STATUS_PASS); // Address Verification responds straight away
+        final double cvvTimeouts = timeoutsOf(FraudStatus.CVV_CHECK);
+
+        // When
+        final long start = System.nanoTime();
+        final FraudStatus fraudStatus = defaultVerificationService.verifyTransactionAuthenticity(validCard, chargedAmount, Duration.ofMillis(300));
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+        assertThat(elapsed).isLessThan(Duration.ofMillis(800));
+        assertThat(fraudStatus.cvvStatus).isEqualTo(FraudStatus.UNKNOWN);
+        assertThat(fraudStatus.avStatus).isEqualTo(FraudStatus.PASS);
+        assertThat(fraudStatus.overall).isEqualTo(FraudStatus.SUSPICIOUS);
+        assertThat(fraudStatus.timedOut).containsExactly(FraudStatus.CVV_CHECK);
+        assertThat(timeoutsOf(FraudStatus.CVV_CHECK)).isEqualTo(cvvTimeouts + 1);
+    }
+
+    @Test
+    public void checkTimedOutIsStillHeldToTheRules() {
+        // Given
+        final CreditCard expiredCard = CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withValidNumber()
+                .withValidCVV()
+                .withPastExpiryDate()
+                .build();
+
+        // When-Then
+        assertThat(defaultVerificationService.timedOut(expiredCard, chargedAmount).overall).isEqualTo(FraudStatus.FAIL);
+        assertThat(defaultVerificationService.timedOut(expiredCard, chargedAmount).reason).isEqualTo(FraudStatus.CARD_EXPIRED);
+        assertThat(defaultVerificationService.timedOut(validCard, chargedAmount).overall).isEqualTo(FraudStatus.SUSPICIOUS);
+        assertThat(defaultVerificationService.timedOut(validCard, chargedAmount).timedOut)
+                .containsExactly(FraudStatus.CVV_CHECK, FraudStatus.ADDRESS_CHECK);
+    }
+
+    private double timeoutsOf(String check) {
+        return meterRegistry.counter("fraud_checker.verification.timeouts", "check", check).count();
+    }
+}
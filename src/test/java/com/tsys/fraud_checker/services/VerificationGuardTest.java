@@ -0,0 +1,94 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class VerificationGuardTest {
+
+    private static final String CHECK = "cvv";
+    private static final int MAX_CONCURRENT = 2;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment env = new MockEnvironment()
+            .withProperty("verification.cvv.bulkhead.max-concurrent", String.valueOf(MAX_CONCURRENT))
+            .withProperty("verification.cvv.breaker.window-size", "4")
+            .withProperty("verification.cvv.breaker.minimum-calls", "2");
+
+    @Test
+    public void fallsBackWhenBulkheadIsFull() throws Exception {
+        // Given
+        final VerificationGuard guard = new VerificationGuards(env, meterRegistry).guardFor(CHECK);
+        final CompletableFuture<Integer> first = guard.submit(CompletableFuture::new);
+        final CompletableFuture<Integer> second = guard.submit(CompletableFuture::new);
+
+        // When
+        final Integer status = guard.submit(() -> CompletableFuture.completedFuture(0)).get();
+
+        // Then
+        assertThat(status).isEqualTo(FraudStatus.UNAVAILABLE);
+        assertThat(guard.inFlight()).isEqualTo(MAX_CONCURRENT);
+        assertThat(guard.rejectedAsFull()).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud_checker.verification.rejections")
+                .tags("check", CHECK, "reason", "bulkhead-full").counter().count()).isEqualTo(1.0);
+
+        // When
+        first.complete(0);
+        second.cancel(true);
+
+        // Then
+        assertThat(guard.inFlight()).isEqualTo(0);
+        assertThat(guard.submit(() -> CompletableFuture.completedFuture(0)).get()).isEqualTo(0);
+    }
+
+    @Test
+    public void fallsBackToConfiguredStatusWithoutCallingOnceBreakerOpens() throws Exception {
+        // Given
+        env.setProperty("verification.cvv.fallback-status", "fail");
+        final VerificationGuard guard = new VerificationGuards(env, meterRegistry).guardFor(CHECK);
+        failedVerification(guard);
+        failedVerification(guard);
+        assertThat(guard.state()).isEqualTo("OPEN");
+
+        // When
+        final Integer status = guard.submit(() -> {
+            throw new AssertionError("The issuing bank must not be called");
+        }).get();
+
+        // Then
+        assertThat(status).isEqualTo(1);
+        assertThat(guard.rejectedAsOpen()).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud_checker.verification.breaker.state")
+                .tag("check", CHECK).gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void shoutsWhenFallbackStatusIsNotKnown() {
+        // Given
+        env.setProperty("verification.cvv.fallback-status", "maybe");
+        final VerificationGuards guards = new VerificationGuards(env, meterRegistry);
+
+        // When-Then
+        assertThrows(IllegalArgumentException.class, () -> guards.guardFor(CHECK));
+    }
+
+    private static void failedVerification(VerificationGuard guard) {
+        final CompletableFuture<Integer> verification = guard.submit(() ->
+                CompletableFuture.failedFuture(new IllegalStateException("Issuing bank unavailable")));
+        assertThrows(ExecutionException.class, verification::get);
+    }
+}
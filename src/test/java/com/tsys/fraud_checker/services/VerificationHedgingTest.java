@@ -0,0 +1,129 @@
+package com.tsys.fraud_checker.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class VerificationHedgingTest {
+
+    private static final String CHECK = "cvv";
+    private static final int MIN_SAMPLES = 10;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private VerificationHedging hedging;
+
+    @AfterEach
+    public void shutdown() {
+        hedging.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void hedgeAnswersWhenAttemptIsSlowerThanItsRecentLatency() throws Exception {
+        // Given
+        hedging = new VerificationHedging(true, 0.5, MIN_SAMPLES, 1.0, meterRegistry);
+        givenRecentAttemptsAnsweredStraightAway();
+        final CountDownLatch attemptInterrupted = new CountDownLatch(1);
+
+        // When
+        final long start = System.nanoTime();
+        final Integer status = hedging.submit(CHECK, () -> {
+            try {
+                Thread.sleep(5000);
+                return 0;
+            } catch (InterruptedException e) {
+                attemptInterrupted.countDown();
+                throw e;
+            }
+        }, () -> 1, executor).get();
+
+        // Then
+        assertThat(status).isEqualTo(1);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        assertThat(attemptInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        // The outcome is counted right after the verification completes.
+        awaitHedges("won", 1);
+        assertThat(hedges("won")).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud_checker.verification.hedge.win.rate").tag("check", CHECK).gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void doesNotHedgeBeyondItsBudget() throws Exception {
+        // Given
+        hedging = new VerificationHedging(true, 0.5, MIN_SAMPLES, 0.0, meterRegistry);
+        givenRecentAttemptsAnsweredStraightAway();
+
+        // When
+        final Integer status = hedging.submit(CHECK, () -> {
+            Thread.sleep(300);
+            return 0;
+        }, () -> 1, executor).get();
+
+        // Then
+        assertThat(status).isEqualTo(0);
+        assertThat(hedges("denied")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(0);
+    }
+
+    @Test
+    public void doesNotHedgeUntilThereAreEnoughSamples() throws Exception {
+        // Given
+        hedging = new VerificationHedging(true, 0.5, MIN_SAMPLES, 1.0, meterRegistry);
+
+        // When
+        final Integer status = hedging.submit(CHECK, () -> {
+            Thread.sleep(300);
+            return 0;
+        }, () -> 1, executor).get();
+
+        // Then
+        assertThat(status).isEqualTo(0);
+        assertThat(hedges("won") + hedges("lost") + hedges("denied")).isEqualTo(0);
+    }
+
+    @Test
+    public void failsWhenAllAttemptsFail() {
+        // Given
+        hedging = new VerificationHedging(true, 0.5, MIN_SAMPLES, 1.0, meterRegistry);
+
+        // When
+        final var failure = assertThrows(ExecutionException.class, () -> hedging.submit(CHECK, () -> {
+            throw new IllegalStateException("Issuing Bank unreachable");
+        }, () -> 1, executor).get());
+
+        // Then
+        assertThat(failure.getCause()).hasMessage("Issuing Bank unreachable");
+    }
+
+    private void givenRecentAttemptsAnsweredStraightAway() throws Exception {
+        for (int attempt = 0; attempt < MIN_SAMPLES; attempt++)
+            hedging.submit(CHECK, () -> 0, () -> 0, executor).get();
+    }
+
+    private void awaitHedges(String outcome, double count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (hedges(outcome) < count && System.nanoTime() < deadline)
+            Thread.sleep(10);
+    }
+
+    private double hedges(String outcome) {
+        return meterRegistry.counter("fraud_checker.verification.hedges", "check", CHECK, "outcome", outcome).count();
+    }
+}
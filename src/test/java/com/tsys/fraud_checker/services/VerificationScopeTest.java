@@ -0,0 +1,136 @@
+package com.tsys.fraud_checker.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class VerificationScopeTest {
+
+    private final ExecutorService cvvExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService avExecutor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void shutdownExecutors() {
+        cvvExecutor.shutdownNow();
+        avExecutor.shutdownNow();
+    }
+
+    @Test
+    public void joinsResultsOfAllVerifications() throws InterruptedException {
+        try (var scope = new VerificationScope()) {
+            final Supplier<Integer> cvvStatus = scope.fork(() -> {
+                Thread.sleep(100);
+                return 0;
+            }, cvvExecutor);
+            final Supplier<Integer> avStatus = scope.fork(() -> 1, avExecutor);
+
+            scope.join();
+
+            assertThat(cvvStatus.get()).isEqualTo(0);
+            assertThat(avStatus.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void failedVerificationCancelsThePendingOnes() throws InterruptedException {
+        final CountDownLatch cvvStarted = new CountDownLatch(1);
+        final CountDownLatch cvvInterrupted = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        final var failure = assertThrows(IllegalStateException.class, () -> {
+            try (var scope = new VerificationScope()) {
+                scope.fork(() -> {
+                    cvvStarted.countDown();
+                    try {
+                        Thread.sleep(5000);
+                        return 0;
+                    } catch (InterruptedException e) {
+                        cvvInterrupted.countDown();
+                        throw e;
+                    }
+                }, cvvExecutor);
+                scope.fork(() -> {
+                    cvvStarted.await();
+                    throw new IllegalStateException("Issuing Bank unreachable");
+                }, avExecutor);
+                scope.join();
+            }
+        });
+
+        assertThat(failure).hasMessage("Issuing Bank unreachable");
+        assertThat(cvvInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+    }
+
+    @Test
+    public void closingTheScopeCancelsUnfinishedVerifications() throws InterruptedException {
+        final CountDownLatch cvvStarted = new CountDownLatch(1);
+        final CountDownLatch cvvInterrupted = new CountDownLatch(1);
+        try (var scope = new VerificationScope()) {
+            scope.fork(() -> {
+                cvvStarted.countDown();
+                try {
+                    Thread.sleep(5000);
+                    return 0;
+                } catch (InterruptedException e) {
+                    cvvInterrupted.countDown();
+                    throw e;
+                }
+            }, cvvExecutor);
+            assertThat(cvvStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(cvvInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shoutsWhenResultIsAskedForBeforeJoining() {
+        try (var scope = new VerificationScope()) {
+            final Supplier<Integer> cvvStatus = scope.fork(() -> {
+                Thread.sleep(5000);
+                return 0;
+            }, cvvExecutor);
+
+            assertThrows(IllegalStateException.class, cvvStatus::get);
+        }
+    }
+
+    @Test
+    public void joiningUntilDeadlineCancelsVerificationsStillPending() throws InterruptedException {
+        final CountDownLatch cvvInterrupted = new CountDownLatch(1);
+        try (var scope = new VerificationScope()) {
+            final VerificationScope.Subtask<Integer> cvvStatus = scope.fork(() -> {
+                try {
+                    Thread.sleep(5000);
+                    return 0;
+                } catch (InterruptedException e) {
+                    cvvInterrupted.countDown();
+                    throw e;
+                }
+            }, cvvExecutor);
+            final VerificationScope.Subtask<Integer> avStatus = scope.fork(() -> 1, avExecutor);
+
+            final boolean allCompleted = scope.joinUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+
+            assertThat(allCompleted).isFalse();
+            assertThat(cvvStatus.hasCompleted()).isFalse();
+            assertThat(avStatus.hasCompleted()).isTrue();
+            assertThat(avStatus.get()).isEqualTo(1);
+            assertThat(cvvInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
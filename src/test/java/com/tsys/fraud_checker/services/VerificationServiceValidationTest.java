@@ -0,0 +1,101 @@
+package com.tsys.fraud_checker.services;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.spring.validators.TrustedCaller;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.validation.ConstraintViolationException;
+import java.time.Duration;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The verificationService bean is the DefaultVerificationService behind
+// all of its decorators, which read the card before passing it on, so it
+// must be validated on its way into the outermost of them.
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "verification.stolen-cards.enabled=true",
+        "verification.velocity.enabled=true",
+        "verification.decision-cache.enabled=true",
+        "verification.single-flight.enabled=true"
+})
+@Tag("UnitTest")
+public class VerificationServiceValidationTest {
+
+    private final Money chargedAmount = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard cardWithoutNumber = CreditCardBuilder.make()
+            .withHolder("Card Holder")
+            .withIssuingBank("Bank")
+            .withFutureExpiryDate()
+            .withValidCVV()
+            .build();
+
+    @Autowired
+    @Qualifier("verificationService")
+    private VerificationService verificationService;
+
+    @Test
+    public void shoutsWhenCardIsNotPresent() {
+        assertThrows(ConstraintViolationException.class, () -> verificationService.verifyTransactionAuthenticity(null, chargedAmount));
+    }
+
+    @Test
+    public void shoutsWhenCardNumberIsAbsent() {
+        Throwable validationException = assertThrows(ConstraintViolationException.class,
+                () -> verificationService.verifyTransactionAuthenticity(cardWithoutNumber, chargedAmount));
+        assertThat(validationException.getMessage()).isEqualTo("verifyTransactionAuthenticity.card.number: Card number is required");
+    }
+
+    @Test
+    public void shoutsWhenCardNumberIsAbsentWithinABudget() {
+        Throwable validationException = assertThrows(ConstraintViolationException.class,
+                () -> verificationService.verifyTransactionAuthenticity(cardWithoutNumber, chargedAmount, Duration.ofSeconds(1)));
+        assertThat(validationException.getMessage()).isEqualTo("verifyTransactionAuthenticity.card.number: Card number is required");
+    }
+
+    @Test
+    public void shoutsWhenChargeIsNotPresent() {
+        final CreditCard card = CreditCardBuilder.make()
+                .withHolder("Card Holder")
+                .withIssuingBank("Bank")
+                .withValidNumber()
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+
+        assertThrows(ConstraintViolationException.class, () -> verificationService.verifyTransactionAuthenticity(card, null));
+    }
+
+    // Were the check validated on its way into the outermost decorator,
+    // or again on its way into the DefaultVerificationService, its card
+    // would fail the Luhn check.
+    @Test
+    public void doesNotValidateChecksVouchedFor() throws InterruptedException {
+        final CreditCard cardFailingLuhnCheck = CreditCardBuilder.make()
+                .withHolder("Card Holder")
+                .withIssuingBank("Bank")
+                .withInvalidNumber()
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+
+        final FraudStatus fraudStatus = TrustedCaller.call(
+                () -> verificationService.verifyTransactionAuthenticity(cardFailingLuhnCheck, chargedAmount, Duration.ofMillis(50)),
+                cardFailingLuhnCheck, chargedAmount);
+
+        assertThat(fraudStatus).isNotNull();
+        assertThrows(ConstraintViolationException.class,
+                () -> verificationService.verifyTransactionAuthenticity(cardFailingLuhnCheck, chargedAmount, Duration.ofMillis(50)));
+    }
+}
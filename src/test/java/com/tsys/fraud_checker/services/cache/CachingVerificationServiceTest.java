@@ -0,0 +1,75 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class CachingVerificationServiceTest {
+
+    private static final Duration BUDGET = Duration.ofMillis(800);
+
+    private final VerificationService verificationService = mock(VerificationService.class);
+    private final DecisionCache decisionCache = new DecisionCache(true, 100, 60000, false, 0, new SimpleMeterRegistry());
+    private final CachingVerificationService cachingVerificationService = new CachingVerificationService(verificationService, decisionCache);
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard card = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withCVV(123)
+            .withFutureExpiryDate()
+            .build();
+
+    @Test
+    public void verifiesRepeatedCheckOnlyOnce() throws InterruptedException {
+        // Given
+        final FraudStatus pass = new FraudStatus(0, 0, false);
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
+                .willReturn(pass);
+
+        // When
+        final FraudStatus first = cachingVerificationService.verifyTransactionAuthenticity(card, charge, BUDGET);
+        final FraudStatus retried = cachingVerificationService.verifyTransactionAuthenticity(card, charge, BUDGET);
+
+        // Then
+        assertThat(first).isSameAs(pass);
+        assertThat(retried).isSameAs(pass);
+        verify(verificationService, times(1)).verifyTransactionAuthenticity(card, charge, BUDGET);
+    }
+
+    @Test
+    public void verifiesAgainWhenDecisionWasDegraded() throws InterruptedException {
+        // Given
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
+                .willReturn(new FraudStatus(FraudStatus.TIMED_OUT, 0, false))
+                .willReturn(new FraudStatus(0, 0, false));
+
+        // When
+        cachingVerificationService.verifyTransactionAuthenticity(card, charge, BUDGET);
+        final FraudStatus retried = cachingVerificationService.verifyTransactionAuthenticity(card, charge, BUDGET);
+
+        // Then
+        assertThat(retried.overall).isEqualTo(FraudStatus.PASS);
+        verify(verificationService, times(2)).verifyTransactionAuthenticity(card, charge, BUDGET);
+    }
+}
@@ -0,0 +1,173 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.FraudStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class DecisionCacheTest {
+
+    private static final int MAXIMUM_SIZE = 2;
+    private static final long TTL_MILLIS = 60000;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FraudStatus suspicious = new FraudStatus(0, 1, false);
+    private final FraudStatus expired = new FraudStatus(0, 0, true);
+
+    @Test
+    public void answersRepeatedCheckFromCache() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, MAXIMUM_SIZE, TTL_MILLIS, false, 0, meterRegistry);
+        assertThat(cache.get(key(1))).isNull();
+
+        // When
+        cache.put(key(1), suspicious);
+
+        // Then
+        assertThat(cache.get(key(1))).isSameAs(suspicious);
+        assertThat(gets("l1", "hit")).isEqualTo(1.0);
+        assertThat(gets("l1", "miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void forgetsDecisionsOnceTheirTtlRunsOut() throws InterruptedException {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, MAXIMUM_SIZE, 50, false, 0, meterRegistry);
+        cache.put(key(1), suspicious);
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(evictions("l1", "expired")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void doesNotCacheDegradedDecisions() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, MAXIMUM_SIZE, TTL_MILLIS, false, 0, meterRegistry);
+
+        // When
+        cache.put(key(1), new FraudStatus(FraudStatus.TIMED_OUT, 0, false));
+        cache.put(key(2), new FraudStatus(0, FraudStatus.UNAVAILABLE, false));
+
+        // Then
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(cache.get(key(2))).isNull();
+    }
+
+    @Test
+    public void oneOffCheckDoesNotPushOutFrequentlyCheckedCards() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, MAXIMUM_SIZE, TTL_MILLIS, false, 0, meterRegistry);
+        cache.put(key(1), suspicious);
+        cache.put(key(2), suspicious);
+        for (int i = 0; i < 3; i++) {
+            cache.get(key(1));
+            cache.get(key(2));
+        }
+
+        // When
+        cache.put(key(3), suspicious);
+
+        // Then
+        assertThat(cache.get(key(1))).isNotNull();
+        assertThat(cache.get(key(2))).isNotNull();
+        assertThat(cache.get(key(3))).isNull();
+        assertThat(evictions("l1", "rejected")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void frequentlyCheckedCardPushesOutLeastRecentlyUsedOne() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, MAXIMUM_SIZE, TTL_MILLIS, false, 0, meterRegistry);
+        cache.put(key(1), suspicious);
+        cache.put(key(2), suspicious);
+        for (int i = 0; i < 3; i++)
+            cache.get(key(3));
+
+        // When
+        cache.put(key(3), suspicious);
+
+        // Then
+        assertThat(cache.get(key(3))).isNotNull();
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(evictions("l1", "size")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void keepsDecisionsPushedOffTheHeapOffTheHeap() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, MAXIMUM_SIZE, TTL_MILLIS, true, 1024, meterRegistry);
+        cache.put(key(1), suspicious);
+        cache.put(key(2), expired);
+        for (int i = 0; i < 3; i++)
+            cache.get(key(3));
+
+        // When
+        cache.put(key(3), suspicious);
+
+        // Then
+        final FraudStatus demoted = cache.get(key(1));
+        assertThat(demoted.cvvStatus).isEqualTo(suspicious.cvvStatus);
+        assertThat(demoted.avStatus).isEqualTo(suspicious.avStatus);
+        assertThat(demoted.overall).isEqualTo(suspicious.overall);
+        assertThat(gets("l2", "hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void restoresDecisionsOfExpiredCardsFromOffTheHeap() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, 1, TTL_MILLIS, true, 1024, meterRegistry);
+        cache.put(key(1), expired);
+        for (int i = 0; i < 3; i++)
+            cache.get(key(2));
+
+        // When
+        cache.put(key(2), suspicious);
+
+        // Then
+        final FraudStatus demoted = cache.get(key(1));
+        assertThat(demoted.overall).isEqualTo(FraudStatus.FAIL);
+        assertThat(demoted.cvvStatus).isEqualTo(FraudStatus.PASS);
+    }
+
+    @Test
+    public void splitsLargeCacheIntoSegmentsHoldingNoMoreThanMaximumSizeBetweenThem() {
+        // Given
+        final DecisionCache cache = new DecisionCache(true, 10_000, TTL_MILLIS, false, 0, meterRegistry);
+
+        // When
+        for (int i = 0; i < 30_000; i++) {
+            cache.get(key(i));
+            cache.put(key(i), suspicious);
+        }
+
+        // Then
+        assertThat(new OnHeapDecisionCache(10_000, null).segments()).isEqualTo(OnHeapDecisionCache.MAX_SEGMENTS);
+        assertThat(new OnHeapDecisionCache(MAXIMUM_SIZE, null).segments()).isEqualTo(1);
+        final double size = meterRegistry.get("fraud_checker.decision.cache.size").tags("tier", "l1").gauge().value();
+        assertThat(size).isLessThanOrEqualTo(10_000).isGreaterThan(9_000);
+    }
+
+    private static DecisionKey key(long fingerprint) {
+        return new DecisionKey(fingerprint, fingerprint * 31, 356, Double.doubleToLongBits(1235.45d));
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("fraud_checker.decision.cache.gets").tags("tier", tier, "result", result).counter().count();
+    }
+
+    private double evictions(String tier, String cause) {
+        return meterRegistry.get("fraud_checker.decision.cache.evictions").tags("tier", tier, "cause", cause).counter().count();
+    }
+}
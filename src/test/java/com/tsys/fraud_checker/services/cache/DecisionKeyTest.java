@@ -0,0 +1,72 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class DecisionKeyTest {
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+
+    @Test
+    public void sameCardWrittenDifferentlyAndSameChargeMakeTheSameKey() {
+        // Given
+        final CreditCard dashed = card("4485-2847-2013-4093", 123);
+        final CreditCard spaced = card("4485 2847 2013 4093", 123);
+
+        // When-Then
+        assertThat(DecisionKey.of(dashed, charge)).isEqualTo(DecisionKey.of(spaced, new Money(Currency.getInstance("INR"), 1235.45d)));
+        assertThat(DecisionKey.of(dashed, charge).hashCode()).isEqualTo(DecisionKey.of(spaced, charge).hashCode());
+    }
+
+    @Test
+    public void differentCvvOrChargeMakeDifferentKeys() {
+        // Given
+        final CreditCard card = card("4485-2847-2013-4093", 123);
+
+        // When-Then
+        assertThat(DecisionKey.of(card, charge)).isNotEqualTo(DecisionKey.of(card("4485-2847-2013-4093", 124), charge));
+        assertThat(DecisionKey.of(card, charge)).isNotEqualTo(DecisionKey.of(card, new Money(Currency.getInstance("INR"), 1235.46d)));
+        assertThat(DecisionKey.of(card, charge)).isNotEqualTo(DecisionKey.of(card, new Money(Currency.getInstance("USD"), 1235.45d)));
+    }
+
+    @Test
+    public void holderAndBankDoNotRunTogether() {
+        // Given
+        final CreditCard card = card("4485-2847-2013-4093", 123);
+        final CreditCard runTogether = new CreditCard("4485-2847-2013-4093", "Jumping JackB", "ank of Test", card.validUntil, 123);
+
+        // When-Then
+        assertThat(DecisionKey.of(card, charge)).isNotEqualTo(DecisionKey.of(runTogether, charge));
+    }
+
+    @Test
+    public void keyDoesNotRevealPanOrCvv() {
+        // Given
+        final DecisionKey key = DecisionKey.of(card("4485-2847-2013-4093", 123), charge);
+
+        // When-Then
+        assertThat(key.toString()).doesNotContain("4485-2847-2013-4093", "4485284720134093", "cvv");
+    }
+
+    private static CreditCard card(String number, int cvv) {
+        return CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withNumber(number)
+                .withCVV(cvv)
+                .withFutureExpiryDate()
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.tsys.fraud_checker.services.cache;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Currency;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class SingleFlightVerificationServiceTest {
+
+    private static final Duration BUDGET = Duration.ofSeconds(5);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard card = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withCVV(123)
+            .withFutureExpiryDate()
+            .build();
+    private final CountDownLatch verificationStarted = new CountDownLatch(1);
+    private final CountDownLatch answer = new CountDownLatch(1);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void identicalChecksInFlightShareOneVerification() throws Exception {
+        // Given
+        final SingleFlightVerificationService singleFlight = new SingleFlightVerificationService(
+                blockingVerificationService(new FraudStatus(0, 0, false)), meterRegistry);
+        final Future<FraudStatus> leader = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        assertThat(verificationStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        final Future<FraudStatus> retry = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        awaitCoalesced(1);
+        answer.countDown();
+
+        // Then
+        assertThat(retry.get(1, TimeUnit.SECONDS)).isSameAs(leader.get(1, TimeUnit.SECONDS));
+        assertThat(verifications.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void checksWithDifferentChargesAreNotCoalesced() throws Exception {
+        // Given
+        final SingleFlightVerificationService singleFlight = new SingleFlightVerificationService(
+                blockingVerificationService(new FraudStatus(0, 0, false)), meterRegistry);
+        final Future<FraudStatus> first = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        assertThat(verificationStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        answer.countDown();
+        final FraudStatus other = singleFlight.verifyTransactionAuthenticity(card, new Money(Currency.getInstance("INR"), 1.0d), BUDGET);
+
+        // Then
+        assertThat(other).isNotSameAs(first.get(1, TimeUnit.SECONDS));
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void followersFailWithTheLeader() throws Exception {
+        // Given
+        final VerificationService failing = new VerificationService() {
+            @Override
+            public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+                verifications.incrementAndGet();
+                verificationStarted.countDown();
+                answer.await();
+                throw new IllegalStateException("Issuing bank unavailable");
+            }
+        };
+        final SingleFlightVerificationService singleFlight = new SingleFlightVerificationService(failing, meterRegistry);
+        final Future<FraudStatus> leader = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge));
+        assertThat(verificationStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        final Future<FraudStatus> retry = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge));
+        awaitCoalesced(1);
+
+        // When
+        answer.countDown();
+
+        // Then
+        final ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(1, TimeUnit.SECONDS));
+        final ExecutionException retryFailure = assertThrows(ExecutionException.class, () -> retry.get(1, TimeUnit.SECONDS));
+        assertThat(retryFailure.getCause()).isSameAs(leaderFailure.getCause());
+        assertThat(verifications.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void followerTakesOverWhenLeaderIsInterrupted() throws Exception {
+        // Given
+        final FraudStatus pass = new FraudStatus(0, 0, false);
+        final SingleFlightVerificationService singleFlight = new SingleFlightVerificationService(
+                blockingVerificationService(pass), meterRegistry);
+        final Future<FraudStatus> leader = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        assertThat(verificationStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        final Future<FraudStatus> retry = executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        awaitCoalesced(1);
+
+        // When
+        leader.cancel(true);
+        awaitVerifications(2);
+        answer.countDown();
+
+        // Then
+        assertThat(retry.get(1, TimeUnit.SECONDS)).isSameAs(pass);
+        assertThat(singleFlight.inFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void followerWaitsNoLongerThanItsBudget() throws Exception {
+        // Given
+        final SingleFlightVerificationService singleFlight = new SingleFlightVerificationService(
+                blockingVerificationService(new FraudStatus(0, 0, false)), meterRegistry);
+        executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        assertThat(verificationStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        final FraudStatus retried = singleFlight.verifyTransactionAuthenticity(card, charge, Duration.ofMillis(100));
+
+        // Then
+        assertThat(retried.overall).isEqualTo(FraudStatus.SUSPICIOUS);
+        assertThat(retried.timedOut).containsExactly(FraudStatus.CVV_CHECK, FraudStatus.ADDRESS_CHECK);
+        answer.countDown();
+    }
+
+    @Test
+    public void followerOutOfBudgetAnswersAsTheDecoratedServiceWould() throws Exception {
+        // Given
+        final FraudStatus blocked = FraudStatus.failedWithoutVerification(FraudStatus.BLOCKED_BIN);
+        final VerificationService blocking = blockingVerificationService(new FraudStatus(0, 0, false));
+        final SingleFlightVerificationService singleFlight = new SingleFlightVerificationService(new VerificationService() {
+            @Override
+            public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+                return blocking.verifyTransactionAuthenticity(card, charge);
+            }
+
+            @Override
+            public FraudStatus timedOut(CreditCard card, Money charge) {
+                return blocked;
+            }
+        }, meterRegistry);
+        executor.submit(() -> singleFlight.verifyTransactionAuthenticity(card, charge, BUDGET));
+        assertThat(verificationStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        final FraudStatus retried = singleFlight.verifyTransactionAuthenticity(card, charge, Duration.ofMillis(100));
+
+        // Then
+        assertThat(retried).isSameAs(blocked);
+        answer.countDown();
+    }
+
+    private VerificationService blockingVerificationService(FraudStatus fraudStatus) {
+        return new VerificationService() {
+            @Override
+            public FraudStatus verifyTransactionAuthenticity(CreditCard card, Money charge) throws InterruptedException {
+                verifications.incrementAndGet();
+                verificationStarted.countDown();
+                answer.await();
+                return charge.amount == 1.0d ? new FraudStatus(0, 0, false) : fraudStatus;
+            }
+        };
+    }
+
+    private void awaitCoalesced(int followers) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (meterRegistry.get("fraud_checker.verification.coalesced").counter().count() < followers
+                && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        // The follower is counted just before it waits on the leader.
+        Thread.sleep(50);
+    }
+
+    private void awaitVerifications(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (verifications.get() < count && System.nanoTime() < deadline)
+            Thread.sleep(10);
+    }
+}
@@ -0,0 +1,153 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class ConfiguredRulesTest {
+
+    private static final String RULES = "[\n" +
+            "  { \"name\": \"large INR charge\", \"outcome\": \"suspicious\", \"currencies\": [\"INR\"], \"amountAbove\": 100000 },\n" +
+            "  { \"name\": \"compromised issuer\", \"outcome\": \"fail\", \"issuingBanks\": [\"Bank of Fraud\"] }\n" +
+            "]";
+    private static final long RELOAD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final Money largeCharge = new Money(Currency.getInstance("INR"), 200000d);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void compiledRulesAgreeWithInterpretedOnes() {
+        // Given
+        final List<RuleDefinition> definitions = List.of(
+                new RuleDefinition("large INR charge", "suspicious", List.of("INR"), 100000d, null, null),
+                new RuleDefinition("large foreign charge", "fail", List.of("USD", "EUR"), 5000d, null, null),
+                new RuleDefinition("compromised issuers", "fail", null, null, List.of("Bank of Fraud", "Bank of Scam"), null),
+                new RuleDefinition("compromised issuer", "fail", null, null, List.of("Bank of Test"), null),
+                new RuleDefinition("card about to expire", "suspicious", null, 500d, null, 30),
+                new RuleDefinition("any euro charge", "suspicious", List.of("EUR"), null, null, null));
+        final CompiledRules compiled = CompiledRules.compile(definitions);
+        final Random random = new Random(12345L);
+        final String[] currencies = {"INR", "USD", "EUR", "GBP"};
+        final String[] banks = {"Bank of Fraud", "Bank of Scam", "Bank of Test", "Bank of Trust"};
+
+        for (int i = 0; i < 10000; i++) {
+            // When
+            final CreditCard card = new CreditCard("4485-2847-2013-4093", "Jumping Jack", banks[random.nextInt(banks.length)],
+                    new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(random.nextInt(60))), 123);
+            final Money charge = new Money(Currency.getInstance(currencies[random.nextInt(currencies.length)]), random.nextDouble() * 200000);
+
+            // Then
+            assertThat(compiled.evaluate(card, charge)).as("%s %s", card, charge)
+                    .isEqualTo(RuleDefinition.interpret(definitions, card, charge));
+        }
+    }
+
+    @Test
+    public void failsCheckGivingNameOfRuleMatched() throws IOException {
+        // Given
+        final ConfiguredRules rules = new ConfiguredRules(write(RULES).toString(), RELOAD_MILLIS, meterRegistry);
+        final CreditCard card = cardIssuedBy("Bank of Fraud");
+
+        // When-Then
+        assertThat(rules.evaluate(card, charge)).isEqualTo(Outcome.FAIL);
+        assertThat(rules.reasonFor(card, charge)).isEqualTo("compromised issuer");
+        assertThat(rules.evaluate(cardIssuedBy("Bank of Test"), largeCharge)).isEqualTo(Outcome.SUSPICIOUS);
+        assertThat(rules.evaluate(cardIssuedBy("Bank of Test"), charge)).isEqualTo(Outcome.PASS);
+    }
+
+    @Test
+    public void swapsInRulesOnceFileChanges() throws IOException {
+        // Given
+        final Path file = write(RULES);
+        final ConfiguredRules rules = new ConfiguredRules(file.toString(), RELOAD_MILLIS, meterRegistry);
+
+        // When
+        change(file, "[ { \"name\": \"any INR charge\", \"outcome\": \"fail\", \"currencies\": [\"INR\"] } ]");
+        rules.reload();
+
+        // Then
+        assertThat(rules.size()).isEqualTo(1);
+        assertThat(rules.evaluate(cardIssuedBy("Bank of Test"), charge)).isEqualTo(Outcome.FAIL);
+        assertThat(meterRegistry.get("fraud_checker.rules.configured.reloads").tag("result", "success").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    public void keepsRulesLoadedBeforeWhenChangedFileDoesNotLoad() throws IOException {
+        // Given
+        final Path file = write(RULES);
+        final ConfiguredRules rules = new ConfiguredRules(file.toString(), RELOAD_MILLIS, meterRegistry);
+
+        // When
+        change(file, "[ { \"name\": \"no outcome\", \"currencies\": [\"INR\"] } ]");
+        rules.reload();
+
+        // Then
+        assertThat(rules.size()).isEqualTo(2);
+        assertThat(rules.evaluate(cardIssuedBy("Bank of Fraud"), charge)).isEqualTo(Outcome.FAIL);
+        assertThat(meterRegistry.get("fraud_checker.rules.configured.reloads").tag("result", "failure").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void shoutsAtRulesThatAreNotValid() {
+        // When-Then
+        assertThrows(IllegalArgumentException.class, () -> CompiledRules.compile(List.of(
+                new RuleDefinition("unknown currency", "fail", List.of("XYZ"), null, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> CompiledRules.compile(List.of(
+                new RuleDefinition("passing", "pass", List.of("INR"), null, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> CompiledRules.compile(List.of(
+                new RuleDefinition("everything", "fail", null, null, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> CompiledRules.compile(List.of(
+                new RuleDefinition("twice", "fail", List.of("INR"), null, null, null),
+                new RuleDefinition("twice", "fail", List.of("USD"), null, null, null))));
+        assertThrows(IllegalStateException.class, () -> new ConfiguredRules(write("[ { \"name\": ").toString(), RELOAD_MILLIS, meterRegistry));
+    }
+
+    private Path write(String rules) throws IOException {
+        return Files.writeString(tempDir.resolve("rules.json"), rules);
+    }
+
+    // File times may be no finer than a second.
+    private static void change(Path file, String rules) throws IOException {
+        final FileTime modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, rules);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 1000));
+    }
+
+    private static CreditCard cardIssuedBy(String issuingBank) {
+        return CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank(issuingBank)
+                .withValidNumber()
+                .withValidCVV()
+                .withFutureExpiryDate()
+                .build();
+    }
+}
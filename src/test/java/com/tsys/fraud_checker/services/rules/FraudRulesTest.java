@@ -0,0 +1,215 @@
+package com.tsys.fraud_checker.services.rules;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.Outcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudRulesTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    private final List<String> evaluated = new ArrayList<>();
+
+    @Test
+    public void evaluatesRulesThatCanFailCheapestFirst() {
+        // Given
+        final FraudRules rules = new FraudRules(List.of(
+                rule("suspicious", 10, false, Outcome.SUSPICIOUS),
+                rule("expensive", 1000, true, Outcome.PASS),
+                rule("cheap", 100, true, Outcome.PASS)), FraudRules.FIXED, 0.2, meterRegistry);
+
+        // When
+        final FraudRules.Evaluation evaluation = rules.evaluate(validCard, charge);
+
+        // Then
+        assertThat(evaluated).containsExactly("cheap", "expensive", "suspicious");
+        assertThat(evaluation.outcome).isEqualTo(Outcome.SUSPICIOUS);
+        assertThat(evaluation.failedBy).isNull();
+    }
+
+    @Test
+    public void skipsRemainingRulesOnceOneFails() {
+        // Given
+        final FraudRules rules = new FraudRules(List.of(
+                rule("expensive", 1000, true, Outcome.PASS),
+                rule("cheap", 100, true, Outcome.FAIL),
+                rule("suspicious", 10, false, Outcome.SUSPICIOUS)), FraudRules.FIXED, 0.2, meterRegistry);
+
+        // When
+        final FraudRules.Evaluation evaluation = rules.evaluate(validCard, charge);
+
+        // Then
+        assertThat(evaluated).containsExactly("cheap");
+        assertThat(evaluation.outcome).isEqualTo(Outcome.FAIL);
+        assertThat(evaluation.failedBy).isEqualTo("cheap");
+        assertThat(meterRegistry.get("fraud_checker.rules.skipped").tag("rule", "expensive").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud_checker.rules.evaluations")
+                .tags("rule", "cheap", "outcome", FraudStatus.FAIL).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void reordersRulesThatOftenFailChecksFirst() {
+        // Given
+        final FraudRules rules = new FraudRules(List.of(
+                failingOneIn("rarely", 100, 100),
+                failingOneIn("often", 1000, 2)), FraudRules.ADAPTIVE, 1.0, meterRegistry);
+        assertThat(namesOf(rules.order())).containsExactly("rarely", "often");
+        for (int i = 0; i < 1000; i++)
+            rules.evaluate(validCard, charge);
+
+        // When
+        rules.reorder();
+
+        // Then
+        assertThat(namesOf(rules.order())).containsExactly("often", "rarely");
+        assertThat(namesOf(rules.fixedOrder())).containsExactly("rarely", "often");
+        assertThat(rules.expectedNanos()).isLessThan(rules.fixedOrderExpectedNanos());
+    }
+
+    @Test
+    public void keepsToFixedOrderWhileMeasuringRules() {
+        // Given
+        final FraudRules rules = new FraudRules(List.of(
+                failingOneIn("rarely", 100, 100),
+                failingOneIn("often", 1000, 2)), FraudRules.FIXED, 1.0, meterRegistry);
+        for (int i = 0; i < 1000; i++)
+            rules.evaluate(validCard, charge);
+
+        // When
+        rules.reorder();
+
+        // Then
+        assertThat(namesOf(rules.order())).containsExactly("rarely", "often");
+        assertThat(rules.order().get(0).failRate()).isEqualTo(0.01);
+        assertThat(rules.order().get(1).failRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void shoutsWhenOrderingIsNeitherFixedNorAdaptive() {
+        // When-Then
+        assertThrows(IllegalArgumentException.class, () -> new FraudRules(List.of(), "random", 0.2, meterRegistry));
+    }
+
+    @Test
+    public void failsExpiredCards() {
+        // Given
+        final FraudRules rules = new FraudRules(List.of(new BlockedBinRule(""), new CardExpiryRule()), FraudRules.ADAPTIVE, 0.2, meterRegistry);
+        final CreditCard expiredCard = CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withValidNumber()
+                .withValidCVV()
+                .withPastExpiryDate()
+                .build();
+
+        // When
+        final FraudRules.Evaluation evaluation = rules.evaluate(expiredCard, charge);
+
+        // Then
+        assertThat(evaluation.failedBy).isEqualTo(FraudStatus.CARD_EXPIRED);
+        assertThat(rules.evaluate(validCard, charge).outcome).isEqualTo(Outcome.PASS);
+    }
+
+    @Test
+    public void failsCardsOfBlockedBins() {
+        // Given
+        final BlockedBinRule rule = new BlockedBinRule("411111, 44852847");
+
+        // When-Then
+        assertThat(rule.evaluate(validCard, charge)).isEqualTo(Outcome.FAIL);
+        assertThat(rule.evaluate(CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withNumber("5105-1051-0510-5100")
+                .withValidCVV()
+                .withFutureExpiryDate()
+                .build(), charge)).isEqualTo(Outcome.PASS);
+    }
+
+    @Test
+    public void shoutsWhenBlockedBinIsNotABin() {
+        // When-Then
+        assertThrows(IllegalArgumentException.class, () -> new BlockedBinRule("4485"));
+    }
+
+    private static List<String> namesOf(List<MeasuredRule> rules) {
+        return rules.stream().map(MeasuredRule::name).collect(Collectors.toList());
+    }
+
+    private FraudRule failingOneIn(String name, long costNanos, int checks) {
+        final AtomicInteger evaluations = new AtomicInteger();
+        return new FraudRule() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public long costNanos() {
+                return costNanos;
+            }
+
+            @Override
+            public boolean canFail() {
+                return true;
+            }
+
+            @Override
+            public Outcome evaluate(CreditCard card, Money charge) {
+                return evaluations.incrementAndGet() % checks == 0 ? Outcome.FAIL : Outcome.PASS;
+            }
+        };
+    }
+
+    private FraudRule rule(String name, long costNanos, boolean canFail, Outcome outcome) {
+        return new FraudRule() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public long costNanos() {
+                return costNanos;
+            }
+
+            @Override
+            public boolean canFail() {
+                return canFail;
+            }
+
+            @Override
+            public Outcome evaluate(CreditCard card, Money charge) {
+                evaluated.add(name);
+                return outcome;
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.tsys.fraud_checker.services.screening;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class CuckooFilterTest {
+
+    private static final int CARDS = 100_000;
+
+    @Test
+    public void containsEveryHashAdded() {
+        // Given
+        final CuckooFilter filter = new CuckooFilter(CARDS);
+        final Random random = new Random(12345L);
+
+        // When
+        final long[] hashes = random.longs(CARDS).toArray();
+        for (long hash : hashes)
+            assertThat(filter.add(hash)).isTrue();
+
+        // Then
+        for (long hash : hashes)
+            assertThat(filter.mightContain(hash)).isTrue();
+        assertThat(filter.size()).isEqualTo(CARDS);
+    }
+
+    @Test
+    public void rarelyContainsHashesNotAdded() {
+        // Given
+        final CuckooFilter filter = new CuckooFilter(CARDS);
+        final Random random = new Random(12345L);
+        random.longs(CARDS).forEach(filter::add);
+
+        // When
+        final long lookups = 1_000_000;
+        final long falsePositives = random.longs(lookups).filter(filter::mightContain).count();
+
+        // Then
+        final double falsePositiveRate = (double) falsePositives / lookups;
+        assertThat(falsePositiveRate).isLessThan(8.0 / (1 << 16));
+        assertThat(filter.falsePositiveRate()).isCloseTo(falsePositiveRate, offset(0.0001));
+    }
+
+    @Test
+    public void forgetsHashesRemoved() {
+        // Given
+        final CuckooFilter filter = new CuckooFilter(CARDS);
+        filter.add(42L);
+        filter.add(43L);
+
+        // When
+        final boolean removed = filter.remove(42L);
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(filter.mightContain(42L)).isFalse();
+        assertThat(filter.mightContain(43L)).isTrue();
+        assertThat(filter.remove(42L)).isFalse();
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void takesNoMoreOnceFull() {
+        // Given
+        final CuckooFilter filter = new CuckooFilter(64);
+        final Random random = new Random(12345L);
+        final long[] hashes = random.longs(filter.capacity() + 1).toArray();
+
+        // When
+        int added = 0;
+        while (filter.add(hashes[added]))
+            added++;
+
+        // Then
+        assertThat((long) added).isGreaterThan(filter.capacity() * 9 / 10);
+        for (int i = 0; i < added; i++)
+            assertThat(filter.mightContain(hashes[i])).isTrue();
+    }
+
+    @Test
+    public void takesAbout2BytesACard() {
+        // When
+        final CuckooFilter filter = new CuckooFilter(CARDS);
+
+        // Then
+        assertThat(filter.memoryBytes()).isLessThanOrEqualTo(4L * CARDS * Short.BYTES);
+        assertThat(filter.capacity()).isGreaterThanOrEqualTo(CARDS);
+    }
+}
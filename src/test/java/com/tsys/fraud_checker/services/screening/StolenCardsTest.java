@@ -0,0 +1,118 @@
+package com.tsys.fraud_checker.services.screening;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class StolenCardsTest {
+
+    private static final String STOLEN_NUMBER = "4485-2847-2013-4093";
+    private static final Duration BUDGET = Duration.ofMillis(800);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void panHashIsSha256OfTheDigitsOfThePan() {
+        // When-Then
+        assertThat(StolenCards.panHash("4485 2847 2013 4093")).isEqualTo(StolenCards.panHash(STOLEN_NUMBER));
+        assertThat(StolenCards.panHash("4485 2847 2013 409\u0664")).isEqualTo(StolenCards.panHash("448528472013409"));
+        assertThat(StolenCards.panHash("")).isEqualTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+    }
+
+    @Test
+    public void loadsPanHashesFromFileSkippingCommentsAndOtherLines() throws IOException {
+        // Given
+        final Path file = Files.write(tempDir.resolve("stolen-cards.txt"), List.of(
+                "# Compromised in the 2020 breach",
+                StolenCards.panHash(STOLEN_NUMBER),
+                "",
+                "not a PAN hash"));
+
+        // When
+        final StolenCards stolenCards = new StolenCards(true, 1000, file.toString(), meterRegistry);
+
+        // Then
+        assertThat(stolenCards.size()).isEqualTo(1);
+        assertThat(stolenCards.isStolen(STOLEN_NUMBER)).isTrue();
+        assertThat(stolenCards.isStolen("4111-1111-1111-1111")).isFalse();
+        assertThat(meterRegistry.get("fraud_checker.stolen.cards.hits").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud_checker.stolen.cards.filter.memory").gauge().value()).isEqualTo(stolenCards.memoryBytes());
+    }
+
+    @Test
+    public void addsAndRemovesCardsOneAtATime() {
+        // Given
+        final StolenCards stolenCards = new StolenCards(true, 1000, "", meterRegistry);
+        final String panHash = StolenCards.panHash(STOLEN_NUMBER);
+
+        // When-Then
+        assertThat(stolenCards.add(panHash)).isTrue();
+        assertThat(stolenCards.isStolen(STOLEN_NUMBER)).isTrue();
+        assertThat(stolenCards.remove(panHash)).isTrue();
+        assertThat(stolenCards.isStolen(STOLEN_NUMBER)).isFalse();
+        assertThat(stolenCards.remove(panHash)).isFalse();
+    }
+
+    @Test
+    public void shoutsWhenAddingWhatIsNotAPanHash() {
+        // Given
+        final StolenCards stolenCards = new StolenCards(true, 1000, "", meterRegistry);
+
+        // When-Then
+        assertThrows(IllegalArgumentException.class, () -> stolenCards.add(STOLEN_NUMBER));
+    }
+
+    @Test
+    public void checkOfStolenCardFailsWithoutVerification() throws InterruptedException {
+        // Given
+        final StolenCards stolenCards = new StolenCards(true, 1000, "", meterRegistry);
+        stolenCards.add(StolenCards.panHash(STOLEN_NUMBER));
+        final VerificationService verificationService = mock(VerificationService.class);
+        final StolenCardScreeningVerificationService screening = new StolenCardScreeningVerificationService(verificationService, stolenCards);
+        final CreditCard card = CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withValidNumber()
+                .withValidCVV()
+                .withFutureExpiryDate()
+                .build();
+
+        // When
+        final FraudStatus fraudStatus = screening.verifyTransactionAuthenticity(card, charge, BUDGET);
+
+        // Then
+        assertThat(fraudStatus.overall).isEqualTo(FraudStatus.FAIL);
+        assertThat(fraudStatus.reason).isEqualTo(FraudStatus.STOLEN_CARD);
+        verify(verificationService, never()).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class));
+    }
+}
@@ -0,0 +1,195 @@
+package com.tsys.fraud_checker.services.velocity;
+
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class VelocityTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration BUDGET = Duration.ofMillis(800);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final MockEnvironment env = new MockEnvironment()
+            .withProperty("verification.velocity.enabled", "true")
+            .withProperty("verification.velocity.minute.max-charges", "3")
+            .withProperty("verification.velocity.hour.max-amount", "10000");
+    private final Money charge = new Money(Currency.getInstance("INR"), 1000d);
+    private final CreditCard card = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Test
+    public void goesOverMinuteWindowOnBurstOfCharges() {
+        // Given
+        final Velocity velocity = new Velocity(env, meterRegistry, clock::get);
+        for (int i = 0; i < 3; i++)
+            assertThat(velocity.charge(card, charge)).isEmpty();
+
+        // When
+        final List<String> exceeded = velocity.charge(card, charge);
+
+        // Then
+        assertThat(exceeded).containsExactly(Velocity.MINUTE);
+        assertThat(meterRegistry.get("fraud_checker.velocity.exceeded")
+                .tag("window", Velocity.MINUTE).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void slidesChargesOutOfWindow() {
+        // Given
+        final Velocity velocity = new Velocity(env, meterRegistry, clock::get);
+        for (int i = 0; i < 3; i++)
+            velocity.charge(card, charge);
+
+        // When
+        clock.set(MINUTE_NANOS + MINUTE_NANOS / 2);
+
+        // Then: half of the last minute's 3 charges are still in the window
+        assertThat(velocity.charge(card, charge)).isEmpty();
+        assertThat(velocity.charge(card, charge)).containsExactly(Velocity.MINUTE);
+
+        // When
+        clock.set(3 * MINUTE_NANOS);
+
+        // Then
+        assertThat(velocity.charge(card, charge)).isEmpty();
+    }
+
+    @Test
+    public void sumsAmountsPerCurrency() {
+        // Given
+        final Velocity velocity = new Velocity(env, meterRegistry, clock::get);
+        final Money inRupees = new Money(Currency.getInstance("INR"), 4000d);
+        final Money inDollars = new Money(Currency.getInstance("USD"), 4000d);
+        clock.addAndGet(MINUTE_NANOS);
+        velocity.charge(card, inRupees);
+        velocity.charge(card, inDollars);
+        clock.addAndGet(MINUTE_NANOS);
+        assertThat(velocity.charge(card, inRupees)).isEmpty();
+
+        // When
+        clock.addAndGet(MINUTE_NANOS);
+        final List<String> exceeded = velocity.charge(card, inRupees);
+
+        // Then
+        assertThat(exceeded).containsExactly(Velocity.HOUR);
+        assertThat(velocity.charge(card, inDollars)).isEmpty();
+    }
+
+    @Test
+    public void tracksNoMoreThanMaxCardsAndForgetsIdleOnes() {
+        // Given
+        final Velocity velocity = new Velocity(env.withProperty("verification.velocity.max-cards", "1"), meterRegistry, clock::get);
+        final CreditCard another = CreditCardBuilder.make()
+                .withHolder("Jumping Jack")
+                .withIssuingBank("Bank of Test")
+                .withNumber("4111-1111-1111-1111")
+                .withValidCVV()
+                .withFutureExpiryDate()
+                .build();
+        velocity.charge(card, charge);
+
+        // When
+        for (int i = 0; i < 5; i++)
+            assertThat(velocity.charge(another, charge)).isEmpty();
+
+        // Then
+        assertThat(velocity.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud_checker.velocity.untracked").counter().count()).isEqualTo(5.0);
+
+        // When
+        clock.set(TimeUnit.DAYS.toNanos(2) + 1);
+        velocity.sweep();
+
+        // Then
+        assertThat(velocity.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void losesNoChargesMadeConcurrently() throws Exception {
+        // Given
+        final int threads = 8;
+        final int chargesPerThread = 1000;
+        final Velocity velocity = new Velocity(new MockEnvironment()
+                .withProperty("verification.velocity.minute.max-charges", String.valueOf(threads * chargesPerThread - 1))
+                .withProperty("verification.velocity.hour.max-charges", String.valueOf(Long.MAX_VALUE))
+                .withProperty("verification.velocity.day.max-charges", String.valueOf(Long.MAX_VALUE)),
+                meterRegistry, clock::get);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Callable<Integer>> chargers = new ArrayList<>();
+        for (int i = 0; i < threads; i++)
+            chargers.add(() -> {
+                int exceeded = 0;
+                for (int j = 0; j < chargesPerThread; j++)
+                    if (!velocity.charge(card, charge).isEmpty())
+                        exceeded++;
+                return exceeded;
+            });
+
+        // When
+        int exceeded = 0;
+        try {
+            for (Future<Integer> charger : executor.invokeAll(chargers))
+                exceeded += charger.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then: only the last of all the charges went over
+        assertThat(exceeded).isEqualTo(1);
+    }
+
+    @Test
+    public void checkGoingOverVelocityFailsWithoutVerification() throws InterruptedException {
+        // Given
+        final Velocity velocity = new Velocity(env, meterRegistry, clock::get);
+        for (int i = 0; i < 3; i++)
+            velocity.charge(card, charge);
+        final VerificationService verificationService = mock(VerificationService.class);
+        final VelocityCheckingVerificationService velocityChecking = new VelocityCheckingVerificationService(verificationService, velocity);
+
+        // When
+        final FraudStatus fraudStatus = velocityChecking.verifyTransactionAuthenticity(card, charge, BUDGET);
+
+        // Then
+        assertThat(fraudStatus.overall).isEqualTo(FraudStatus.FAIL);
+        assertThat(fraudStatus.reason).isEqualTo(FraudStatus.VELOCITY_EXCEEDED);
+        assertThat(fraudStatus.velocityExceeded).containsExactly(Velocity.MINUTE);
+        verify(verificationService, never()).verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class));
+    }
+}
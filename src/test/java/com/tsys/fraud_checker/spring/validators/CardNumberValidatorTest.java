@@ -0,0 +1,168 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import org.hibernate.validator.constraints.CreditCardNumber;
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.LuhnCheck;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.constraints.NotBlank;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class CardNumberValidatorTest {
+
+    private static final char[] CHARACTERS = "0123456789012345678901234567890123456789 -  -x.".toCharArray();
+
+    private static Validator validator;
+
+    @BeforeAll
+    public static void setUpClass() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @Test
+    public void isValid() {
+        assertThat(messagesFor(new TestObject("4485-2847-2013-4093")), is(empty()));
+        assertThat(messagesFor(new TestObject("4485 2847 2013 4093")), is(empty()));
+        assertThat(messagesFor(new TestObject("4485284720134093")), is(empty()));
+    }
+
+    @Test
+    public void shoutsWhenNumberIsAbsent() {
+        assertThat(messagesFor(new TestObject(null)), containsInAnyOrder("Card number is required"));
+    }
+
+    @Test
+    public void shoutsEverythingWhenNumberIsEmpty() {
+        assertThat(messagesFor(new TestObject("")), containsInAnyOrder(
+                "Card number is required",
+                "length must be between 16 and 19",
+                "Invalid Credit Card Number",
+                "Failed Luhn check!"));
+    }
+
+    @Test
+    public void shoutsWhenNumberFailsLuhnCheck() {
+        assertThat(messagesFor(new TestObject("4485-2847-2013-4094")), containsInAnyOrder(
+                "Invalid Credit Card Number",
+                "Failed Luhn check!"));
+    }
+
+    @Test
+    public void shoutsWhenNumberIsOfInsufficientLength() {
+        assertThat(messagesFor(new TestObject("4992 7398 716")), containsInAnyOrder(
+                "length must be between 16 and 19"));
+    }
+
+    @Test
+    public void shoutsWhenCheckDigitIsNotADigit() {
+        assertThat(messagesFor(new TestObject("4485-2847-2013-409-")), containsInAnyOrder(
+                "Invalid Credit Card Number",
+                "Failed Luhn check!"));
+    }
+
+    @Test
+    public void shoutsWhenCheckDigitIsNotAnAsciiDigit() {
+        assertThat(messagesFor(new TestObject("4485-2847-2013-409\u0663")), containsInAnyOrder(
+                "Invalid Credit Card Number",
+                "Failed Luhn check!"));
+    }
+
+    @Test
+    public void reportsAsTheConstraintsItReplacesDo() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final String number = i % 2 == 0 ? randomNumber(random) : withLuhnCheckDigit(randomNumber(random));
+
+            assertThat(number, messagesFor(new TestObject(number)), containsInAnyOrder(messagesFor(new AnnotatedObject(number)).toArray()));
+        }
+    }
+
+    @Test
+    public void shoutsWhenLengthsAreOutOfOrder() {
+        final var cardNumberValidator = new CardNumberValidator();
+        final CardNumber outOfOrder = OutOfOrderObject.class.getDeclaredFields()[0].getAnnotation(CardNumber.class);
+        assertThrows(IllegalArgumentException.class, () -> cardNumberValidator.initialize(outOfOrder));
+    }
+
+    private static <T> List<String> messagesFor(T object) {
+        final Set<ConstraintViolation<T>> constraintViolations = validator.validate(object);
+        return constraintViolations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
+    }
+
+    private static String randomNumber(Random random) {
+        final char[] number = new char[random.nextInt(22)];
+        for (int i = 0; i < number.length; i++)
+            number[i] = CHARACTERS[random.nextInt(CHARACTERS.length)];
+        return new String(number);
+    }
+
+    private static String withLuhnCheckDigit(String number) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = number.length() - 1; i >= 0; i--) {
+            final char c = number.charAt(i);
+            if (c < '0' || c > '9')
+                continue;
+            final int digit = doubled ? 2 * (c - '0') : c - '0';
+            sum += digit > 9 ? digit - 9 : digit;
+            doubled = !doubled;
+        }
+        return number + (10 - sum % 10) % 10;
+    }
+
+    class TestObject {
+
+        @CardNumber(min = 16, max = 19,
+                requiredMessage = "Card number is required",
+                message = "Invalid Credit Card Number",
+                luhnMessage = "Failed Luhn check!")
+        public final String number;
+
+        public TestObject(String number) {
+            this.number = number;
+        }
+    }
+
+    // The constraints CreditCard.number had before @CardNumber.
+    class AnnotatedObject {
+
+        @NotBlank(message = "Card number is required")
+        @Length(min = 16, max = 19)
+        @CreditCardNumber(ignoreNonDigitCharacters = true, message = "Invalid Credit Card Number")
+        @LuhnCheck(message = "Failed Luhn check!")
+        public final String number;
+
+        public AnnotatedObject(String number) {
+            this.number = number;
+        }
+    }
+
+    class OutOfOrderObject {
+
+        @CardNumber(min = 19, max = 16)
+        public String number;
+    }
+}
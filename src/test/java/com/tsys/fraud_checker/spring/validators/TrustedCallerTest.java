@@ -0,0 +1,173 @@
+package com.tsys.fraud_checker.spring.validators;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class TrustedCallerTest {
+
+    private static Validator validator;
+
+    private final TestObject valid = new TestObject("valid");
+    private final TestObject invalid = new TestObject("");
+
+    @BeforeAll
+    public static void setUpClass() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @Test
+    public void validatesArgumentsOfCallersThatDidNotVouchForThem() {
+        final Checks checks = validating(new Checks());
+
+        assertThat(checks.check(valid, valid), is("checked"));
+        assertThrows(ConstraintViolationException.class, () -> checks.check(invalid, valid));
+    }
+
+    @Test
+    public void doesNotValidateArgumentsVouchedFor() {
+        final Checks checks = validating(new Checks());
+
+        final String checked = TrustedCaller.call(() -> checks.check(invalid, valid), invalid, valid);
+
+        assertThat(checked, is("checked"));
+    }
+
+    @Test
+    public void validatesWhenNotAllArgumentsVouchedForArePassed() {
+        final Checks checks = validating(new Checks());
+
+        assertThrows(ConstraintViolationException.class,
+                () -> TrustedCaller.call(() -> checks.check(invalid, valid), invalid, new TestObject("valid")));
+    }
+
+    @Test
+    public void vouchesOnlyForTheDurationOfTheCall() {
+        final Checks checks = validating(new Checks());
+        TrustedCaller.call(() -> checks.check(invalid, valid), invalid, valid);
+
+        assertThrows(ConstraintViolationException.class, () -> checks.check(invalid, valid));
+    }
+
+    @Test
+    public void vouchesForEachCallMadeWithTheArgumentsVouchedFor() {
+        final Checks checks = validating(new Checks());
+
+        final String checkedTwice = TrustedCaller.call(() -> checks.check(invalid, valid) + checks.check(valid, invalid), invalid, valid);
+
+        assertThat(checkedTwice, is("checkedchecked"));
+    }
+
+    @Test
+    public void validatesCallsMadeFromACallVouchedFor() {
+        final Checks checks = validating(new Checks());
+        final Forwarder forwarder = validating(new Forwarder(checks));
+
+        assertThrows(ConstraintViolationException.class,
+                () -> TrustedCaller.call(() -> forwarder.forward(invalid, valid), invalid, valid));
+    }
+
+    @Test
+    public void validatesOnlyOnTheWayIntoTheOutermostOfDecoratedBeans() {
+        final Checks checks = validatingOnce(new Decorator(validating(new Checks())));
+
+        assertThat(checks.check(valid, valid), is("checked"));
+        assertThrows(ConstraintViolationException.class, () -> checks.check(invalid, valid));
+    }
+
+    @Test
+    public void vouchesOnForArgumentsValidatedOnTheWayIn() {
+        final Checks checks = validatingOnce(new Decorator(validating(new Checks())));
+
+        final String checked = TrustedCaller.call(() -> checks.check(invalid, valid), invalid, valid);
+
+        assertThat(checked, is("checked"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T validatingOnce(T target) {
+        final ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TrustingMethodValidationInterceptor(validator));
+        proxyFactory.addAdvice(new VouchingInterceptor());
+        return (T) proxyFactory.getProxy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T validating(T target) {
+        final ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TrustingMethodValidationInterceptor(validator));
+        return (T) proxyFactory.getProxy();
+    }
+
+    @Validated
+    public static class Checks {
+        public String check(@NotNull @Valid TestObject first, @NotNull @Valid TestObject second) {
+            return "checked";
+        }
+    }
+
+    @Validated
+    public static class Forwarder {
+        private final Checks checks;
+
+        public Forwarder() {
+            this(null);
+        }
+
+        public Forwarder(Checks checks) {
+            this.checks = checks;
+        }
+
+        public String forward(@NotNull TestObject first, @NotNull TestObject second) {
+            return checks.check(first, second);
+        }
+    }
+
+    // Reads what it is passed before passing it on, as a decorator does.
+    public static class Decorator extends Checks {
+        private final Checks checks;
+
+        public Decorator() {
+            this(null);
+        }
+
+        public Decorator(Checks checks) {
+            this.checks = checks;
+        }
+
+        @Override
+        public String check(TestObject first, TestObject second) {
+            first.name.length();
+            return checks.check(first, second);
+        }
+    }
+
+    public static class TestObject {
+        @NotBlank
+        public final String name;
+
+        public TestObject(String name) {
+            this.name = name;
+        }
+    }
+}
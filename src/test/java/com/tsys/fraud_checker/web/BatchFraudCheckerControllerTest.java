@@ -0,0 +1,281 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.services.VerificationService;
+import com.tsys.fraud_checker.web.advices.FraudControllerAdvice;
+import com.tsys.fraud_checker.web.advices.GlobalExceptionAdvice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.validation.Validation;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+// Here we are using MockMVC in standalone mode, hence not loading any context.
+//
+// NOTE: No Web-Server is deployed
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class BatchFraudCheckerControllerTest {
+
+    private static final int PARALLELISM = 2;
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard validCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+    private final CreditCard expiredCard = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withPastExpiryDate()
+            .build();
+
+    @Mock
+    private VerificationService verificationService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void buildMockMvc() {
+        final var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        final var controller = new BatchFraudCheckerController(verificationService, validator, PARALLELISM, MAX_BATCH_SIZE, objectMapper, MAX_IN_FLIGHT);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionAdvice(), new FraudControllerAdvice())
+                .build();
+    }
+
+    @Test
+    public void returnsResultsInTheOrderChecksWereSubmitted() throws Exception {
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), any(Money.class)))
+                .willAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return new FraudStatus(0, 0, false);
+                });
+        given(verificationService.verifyTransactionAuthenticity(eq(expiredCard), any(Money.class)))
+                .willReturn(new FraudStatus(0, 0, true));
+        final var cardWithoutHolder = CreditCardBuilder.make()
+                .withValidNumber()
+                .withIssuingBank("Bank")
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+
+        final var request = givenABatchRequestFor(List.of(
+                new FraudCheckPayload(validCard, charge),
+                new FraudCheckPayload(cardWithoutHolder, charge),
+                new FraudCheckPayload(expiredCard, charge)));
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+
+        final var response = "[\n" +
+                "    { \"index\": 0, \"fraudStatus\": { \"cvvStatus\": \"pass\", \"avStatus\": \"pass\", \"overall\": \"pass\" } },\n" +
+                "    { \"index\": 1, \"validationErrors\": [\n" +
+                "        { \"fieldName\": \"creditCard.holderName\", \"message\": \"is required\" }\n" +
+                "    ] },\n" +
+                "    { \"index\": 2, \"fraudStatus\": { \"cvvStatus\": \"pass\", \"avStatus\": \"pass\", \"overall\": \"fail\" } }\n" +
+                "]";
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON),
+                MockMvcResultMatchers.content().json(response, true));
+    }
+
+    @Test
+    public void verifiesAtMostParallelismChecksAtATime() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    inFlight.decrementAndGet();
+                    return new FraudStatus(0, 0, false);
+                });
+
+        final var request = givenABatchRequestFor(Collections.nCopies(MAX_BATCH_SIZE, new FraudCheckPayload(validCard, charge)));
+        thenExpect(whenTheRequestIsMade(request), MockMvcResultMatchers.status().isOk());
+
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(PARALLELISM));
+    }
+
+    @Test
+    public void reportsAFailedVerificationAgainstItsCheckOnly() throws Exception {
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), any(Money.class)))
+                .willReturn(new FraudStatus(0, 0, false));
+        given(verificationService.verifyTransactionAuthenticity(eq(expiredCard), any(Money.class)))
+                .willThrow(new InterruptedException());
+
+        final var request = givenABatchRequestFor(List.of(
+                new FraudCheckPayload(expiredCard, charge),
+                new FraudCheckPayload(validCard, charge)));
+
+        final var response = "[\n" +
+                "    { \"index\": 0, \"error\": \"Unable to verify this check, please retry\" },\n" +
+                "    { \"index\": 1, \"fraudStatus\": { \"overall\": \"pass\" } }\n" +
+                "]";
+        thenExpect(whenTheRequestIsMade(request),
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().json(response));
+    }
+
+    @Test
+    public void shoutsWhenBatchIsLargerThanMaxSize() throws Exception {
+        final var request = givenABatchRequestFor(Collections.nCopies(MAX_BATCH_SIZE + 1, new FraudCheckPayload(validCard, charge)));
+        final var response = "{\n" +
+                "    \"validationErrors\": [\n" +
+                "        {\n" +
+                "            \"fieldName\": \"payloads\",\n" +
+                "            \"message\": \"batch must contain between 1 and 10 checks\"\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+        thenExpect(whenTheRequestIsMade(request),
+                MockMvcResultMatchers.status().isBadRequest(),
+                MockMvcResultMatchers.content().json(response));
+    }
+
+    @Test
+    public void shoutsWhenBatchIsEmpty() throws Exception {
+        final var request = givenABatchRequestFor(List.of());
+        thenExpect(whenTheRequestIsMade(request),
+                MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void streamsResultsInTheOrderChecksComplete() throws Exception {
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), any(Money.class)))
+                .willAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return new FraudStatus(0, 0, false);
+                });
+        given(verificationService.verifyTransactionAuthenticity(eq(expiredCard), any(Money.class)))
+                .willReturn(new FraudStatus(0, 0, true));
+
+        final var request = givenAStreamRequestFor(
+                objectMapper.writeValueAsString(new CorrelatedFraudCheckPayload("slow-one", validCard, charge)),
+                objectMapper.writeValueAsString(new CorrelatedFraudCheckPayload("quick-one", expiredCard, charge)));
+        final String[] results = whenTheStreamIsChecked(request);
+
+        assertThat(results.length, is(2));
+        JSONAssert.assertEquals("{ \"index\": 2, \"correlationId\": \"quick-one\", \"fraudStatus\": { \"overall\": \"fail\" } }", results[0], false);
+        JSONAssert.assertEquals("{ \"index\": 1, \"correlationId\": \"slow-one\", \"fraudStatus\": { \"overall\": \"pass\" } }", results[1], false);
+    }
+
+    @Test
+    public void streamTagsChecksWithoutCorrelationIdWithTheirLineNumber() throws Exception {
+        final var cardWithoutHolder = CreditCardBuilder.make()
+                .withValidNumber()
+                .withIssuingBank("Bank")
+                .withFutureExpiryDate()
+                .withValidCVV()
+                .build();
+
+        final var request = givenAStreamRequestFor(
+                "",
+                objectMapper.writeValueAsString(new FraudCheckPayload(cardWithoutHolder, charge)),
+                "{ not a check");
+        final String[] results = whenTheStreamIsChecked(request);
+
+        assertThat(results.length, is(2));
+        final var invalid = "{ \"index\": 2, \"correlationId\": \"2\", \"validationErrors\": [\n" +
+                "    { \"fieldName\": \"creditCard.holderName\", \"message\": \"is required\" }\n" +
+                "] }";
+        final var malformed = "{ \"index\": 3, \"correlationId\": \"3\", \"error\": \"Malformed check, expected a Fraud Check Payload on a single line\" }";
+        final var invalidFirst = results[0].contains("validationErrors");
+        JSONAssert.assertEquals(invalid, invalidFirst ? results[0] : results[1], true);
+        JSONAssert.assertEquals(malformed, invalidFirst ? results[1] : results[0], true);
+    }
+
+    @Test
+    public void streamVerifiesAtMostMaxInFlightChecksAtATime() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+                .willAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    inFlight.decrementAndGet();
+                    return new FraudStatus(0, 0, false);
+                });
+
+        final var line = objectMapper.writeValueAsString(new FraudCheckPayload(validCard, charge));
+        final String[] results = whenTheStreamIsChecked(givenAStreamRequestFor(Collections.nCopies(20, line).toArray(new String[0])));
+
+        assertThat(results.length, is(20));
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(MAX_IN_FLIGHT));
+    }
+
+    private MockHttpServletRequestBuilder givenAStreamRequestFor(String... lines) {
+        return MockMvcRequestBuilders.post("/check/stream")
+                .contentType("application/x-ndjson")
+                .accept("application/x-ndjson")
+                .characterEncoding("UTF-8")
+                .content(String.join("\n", lines));
+    }
+
+    private String[] whenTheStreamIsChecked(MockHttpServletRequestBuilder request) throws Exception {
+        final MvcResult mvcResult = mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mvcResult.getAsyncResult(5000);
+        return mvcResult.getResponse().getContentAsString().split("\n");
+    }
+
+    private MockHttpServletRequestBuilder givenABatchRequestFor(List<FraudCheckPayload> payloads) throws JsonProcessingException {
+        return MockMvcRequestBuilders.post("/check/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding("UTF-8")
+                .content(objectMapper.writeValueAsString(payloads));
+    }
+
+    private ResultActions whenTheRequestIsMade(MockHttpServletRequestBuilder request) throws Exception {
+        final MvcResult asyncResult = mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult));
+    }
+
+    private void thenExpect(ResultActions resultActions, ResultMatcher... matchers) throws Exception {
+        resultActions.andExpect(ResultMatcher.matchAll(matchers));
+    }
+}
@@ -0,0 +1,166 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudCheckPayloadDeserializerTest {
+
+    private static final String[] NUMBERS = {"\"4485-2847-2013-4093\"", "\"4485 2847 2013 4093\"", "\"\"", "null", "4485284720134093", "true", "[]"};
+    private static final String[] NAMES = {"\"Jumping Jack\"", "\"J\\u00f6rg \\\"JJ\\\" Jack\"", "\"\"", "null", "42"};
+    private static final String[] DATES = {
+            "\"2020-10-04T01:00:26.874+00:00\"", "\"2030-02-28T23:59:59Z\"", "\"2028-02-29T12:00:00.001+05:30\"",
+            "\"2029-12-31T18:30:00-0800\"", "\"2030-01-01T00:00:00.5Z\"", "\"2030-01-01T00:00:00.123456Z\"",
+            "\"2030-01-01T00:00:00\"", "\"2030-01-01\"", "\"2029-02-29T00:00:00Z\"", "\"2030-13-01T00:00:00Z\"",
+            "\"2030-01-01T24:00:00Z\"", "\"1500-06-15T00:00:00Z\"", "\"2030-01-01T00:00:00+24:00\"", "\"2030-01-01T00:00:00+05\"",
+            "\"1893456000000\"", "1893456000000", "\"next year\"", "\"\"", "null", "12.5"};
+    private static final String[] CVVS = {"123", "7", "4294967296", "123.7", "\"123\"", "\"abc\"", "null", "true"};
+    private static final String[] CURRENCIES = {"\"INR\"", "\"USD\"", "\"EUR\"", "\"JPY\"", "\"inr\"", "\"XYZ\"", "\"INRX\"", "\"I\"", "\"\"", "null", "356"};
+    private static final String[] AMOUNTS = {"1235.45", "100", "1e3", "-0.0", "\"12.5\"", "\"twelve\"", "null", "false", "123456789012345678901234567890"};
+
+    // As the application reads them, and as they were bound reflectively
+    // before, with and without failing on unknown properties.
+    private final ObjectMapper springMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper springBinding = Jackson2ObjectMapperBuilder.json()
+            .mixIn(FraudCheckPayload.class, ReflectiveBinding.class)
+            .mixIn(CorrelatedFraudCheckPayload.class, ReflectiveBinding.class)
+            .build();
+    private final ObjectMapper strictMapper = new ObjectMapper();
+    private final ObjectMapper strictBinding = new ObjectMapper()
+            .addMixIn(FraudCheckPayload.class, ReflectiveBinding.class)
+            .addMixIn(CorrelatedFraudCheckPayload.class, ReflectiveBinding.class);
+
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class ReflectiveBinding {
+    }
+
+    @Test
+    public void readsPayloadsJustAsReflectiveBindingDoes() {
+        // Given
+        final Random random = new Random(20201004L);
+
+        for (int i = 0; i < 20000; i++) {
+            final String payload = payload(random);
+
+            // When-Then
+            assertThat(read(springMapper, payload, FraudCheckPayload.class)).as(payload)
+                    .isEqualTo(read(springBinding, payload, FraudCheckPayload.class));
+            assertThat(read(strictMapper, payload, FraudCheckPayload.class)).as(payload)
+                    .isEqualTo(read(strictBinding, payload, FraudCheckPayload.class));
+            assertThat(read(springMapper, payload, CorrelatedFraudCheckPayload.class)).as(payload)
+                    .isEqualTo(read(springBinding, payload, CorrelatedFraudCheckPayload.class));
+        }
+    }
+
+    @Test
+    public void readsEveryCurrencyJustAsReflectiveBindingDoes() {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            // Given
+            final String payload = "{ \"charge\" : { \"currency\" : \"" + currency.getCurrencyCode() + "\", \"amount\" : 1 } }";
+
+            // When-Then
+            assertThat(read(springMapper, payload, FraudCheckPayload.class)).as(payload)
+                    .isEqualTo(read(springBinding, payload, FraudCheckPayload.class));
+        }
+    }
+
+    private static String payload(Random random) {
+        final List<String> fields = new ArrayList<>();
+        maybe(random, fields, "creditCard", creditCard(random));
+        maybe(random, fields, "charge", charge(random));
+        maybe(random, fields, "correlationId", pick(random, NAMES));
+        rarely(random, fields, "unknown", "{ \"nested\" : [1, 2, {\"creditCard\" : null}] }");
+        return object(random, fields);
+    }
+
+    private static String creditCard(Random random) {
+        switch (random.nextInt(12)) {
+            case 0:
+                return "null";
+            case 1:
+                return "\"4485-2847-2013-4093\"";
+            default:
+                final List<String> fields = new ArrayList<>();
+                maybe(random, fields, "number", pick(random, NUMBERS));
+                maybe(random, fields, "holderName", pick(random, NAMES));
+                maybe(random, fields, "issuingBank", pick(random, NAMES));
+                maybe(random, fields, "validUntil", pick(random, DATES));
+                maybe(random, fields, "cvv", pick(random, CVVS));
+                rarely(random, fields, "expired", "true");
+                return object(random, fields);
+        }
+    }
+
+    private static String charge(Random random) {
+        switch (random.nextInt(12)) {
+            case 0:
+                return "null";
+            case 1:
+                return "[ \"INR\", 12 ]";
+            default:
+                final List<String> fields = new ArrayList<>();
+                maybe(random, fields, "currency", pick(random, CURRENCIES));
+                maybe(random, fields, "amount", pick(random, AMOUNTS));
+                rarely(random, fields, "symbol", "\"Rs\"");
+                return object(random, fields);
+        }
+    }
+
+    private static void maybe(Random random, List<String> fields, String name, String value) {
+        if (random.nextInt(6) > 0)
+            fields.add("\"" + name + "\" : " + value);
+    }
+
+    // Unknown fields are left out more often than not, so that most
+    // payloads read under both kinds of mapper.
+    private static void rarely(Random random, List<String> fields, String name, String value) {
+        if (random.nextInt(8) == 0)
+            fields.add("\"" + name + "\" : " + value);
+    }
+
+    private static String object(Random random, List<String> fields) {
+        for (int i = fields.size() - 1; i > 0; i--)
+            fields.set(i, fields.set(random.nextInt(i + 1), fields.get(i)));
+        return "{ " + String.join(", ", fields) + " }";
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // What was read, down to the millisecond of the expiry date, or the
+    // kind of failure to read it.
+    private static String read(ObjectMapper objectMapper, String payload, Class<? extends FraudCheckPayload> type) {
+        try {
+            final FraudCheckPayload read = objectMapper.readValue(payload, type);
+            final String correlationId = read instanceof CorrelatedFraudCheckPayload ? ((CorrelatedFraudCheckPayload) read).correlationId : null;
+            return String.format("%s %s %s %s", read.getClass().getSimpleName(), correlationId, describe(read), read.charge == null ? null
+                    : read.charge.currency + " " + read.charge.amount);
+        } catch (JsonProcessingException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    private static String describe(FraudCheckPayload payload) {
+        if (payload.creditCard == null)
+            return null;
+        return String.format("%s|%s|%s|%s|%s", payload.creditCard.number, payload.creditCard.holderName, payload.creditCard.issuingBank,
+                payload.creditCard.validUntil == null ? null : payload.creditCard.validUntil.getTime(), payload.creditCard.cvv);
+    }
+}
@@ -3,6 +3,8 @@ package com.tsys.fraud_checker.web;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.tsys.fraud_checker.domain.CreditCard;
 import com.tsys.fraud_checker.domain.CreditCardBuilder;
 import com.tsys.fraud_checker.domain.FraudStatus;
@@ -10,16 +12,21 @@ import com.tsys.fraud_checker.domain.Money;
 import com.tsys.fraud_checker.services.DefaultVerificationService;
 import com.tsys.fraud_checker.web.advices.FraudControllerAdvice;
 import com.tsys.fraud_checker.web.advices.GlobalExceptionAdvice;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobuf;
+import com.tsys.fraud_checker.web.protobuf.FraudCheckProtobufConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Tags;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
@@ -27,9 +34,12 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.Currency;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 
 // For Junit4, use @RunWith
@@ -49,6 +59,10 @@ import static org.mockito.BDDMockito.given;
 })
 public class FraudCheckerControllerCheckFraudValidationTest {
 
+    private static final long CHECK_TIMEOUT_MILLIS = 1000;
+    private static final long CHECK_BUDGET_MILLIS = 800;
+    private static final long BUDGET_HEADROOM_MILLIS = 50;
+
     private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
     private final CreditCard validCard = CreditCardBuilder.make()
             .withHolder("Jumping Jack")
@@ -60,15 +74,16 @@ public class FraudCheckerControllerCheckFraudValidationTest {
     @Mock
     private DefaultVerificationService verificationService;
 
-    // Annotate our FraudCheckerController instance with @InjectMocks. So, Mockito injects the
-    // mocked verificationService into the controller instead of the real bean instance.
-    @InjectMocks
+    // Our FraudCheckerController instance gets the mocked verificationService instead of
+    // the real bean instance.  It is not annotated with @InjectMocks, as Mockito cannot
+    // supply the check timeout and budgets it also needs.
     private FraudCheckerController fraudCheckerController;
     private ObjectMapper objectMapper = new ObjectMapper(new JsonFactory());
     private MockMvc mockMvc;
 
     @BeforeEach
     public void buildMockMvc() {
+        fraudCheckerController = new FraudCheckerController(verificationService, CHECK_TIMEOUT_MILLIS, CHECK_BUDGET_MILLIS, BUDGET_HEADROOM_MILLIS);
         // MockMvc standalone approach
         mockMvc = MockMvcBuilders.standaloneSetup(fraudCheckerController)
                 //  Add custom Advices and Filters manually and control each
@@ -81,7 +96,7 @@ public class FraudCheckerControllerCheckFraudValidationTest {
     public void chargingAValidCard() throws Exception {
         final var request = givenAFraudCheckRequestFor(validCard, charge);
         FraudStatus ignoreSuccess = new FraudStatus(0, 0, false);
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
                 .willReturn(ignoreSuccess);
 
         final ResultActions resultActions = whenTheRequestIsMade(request);
@@ -92,9 +107,147 @@ public class FraudCheckerControllerCheckFraudValidationTest {
         );
     }
 
+    @Test
+    public void checksWithinCallersLatencyBudgetLessHeadroom() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(FraudCheckerController.LATENCY_BUDGET_HEADER, "300");
+        final FraudStatus cvvTimedOut = new FraudStatus(FraudStatus.TIMED_OUT, 0, false);
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), eq(Duration.ofMillis(250))))
+                .willReturn(cvvTimedOut);
+
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        final var response = "{\n" +
+                "    \"cvvStatus\": \"unknown\",\n" +
+                "    \"avStatus\": \"pass\",\n" +
+                "    \"overall\": \"suspicious\",\n" +
+                "    \"timedOut\": [ \"cvv\" ]\n" +
+                "}";
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().json(response, true));
+    }
+
+    @Test
+    public void checksWithinConfiguredLatencyBudgetWhenCallerGivesNone() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge);
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), eq(Duration.ofMillis(CHECK_BUDGET_MILLIS - BUDGET_HEADROOM_MILLIS))))
+                .willReturn(new FraudStatus(0, 0, false));
+
+        thenExpect(whenTheRequestIsMade(request), MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    public void callersLatencyBudgetIsCappedAtCheckTimeout() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(FraudCheckerController.LATENCY_BUDGET_HEADER, "60000");
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), eq(Duration.ofMillis(CHECK_TIMEOUT_MILLIS - BUDGET_HEADROOM_MILLIS))))
+                .willReturn(new FraudStatus(0, 0, false));
+
+        thenExpect(whenTheRequestIsMade(request), MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    public void decidesOnCallersRiskScoreThresholds() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(FraudCheckerController.RISK_THRESHOLDS_HEADER, "100,300");
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
+                .willReturn(new FraudStatus(0, 1, false));
+
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        final var response = "{\n" +
+                "    \"cvvStatus\": \"pass\",\n" +
+                "    \"avStatus\": \"incorrect address\",\n" +
+                "    \"overall\": \"fail\",\n" +
+                "    \"riskScore\": 300\n" +
+                "}";
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().json(response, true));
+    }
+
+    @Test
+    public void chargingAValidCardInCbor() throws Exception {
+        final var cbor = new CBORMapper();
+        final var request = MockMvcRequestBuilders.post("/check")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cbor.writeValueAsBytes(new FraudCheckPayload(validCard, charge)));
+        final FraudStatus cvvTimedOut = new FraudStatus(FraudStatus.TIMED_OUT, 0, false);
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willReturn(cvvTimedOut);
+
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+        assertThat(cbor.readTree(resultActions.andReturn().getResponse().getContentAsByteArray()))
+                .isEqualTo(objectMapper.valueToTree(cvvTimedOut));
+    }
+
+    @Test
+    public void answersInSmileWhenPreferredOverJson() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile");
+        final FraudStatus pass = new FraudStatus(0, 0, false);
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
+                .willReturn(pass);
+
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isOk(),
+                MockMvcResultMatchers.content().contentType("application/x-jackson-smile"));
+        assertThat(new SmileMapper().readTree(resultActions.andReturn().getResponse().getContentAsByteArray()))
+                .isEqualTo(objectMapper.valueToTree(pass));
+    }
+
+    @Test
+    public void chargingAValidCardInProtobuf() throws Exception {
+        final var mockMvc = protobufMockMvc();
+        final var request = MockMvcRequestBuilders.post("/check")
+                .contentType(FraudCheckProtobuf.MEDIA_TYPE)
+                .accept(FraudCheckProtobuf.MEDIA_TYPE)
+                .content(FraudCheckProtobuf.encode(new FraudCheckPayload(validCard, charge)));
+        final FraudStatus addressIncorrect = new FraudStatus(0, 1, false);
+        given(verificationService.verifyTransactionAuthenticity(eq(validCard), eq(charge), any(Duration.class)))
+                .willReturn(addressIncorrect);
+
+        final MvcResult mvcResult = mockMvc.perform(request).andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(FraudCheckProtobuf.MEDIA_TYPE))
+                .andExpect(MockMvcResultMatchers.content().bytes(FraudCheckProtobuf.encode(addressIncorrect)));
+    }
+
+    @Test
+    public void protobufCheckWithoutACardIsInvalid() throws Exception {
+        final var request = MockMvcRequestBuilders.post("/check")
+                .contentType(FraudCheckProtobuf.MEDIA_TYPE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(FraudCheckProtobuf.encode(new FraudCheckPayload(null, charge)));
+
+        thenExpect(protobufMockMvc().perform(request), MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    // Standalone MockMvc has the JSON, CBOR and Smile converters by
+    // default, but the Protobuf one is only added by WireFormatConfiguration.
+    private MockMvc protobufMockMvc() {
+        return MockMvcBuilders.standaloneSetup(fraudCheckerController)
+                .setControllerAdvice(new GlobalExceptionAdvice(), new FraudControllerAdvice())
+                .setMessageConverters(new ByteArrayHttpMessageConverter(), new MappingJackson2HttpMessageConverter(), new FraudCheckProtobufConverter())
+                .build();
+    }
+
+    @Test
+    public void shoutsWhenRiskScoreThresholdsAreOutOfOrder() throws Exception {
+        final var request = givenAFraudCheckRequestFor(validCard, charge)
+                .header(FraudCheckerController.RISK_THRESHOLDS_HEADER, "700,300");
+
+        thenExpect(whenTheRequestIsMade(request), MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     public void shoutsWhenThereIsAProblemWithCheckingCardFraud() throws Exception {
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
                 .willThrow(new InterruptedException());
 
         final var request = givenAFraudCheckRequestFor("{\n" +
@@ -114,7 +267,7 @@ public class FraudCheckerControllerCheckFraudValidationTest {
         final ResultActions resultActions = whenTheRequestIsMade(request);
 
         thenExpect(resultActions,
-                MockMvcResultMatchers.status().isInternalServerError());
+                MockMvcResultMatchers.status().isServiceUnavailable());
     }
 
     @Test
@@ -585,8 +738,15 @@ public class FraudCheckerControllerCheckFraudValidationTest {
                 .content(requestBody);
     }
 
+    // A valid check is verified asynchronously, and its response is only
+    // written once the async result is dispatched.  Invalid checks are
+    // rejected straight away.
     private ResultActions whenTheRequestIsMade(MockHttpServletRequestBuilder request) throws Exception {
-        return mockMvc.perform(request);
+        final ResultActions resultActions = mockMvc.perform(request);
+        final MvcResult mvcResult = resultActions.andReturn();
+        if (mvcResult.getRequest().isAsyncStarted())
+            return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+        return resultActions;
     }
 
     private void thenExpect(ResultActions resultActions, ResultMatcher... matchers) throws Exception {
@@ -16,12 +16,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Duration;
 import java.util.Currency;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -65,7 +67,7 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
     public void chargingAValidCard() throws Exception {
         final var request = givenAFraudCheckRequestFor(validCard, charge);
         FraudStatus ignoreSuccess = new FraudStatus(0, 0, false);
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
                 .willReturn(ignoreSuccess);
 
         final ResultActions resultActions = whenTheRequestIsMade(request);
@@ -78,7 +80,7 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
 
     @Test
     public void shoutsWhenThereIsAProblemWithCheckingCardFraud() throws Exception {
-        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class)))
+        given(verificationService.verifyTransactionAuthenticity(any(CreditCard.class), any(Money.class), any(Duration.class)))
                 .willThrow(new InterruptedException());
 
         final var request = givenAFraudCheckRequestFor("{\n" +
@@ -98,7 +100,7 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
         final ResultActions resultActions = whenTheRequestIsMade(request);
 
         thenExpect(resultActions,
-                MockMvcResultMatchers.status().isInternalServerError());
+                MockMvcResultMatchers.status().isServiceUnavailable());
     }
 
     @Test
@@ -569,8 +571,15 @@ public class FraudCheckerControllerCheckFraudValidationWebMvcTest {
                 .content(requestBody);
     }
 
+    // A valid check is verified asynchronously, and its response is only
+    // written once the async result is dispatched.  Invalid checks are
+    // rejected straight away.
     private ResultActions whenTheRequestIsMade(MockHttpServletRequestBuilder request) throws Exception {
-        return mockMvc.perform(request);
+        final ResultActions resultActions = mockMvc.perform(request);
+        final MvcResult mvcResult = resultActions.andReturn();
+        if (mvcResult.getRequest().isAsyncStarted())
+            return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+        return resultActions;
     }
 
     private void thenExpect(ResultActions resultActions, ResultMatcher... matchers) throws Exception {
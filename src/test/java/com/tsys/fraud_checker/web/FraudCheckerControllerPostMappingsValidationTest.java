@@ -8,7 +8,6 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Tags;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.aop.framework.ProxyFactoryBean;
@@ -29,16 +28,21 @@ import org.springframework.validation.beanvalidation.MethodValidationInterceptor
 })
 class FraudCheckerControllerPostMappingsValidationTest {
 
+    private static final long CHECK_TIMEOUT_MILLIS = 1000;
+    private static final long CHECK_BUDGET_MILLIS = 800;
+    private static final long BUDGET_HEADROOM_MILLIS = 50;
+
     @Mock
     private DefaultVerificationService verificationService;
-    // Annotate our FraudCheckerController instance with @InjectMocks. So, Mockito injects the
-    // mocked verificationService into the controller instead of the real bean instance.
-    @InjectMocks
+    // Our FraudCheckerController instance gets the mocked verificationService instead of
+    // the real bean instance.  It is not annotated with @InjectMocks, as Mockito cannot
+    // supply the check timeout and budgets it also needs.
     private FraudCheckerController fraudCheckerController;
     private MockMvc mockMvc;
 
     @BeforeEach
     public void buildMockMvc() {
+        fraudCheckerController = new FraudCheckerController(verificationService, CHECK_TIMEOUT_MILLIS, CHECK_BUDGET_MILLIS, BUDGET_HEADROOM_MILLIS);
         // MockMvc standalone approach
         final var methodValidationInterceptor = new MethodValidationInterceptor();
         final var proxyFactoryBean = new ProxyFactoryBean();
@@ -139,6 +143,40 @@ class FraudCheckerControllerPostMappingsValidationTest {
                 content.json(response));
     }
 
+    @Test
+    public void shoutsWhenLatencyBudgetIsBelow1() throws Exception {
+        final var request = MockMvcRequestBuilders.post("/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding("UTF-8")
+                .content("{\n" +
+                        "    \"creditCard\" : {\n" +
+                        "        \"number\": \"4485-2847-2013-4093\",\n" +
+                        "        \"holderName\" : \"Jumping Jack\",\n" +
+                        "        \"issuingBank\" : \"Bank of America\",\n" +
+                        "        \"validUntil\" : \"2020-10-04T01:00:26.874+00:00\",\n" +
+                        "        \"cvv\" : 123\n" +
+                        "    },\n" +
+                        "    \"charge\" : {\n" +
+                        "        \"currency\" : \"INR\",\n" +
+                        "        \"amount\" : 1235.45\n" +
+                        "    }\n" +
+                        "}")
+                .header(FraudCheckerController.LATENCY_BUDGET_HEADER, "0");
+
+        final ResultActions resultActions = whenTheRequestIsMade(request);
+        final var response = "{\n" +
+                "    \"validationErrors\": [\n" +
+                "        {\n" +
+                "            \"fieldName\": \"checkFraud.latencyBudgetMillis\",\n" +
+                "            \"message\": \"A latency budget of at least 1 ms is required\"\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+        thenExpect(resultActions,
+                MockMvcResultMatchers.status().isBadRequest(),
+                MockMvcResultMatchers.content().json(response));
+    }
+
 
     private MockHttpServletRequestBuilder givenAFraudCheckRequestFor(String requestBody, String headerParam) {
         return MockMvcRequestBuilders.post("/validateHeaderUsingPost")
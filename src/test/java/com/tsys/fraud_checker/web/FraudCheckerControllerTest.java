@@ -6,7 +6,6 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Tags;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -30,18 +29,23 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 })
 public class FraudCheckerControllerTest {
 
+    private static final long CHECK_TIMEOUT_MILLIS = 1000;
+    private static final long CHECK_BUDGET_MILLIS = 800;
+    private static final long BUDGET_HEADROOM_MILLIS = 50;
+
     @Mock
     private DefaultVerificationService verificationService;
 
-    // Annotate our FraudCheckerController instance with @InjectMocks. So, Mockito injects the
-    // mocked verificationService into the controller instead of the real bean instance.
-    @InjectMocks
+    // Our FraudCheckerController instance gets the mocked verificationService instead of
+    // the real bean instance.  It is not annotated with @InjectMocks, as Mockito cannot
+    // supply the check timeout and budgets it also needs.
     private FraudCheckerController fraudCheckerController;
 
     private MockMvc mockMvc;
 
     @BeforeEach
     public void buildMockMvc() {
+        fraudCheckerController = new FraudCheckerController(verificationService, CHECK_TIMEOUT_MILLIS, CHECK_BUDGET_MILLIS, BUDGET_HEADROOM_MILLIS);
         // MockMvc standalone approach
         mockMvc = MockMvcBuilders.standaloneSetup(fraudCheckerController)
                 //  Add custom Advices and Filters manually and control each
@@ -0,0 +1,69 @@
+package com.tsys.fraud_checker.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Outcome;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudStatusBodiesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void preEncodedBodiesAreWhatJacksonWouldWrite() throws Exception {
+        for (FraudStatus status : FraudStatus.canonical())
+            // When-Then
+            assertThat(new String(FraudStatusBodies.of(status, WireFormat.JSON)))
+                    .isEqualTo(objectMapper.writeValueAsString(status));
+    }
+
+    @Test
+    public void preEncodedBodiesAreWhatEachFormatWouldWrite() {
+        for (FraudStatus status : FraudStatus.canonical())
+            for (WireFormat format : WireFormat.values())
+                // When-Then
+                assertThat(FraudStatusBodies.of(status, format)).isEqualTo(format.encode(status));
+    }
+
+    @Test
+    public void binaryJacksonBodiesCarryTheSameFieldsAsJson() throws Exception {
+        for (FraudStatus status : FraudStatus.canonical()) {
+            // Given
+            final var json = objectMapper.readTree(FraudStatusBodies.of(status, WireFormat.JSON));
+
+            // When-Then
+            assertThat(new CBORMapper().readTree(FraudStatusBodies.of(status, WireFormat.CBOR))).isEqualTo(json);
+            assertThat(new SmileMapper().readTree(FraudStatusBodies.of(status, WireFormat.SMILE))).isEqualTo(json);
+        }
+    }
+
+    @Test
+    public void answersCanonicalStatusWithTheSameBodyEachTime() {
+        // Given
+        final FraudStatus suspicious = FraudStatus.of(FraudStatus.TIMED_OUT, 0, Outcome.PASS);
+
+        // When-Then
+        for (WireFormat format : WireFormat.values())
+            assertThat(FraudStatusBodies.of(suspicious, format)).isSameAs(FraudStatusBodies.of(suspicious, format));
+    }
+
+    @Test
+    public void encodesAnyOtherStatusAsItComes() throws Exception {
+        // Given
+        final FraudStatus stolen = FraudStatus.failedWithoutVerification(FraudStatus.STOLEN_CARD);
+
+        // When-Then
+        assertThat(new String(FraudStatusBodies.of(stolen, WireFormat.JSON)))
+                .isEqualTo(objectMapper.writeValueAsString(stolen));
+    }
+}
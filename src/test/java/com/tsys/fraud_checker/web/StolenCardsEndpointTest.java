@@ -0,0 +1,73 @@
+package com.tsys.fraud_checker.web;
+
+import com.tsys.fraud_checker.services.screening.StolenCards;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "verification.stolen-cards.enabled=true",
+        "management.endpoints.web.exposure.include=stolencardfilter,stolencards"
+})
+@Tags({
+        @Tag("In-Process"),
+        @Tag("ComponentTest")
+})
+public class StolenCardsEndpointTest {
+
+    // SHA-256 of 4485284720134093
+    private static final String PAN_HASH = "9e4333bbbe896b08b6e47c251cc8b7f7e151673f1d9ec27a9adeaf5c1b90b194";
+
+    @Autowired
+    private TestRestTemplate client;
+
+    @Autowired
+    private StolenCards stolenCards;
+
+    @Test
+    public void reportsTheFilter() {
+        // When
+        final ResponseEntity<String> response = client.getForEntity("/actuator/stolencardfilter", String.class);
+
+        // Then
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody(), containsString("\"enabled\":true"));
+    }
+
+    @Test
+    public void cardsCannotBeAddedOrRemovedUnlessTurnedOn() {
+        // Given
+        final long size = stolenCards.size();
+
+        // When
+        final ResponseEntity<String> added = client.postForEntity("/actuator/stolencards/" + PAN_HASH, asJson("{}"), String.class);
+        final ResponseEntity<String> removed = client.exchange("/actuator/stolencards/" + PAN_HASH, HttpMethod.DELETE, null, String.class);
+
+        // Then
+        assertThat(added.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        assertThat(removed.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        assertThat(stolenCards.size(), is(size));
+    }
+
+    private static HttpEntity<String> asJson(String body) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,181 @@
+package com.tsys.fraud_checker.web.protobuf;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnknownFieldSet;
+import com.tsys.fraud_checker.domain.CreditCard;
+import com.tsys.fraud_checker.domain.CreditCardBuilder;
+import com.tsys.fraud_checker.domain.FraudStatus;
+import com.tsys.fraud_checker.domain.Money;
+import com.tsys.fraud_checker.domain.RiskThresholds;
+import com.tsys.fraud_checker.web.BatchCheckResult;
+import com.tsys.fraud_checker.web.CorrelatedFraudCheckPayload;
+import com.tsys.fraud_checker.web.FraudCheckPayload;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Tags;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tags({
+        @Tag("StandAlone"),
+        @Tag("UnitTest")
+})
+public class FraudCheckProtobufTest {
+
+    private final Money charge = new Money(Currency.getInstance("INR"), 1235.45d);
+    private final CreditCard card = CreditCardBuilder.make()
+            .withHolder("Jumping Jack")
+            .withIssuingBank("Bank of Test")
+            .withValidNumber()
+            .withValidCVV()
+            .withFutureExpiryDate()
+            .build();
+
+    @Test
+    public void readsBackTheCheckItWrote() throws Exception {
+        // Given
+        final byte[] encoded = FraudCheckProtobuf.encode(new FraudCheckPayload(card, charge));
+
+        // When
+        final FraudCheckPayload read = FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(encoded), false);
+
+        // Then
+        assertThat(read.creditCard).isEqualTo(card);
+        assertThat(read.charge).isEqualTo(charge);
+    }
+
+    @Test
+    public void readsBackTheCorrelationIdOfACheck() throws Exception {
+        // Given
+        final byte[] encoded = FraudCheckProtobuf.encode(new CorrelatedFraudCheckPayload("order-42", card, charge));
+
+        // When
+        final FraudCheckPayload read = FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(encoded), true);
+
+        // Then
+        assertThat(read).isInstanceOf(CorrelatedFraudCheckPayload.class);
+        assertThat(((CorrelatedFraudCheckPayload) read).correlationId).isEqualTo("order-42");
+        assertThat(read.creditCard).isEqualTo(card);
+    }
+
+    @Test
+    public void leavesOutFieldsThatAreNotSet() throws Exception {
+        // Given
+        final byte[] encoded = FraudCheckProtobuf.encode(new FraudCheckPayload(null, charge));
+
+        // When
+        final FraudCheckPayload read = FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(encoded), false);
+
+        // Then
+        assertThat(read.creditCard).isNull();
+        assertThat(read.charge).isEqualTo(charge);
+    }
+
+    @Test
+    public void skipsFieldsNotInTheSchema() throws Exception {
+        // Given
+        final byte[] check = FraudCheckProtobuf.encode(new FraudCheckPayload(card, charge));
+        final byte[] encoded = UnknownFieldSet.newBuilder()
+                .mergeFrom(check)
+                .mergeField(99, UnknownFieldSet.Field.newBuilder().addLengthDelimited(ByteString.copyFromUtf8("from a newer caller")).build())
+                .build()
+                .toByteArray();
+
+        // When
+        final FraudCheckPayload read = FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(encoded), false);
+
+        // Then
+        assertThat(read.creditCard).isEqualTo(card);
+        assertThat(read.charge).isEqualTo(charge);
+    }
+
+    @Test
+    public void readsEachCheckOfABatch() throws Exception {
+        // Given
+        final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            final byte[] check = FraudCheckProtobuf.encode(new FraudCheckPayload(card, charge));
+            batch.write(1 << 3 | 2);
+            batch.write(check.length);
+            batch.write(check);
+        }
+
+        // When
+        final List<FraudCheckPayload> read = FraudCheckProtobuf.readFraudCheckBatch(CodedInputStream.newInstance(batch.toByteArray()));
+
+        // Then
+        assertThat(read).hasSize(3).allSatisfy(check -> assertThat(check.creditCard).isEqualTo(card));
+    }
+
+    @Test
+    public void turnsAwayAnUnknownCurrency() {
+        // Given
+        final byte[] money = UnknownFieldSet.newBuilder()
+                .mergeField(1, UnknownFieldSet.Field.newBuilder().addLengthDelimited(ByteString.copyFromUtf8("XYZ!")).build())
+                .build()
+                .toByteArray();
+        final byte[] encoded = UnknownFieldSet.newBuilder()
+                .mergeField(2, UnknownFieldSet.Field.newBuilder().addLengthDelimited(ByteString.copyFrom(money)).build())
+                .build()
+                .toByteArray();
+
+        // When-Then
+        assertThatThrownBy(() -> FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(encoded), false))
+                .isInstanceOf(InvalidProtocolBufferException.class)
+                .hasMessageContaining("XYZ!");
+    }
+
+    @Test
+    public void turnsAwayATruncatedCheck() {
+        // Given
+        final byte[] check = FraudCheckProtobuf.encode(new FraudCheckPayload(card, charge));
+        final byte[] truncated = Arrays.copyOf(check, check.length - 3);
+
+        // When-Then
+        assertThatThrownBy(() -> FraudCheckProtobuf.readFraudCheck(CodedInputStream.newInstance(truncated), false))
+                .isInstanceOf(InvalidProtocolBufferException.class);
+    }
+
+    @Test
+    public void writesFraudStatusFieldsByTheirSchemaNumbers() throws Exception {
+        // Given
+        final FraudStatus suspicious = new FraudStatus(FraudStatus.TIMED_OUT, 0, false).scoredFor(RiskThresholds.DEFAULT);
+
+        // When
+        final UnknownFieldSet fields = UnknownFieldSet.parseFrom(FraudCheckProtobuf.encode(suspicious));
+
+        // Then
+        assertThat(fields.getField(1).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8(suspicious.cvvStatus));
+        assertThat(fields.getField(2).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8(suspicious.avStatus));
+        assertThat(fields.getField(3).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8(suspicious.overall));
+        assertThat(fields.getField(4).getLengthDelimitedList()).containsExactly(ByteString.copyFromUtf8("cvv"));
+        assertThat(fields.getField(8).getVarintList()).containsExactly((long) suspicious.riskScore);
+    }
+
+    @Test
+    public void writesEachResultOfABatchAsItsOwnMessage() throws Exception {
+        // Given
+        final List<BatchCheckResult> results = List.of(
+                BatchCheckResult.failed(0, "Could not verify"),
+                BatchCheckResult.failed(1, "Could not verify"));
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        // When
+        FraudCheckProtobuf.write(results, body);
+
+        // Then
+        final List<ByteString> written = UnknownFieldSet.parseFrom(body.toByteArray()).getField(1).getLengthDelimitedList();
+        assertThat(written).hasSize(2);
+        assertThat(UnknownFieldSet.parseFrom(written.get(1)).getField(1).getVarintList()).containsExactly(1L);
+        assertThat(UnknownFieldSet.parseFrom(written.get(1)).getField(5).getLengthDelimitedList())
+                .containsExactly(ByteString.copyFromUtf8("Could not verify"));
+    }
+}